@@ -8,11 +8,9 @@
  */
 package org.openhab.core.jsr223.internal.engine;
 
-import static org.openhab.core.events.EventConstants.TOPIC_PREFIX;
-import static org.openhab.core.events.EventConstants.TOPIC_SEPERATOR;
-
 import java.util.Collection;
 
+import org.openhab.core.events.ItemEvent;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -177,20 +175,9 @@ public class Jsr223Engine implements EventHandler, ItemRegistryChangeListener, S
 	 * {@inheritDoc}
 	 */
 	public void handleEvent(Event event) {
-		String itemName = (String) event.getProperty("item");
-
-		String topic = event.getTopic();
-		String[] topicParts = topic.split(TOPIC_SEPERATOR);
-
-		if (!(topicParts.length > 2) || !topicParts[0].equals(TOPIC_PREFIX)) {
-			return; // we have received an event with an invalid topic
-		}
-		String operation = topicParts[1];
-
-		if (operation.equals(EventType.COMMAND.toString())) {
-			Command command = (Command) event.getProperty("command");
-			if (command != null)
-				receiveCommand(itemName, command);
+		ItemEvent itemEvent = ItemEvent.fromEvent(event);
+		if (itemEvent != null && itemEvent.getType() == EventType.COMMAND) {
+			receiveCommand(itemEvent.getItemName(), itemEvent.getCommand());
 		}
 	}
 
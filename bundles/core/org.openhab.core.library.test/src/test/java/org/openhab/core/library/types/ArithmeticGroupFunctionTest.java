@@ -10,6 +10,7 @@ package org.openhab.core.library.types;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.Assert;
 
@@ -17,6 +18,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.items.DimmerItem;
 import org.openhab.core.library.items.SwitchItem;
@@ -205,6 +207,47 @@ public class ArithmeticGroupFunctionTest {
 		Assert.assertEquals(new DecimalType("234.95"), state);
 	}
 	
+	@Test
+	public void testIncrementalCalculationEqualsFullCalculation() {
+		GroupFunction[] functions = new GroupFunction[] {
+				new ArithmeticGroupFunction.And(OnOffType.ON, OnOffType.OFF),
+				new ArithmeticGroupFunction.Or(OnOffType.ON, OnOffType.OFF),
+				new ArithmeticGroupFunction.NAnd(OnOffType.ON, OnOffType.OFF),
+				new ArithmeticGroupFunction.NOr(OnOffType.ON, OnOffType.OFF),
+				new ArithmeticGroupFunction.Avg(),
+				new ArithmeticGroupFunction.Sum(),
+				new ArithmeticGroupFunction.Min(),
+				new ArithmeticGroupFunction.Max(),
+				new ArithmeticGroupFunction.Count(new StringType("2.*")) };
+		State[] states = new State[] { new DecimalType("1.55"), new DecimalType("2"), new DecimalType("-3.1"),
+				new DecimalType("2.00"), OnOffType.ON, OnOffType.OFF, UnDefType.UNDEF };
+
+		for (GroupFunction groupFunction : functions) {
+			Random random = new Random(42);
+			GroupItem group = new GroupItem("TestGroup", null, groupFunction);
+			for (int i = 0; i < 6; i++) {
+				TestItem item = new TestItem("TestItem" + i, states[random.nextInt(states.length)]);
+				items.add(item);
+				group.addMember(item);
+			}
+			// one item is added twice and is counted twice
+			group.addMember(items.get(0));
+			items.add(items.get(0));
+
+			for (int i = 0; i < 200; i++) {
+				((TestItem) items.get(random.nextInt(items.size()))).setState(states[random.nextInt(states.length)]);
+				State expected = groupFunction.calculate(items);
+				Assert.assertEquals(expected, group.getState());
+				if (!(groupFunction instanceof ArithmeticGroupFunction.Min)
+						&& !(groupFunction instanceof ArithmeticGroupFunction.Max)) {
+					// min and max may differ in the scale of equal values, e.g. 2 and 2.00
+					Assert.assertEquals(expected.toString(), group.getState().toString());
+				}
+			}
+			items.clear();
+		}
+	}
+
 	class TestItem extends GenericItem {
 
 		public TestItem(String name, State state) {
@@ -15,13 +15,14 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.IncrementalGroupFunction;
 import org.openhab.core.items.Item;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 
 /**
  * This interface is only a container for functions that require the core type library
- * for its calculations.
+ * for its calculations. All of them can be calculated incrementally.
  * 
  * @author Kai Kreuzer
  * @since 0.7.0
@@ -40,7 +41,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 0.7.0
 	 *
 	 */
-	static class And implements GroupFunction {
+	static class And implements IncrementalGroupFunction {
 		
 		protected final State activeState;
 		protected final State passiveState;
@@ -70,6 +71,29 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			}
 		}
 
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new ActiveStateAggregator(activeState) {
+				@Override
+				protected State calculate(int size) {
+					return And.this.calculate(getActiveCount(), size);
+				}
+			};
+		}
+
+		/**
+		 * Determines the group state from the number of items in the 'activeState'.
+		 * 
+		 * @param activeCount the number of items in the 'activeState'
+		 * @param itemCount the number of all items
+		 * @return the group state
+		 */
+		protected State calculate(int activeCount, int itemCount) {
+			return itemCount>0 && activeCount==itemCount ? activeState : passiveState;
+		}
+
 		/**
 		 * @{inheritDoc
 		 */
@@ -115,7 +139,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 0.7.0
 	 *
 	 */
-	static class Or implements GroupFunction {
+	static class Or implements IncrementalGroupFunction {
 
 		protected final State activeState;
 		protected final State passiveState;
@@ -141,6 +165,29 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			}
 			return passiveState;
 		}
+
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new ActiveStateAggregator(activeState) {
+				@Override
+				protected State calculate(int size) {
+					return Or.this.calculate(getActiveCount(), size);
+				}
+			};
+		}
+
+		/**
+		 * Determines the group state from the number of items in the 'activeState'.
+		 * 
+		 * @param activeCount the number of items in the 'activeState'
+		 * @param itemCount the number of all items
+		 * @return the group state
+		 */
+		protected State calculate(int activeCount, int itemCount) {
+			return activeCount>0 ? activeState : passiveState;
+		}
 		
 		/**
 		 * @{inheritDoc
@@ -192,6 +239,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 				result.equals(activeState) ? passiveState : activeState;
 			return notResult;
 		}
+
+		@Override
+		protected State calculate(int activeCount, int itemCount) {
+			State result = super.calculate(activeCount, itemCount);
+			return result.equals(activeState) ? passiveState : activeState;
+		}
 		
 	}
 
@@ -216,6 +269,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 				result.equals(activeState) ? passiveState : activeState;
 			return notResult;
 		}
+
+		@Override
+		protected State calculate(int activeCount, int itemCount) {
+			State result = super.calculate(activeCount, itemCount);
+			return result.equals(activeState) ? passiveState : activeState;
+		}
 		
 	}
 	
@@ -226,7 +285,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 0.7.0
 	 *
 	 */
-	static class Avg implements GroupFunction {
+	static class Avg implements IncrementalGroupFunction {
 		
 		public Avg() {}
 
@@ -251,6 +310,22 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 				return UnDefType.UNDEF;
 			}
 		}
+
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new DecimalSumAggregator() {
+				@Override
+				protected State calculate(int size) {
+					if(getCount()>0) {
+						return new DecimalType(getSum().divide(new BigDecimal(getCount()), RoundingMode.HALF_UP));
+					} else {
+						return UnDefType.UNDEF;
+					}
+				}
+			};
+		}
 		
 		/**
 		 * @{inheritDoc
@@ -276,7 +351,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 1.7.0
 	 *
 	 */
-	static class Count implements GroupFunction {
+	static class Count implements IncrementalGroupFunction {
 		
 		protected final Pattern pattern;
 		
@@ -304,6 +379,35 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			return new DecimalType(count);
 		}
 
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new IncrementalGroupFunction.Aggregator<Boolean>() {
+				private int count = 0;
+
+				@Override
+				protected Boolean getValue(Item item) {
+					return pattern.matcher(item.getState().toString()).matches() ? Boolean.TRUE : null;
+				}
+
+				@Override
+				protected void addValue(Boolean value) {
+					count++;
+				}
+
+				@Override
+				protected void removeValue(Boolean value) {
+					count--;
+				}
+
+				@Override
+				protected State calculate(int size) {
+					return new DecimalType(count);
+				}
+			};
+		}
+
 		/**
 		 * @{inheritDoc
 		 */
@@ -324,7 +428,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 1.1.0
 	 *
 	 */
-	static class Sum implements GroupFunction {
+	static class Sum implements IncrementalGroupFunction {
 		
 		public Sum() {}
 
@@ -343,6 +447,18 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			}
 			return new DecimalType(sum);
 		}
+
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new DecimalSumAggregator() {
+				@Override
+				protected State calculate(int size) {
+					return new DecimalType(getSum());
+				}
+			};
+		}
 		
 		/**
 		 * @{inheritDoc
@@ -364,7 +480,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 0.7.0
 	 *
 	 */
-	static class Min implements GroupFunction {
+	static class Min implements IncrementalGroupFunction {
 		
 		public Min() {}
 
@@ -389,6 +505,18 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			return UnDefType.UNDEF;
 		}
 
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new SortedDecimalAggregator() {
+				@Override
+				protected State calculate(int size) {
+					return getValues().isEmpty() ? UnDefType.UNDEF : new DecimalType(getValues().first());
+				}
+			};
+		}
+
 		/**
 		 * @{inheritDoc
 		 */
@@ -409,7 +537,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 	 * @since 0.7.0
 	 *
 	 */
-	static class Max implements GroupFunction {
+	static class Max implements IncrementalGroupFunction {
 		
 		public Max() {}
 
@@ -434,6 +562,18 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			return UnDefType.UNDEF;
 		}
 
+		/**
+		 * @{inheritDoc
+		 */
+		public Aggregator<?> createAggregator() {
+			return new SortedDecimalAggregator() {
+				@Override
+				protected State calculate(int size) {
+					return getValues().isEmpty() ? UnDefType.UNDEF : new DecimalType(getValues().last());
+				}
+			};
+		}
+
 		/**
 		 * @{inheritDoc
 		 */
@@ -446,6 +586,129 @@ public interface ArithmeticGroupFunction extends GroupFunction {
 			}
 		}
 	}
-	
+
+	/**
+	 * Counts the items which are in the given state, for the incremental 'and',
+	 * 'or', 'nand' and 'nor' operations.
+	 * 
+	 * @since 1.9.0
+	 */
+	abstract static class ActiveStateAggregator extends IncrementalGroupFunction.Aggregator<Boolean> {
+
+		private final State activeState;
+
+		private int activeCount = 0;
+
+		ActiveStateAggregator(State activeState) {
+			this.activeState = activeState;
+		}
+
+		@Override
+		protected Boolean getValue(Item item) {
+			return activeState.equals(item.getStateAs(activeState.getClass())) ? Boolean.TRUE : null;
+		}
+
+		@Override
+		protected void addValue(Boolean value) {
+			activeCount++;
+		}
+
+		@Override
+		protected void removeValue(Boolean value) {
+			activeCount--;
+		}
+
+		protected int getActiveCount() {
+			return activeCount;
+		}
+	}
+
+	/**
+	 * Keeps the running sum and count of all member states of decimal type for
+	 * the incremental {@link ArithmeticGroupFunction.Sum} and
+	 * {@link ArithmeticGroupFunction.Avg} functions.
+	 *
+	 * The scales of the values are kept as well, so that the sum has the same
+	 * scale as if it were calculated by adding up all current values, no matter
+	 * which values have been removed from it before.
+	 *
+	 * @since 1.9.0
+	 */
+	abstract static class DecimalSumAggregator extends IncrementalGroupFunction.Aggregator<BigDecimal> {
+
+		private BigDecimal sum = BigDecimal.ZERO;
+
+		private int count = 0;
+
+		private final SortedBag<Integer> scales = new SortedBag<Integer>();
+
+		@Override
+		protected BigDecimal getValue(Item item) {
+			DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+			return itemState!=null ? itemState.toBigDecimal() : null;
+		}
+
+		@Override
+		protected void addValue(BigDecimal value) {
+			sum = sum.add(value);
+			count++;
+			scales.add(value.scale());
+		}
+
+		@Override
+		protected void removeValue(BigDecimal value) {
+			sum = sum.subtract(value);
+			count--;
+			scales.remove(value.scale());
+		}
+
+		/**
+		 * @return the sum of all member states of decimal type
+		 */
+		protected BigDecimal getSum() {
+			int scale = scales.isEmpty() ? 0 : Math.max(0, scales.last());
+			// the sum of the current values is exact at their maximum scale
+			return sum.setScale(scale);
+		}
+
+		/**
+		 * @return the number of member states of decimal type
+		 */
+		protected int getCount() {
+			return count;
+		}
+
+	}
+
+	/**
+	 * Keeps the sorted item states of decimal type for the incremental minimum
+	 * and maximum functions.
+	 * 
+	 * @since 1.9.0
+	 */
+	abstract static class SortedDecimalAggregator extends IncrementalGroupFunction.Aggregator<BigDecimal> {
+
+		private final SortedBag<BigDecimal> values = new SortedBag<BigDecimal>();
+
+		@Override
+		protected BigDecimal getValue(Item item) {
+			DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+			return itemState!=null ? itemState.toBigDecimal() : null;
+		}
+
+		@Override
+		protected void addValue(BigDecimal value) {
+			values.add(value);
+		}
+
+		@Override
+		protected void removeValue(BigDecimal value) {
+			values.remove(value);
+		}
+
+		protected SortedBag<BigDecimal> getValues() {
+			return values;
+		}
+	}
 	
 }
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.library.types;
+
+import java.util.TreeMap;
+
+/**
+ * A sorted collection which may contain equal elements more than once. It is
+ * used by the incremental group functions to determine the minimum and
+ * maximum of the member states in logarithmic time.
+ *
+ * @since 1.9.0
+ */
+final class SortedBag<E extends Comparable<? super E>> {
+
+	private final TreeMap<E, Integer> counts = new TreeMap<E, Integer>();
+
+	void add(E element) {
+		Integer count = counts.get(element);
+		counts.put(element, count == null ? 1 : count + 1);
+	}
+
+	void remove(E element) {
+		Integer count = counts.get(element);
+		if (count == null) {
+			return;
+		}
+		if (count > 1) {
+			counts.put(element, count - 1);
+		} else {
+			counts.remove(element);
+		}
+	}
+
+	boolean isEmpty() {
+		return counts.isEmpty();
+	}
+
+	E first() {
+		return counts.firstKey();
+	}
+
+	E last() {
+		return counts.lastKey();
+	}
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence.extensions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.persistence.AggregatingPersistenceService.AggregateFunction;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.types.State;
+
+/**
+ * @since 1.9.0
+ */
+public class HistoricItemAggregatorTest {
+
+	@Test
+	public void testAggregates() {
+		HistoricItemAggregator aggregator = new HistoricItemAggregator("Test");
+		aggregator.add(historicItem(1, new DecimalType(3)));
+		aggregator.add(historicItem(2, new DecimalType(1)));
+		aggregator.add(historicItem(3, StringType.valueOf("ignored")));
+		aggregator.add(historicItem(4, new DecimalType(5)));
+		aggregator.add(historicItem(5, new DecimalType(1)));
+		aggregator.add(historicItem(6, new DecimalType(5)));
+
+		Date end = new Date(100);
+		assertEquals(new DecimalType(5), aggregator.get(AggregateFunction.COUNT, end).getState());
+		assertEquals(15.0, ((DecimalType) aggregator.get(AggregateFunction.SUM, end).getState()).doubleValue(), 0.001);
+		assertEquals(3.0, ((DecimalType) aggregator.get(AggregateFunction.AVG, end).getState()).doubleValue(), 0.001);
+		assertEquals(end, aggregator.get(AggregateFunction.AVG, end).getTimestamp());
+
+		// minimum and maximum carry the time of their first occurrence
+		assertEquals(new Date(2), aggregator.get(AggregateFunction.MIN, end).getTimestamp());
+		assertEquals(new Date(4), aggregator.get(AggregateFunction.MAX, end).getTimestamp());
+		assertEquals(new Date(1), aggregator.get(AggregateFunction.FIRST, end).getTimestamp());
+		assertEquals(new Date(6), aggregator.get(AggregateFunction.LAST, end).getTimestamp());
+	}
+
+	@Test
+	public void testNoNumericalStates() {
+		HistoricItemAggregator aggregator = new HistoricItemAggregator("Test");
+		aggregator.add(historicItem(1, StringType.valueOf("ignored")));
+		for (AggregateFunction function : AggregateFunction.values()) {
+			assertNull(aggregator.get(function, new Date()));
+		}
+	}
+
+	private HistoricItem historicItem(final long time, final State state) {
+		return new HistoricItem() {
+			public Date getTimestamp() {
+				return new Date(time);
+			}
+
+			public State getState() {
+				return state;
+			}
+
+			public String getName() {
+				return "Test";
+			}
+		};
+	}
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.persistence.BatchPersistenceService;
+import org.openhab.core.persistence.PersistenceEntry;
+import org.openhab.core.persistence.PersistenceService;
+import org.openhab.core.persistence.internal.PersistenceQueue.OverflowPolicy;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+/**
+ * @since 1.9.0
+ */
+public class PersistenceQueueTest {
+
+	private TestBatchService service;
+	private GenericItem item;
+
+	@Before
+	public void setUp() {
+		service = new TestBatchService();
+		item = new GenericItem("Test") {
+			@Override
+			public List<Class<? extends State>> getAcceptedDataTypes() {
+				return null;
+			}
+
+			@Override
+			public List<Class<? extends Command>> getAcceptedCommandTypes() {
+				return null;
+			}
+		};
+	}
+
+	@Test
+	public void testEntriesKeepTheirStateAndOrder() {
+		PersistenceQueue queue = new PersistenceQueue(service);
+		queue.start();
+		for (int i = 0; i < 10; i++) {
+			item.setState(new DecimalType(i));
+			assertTrue(queue.add(item, null));
+		}
+		queue.stop(5000);
+
+		assertEquals(10, service.entries.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(new DecimalType(i), service.entries.get(i).getState());
+		}
+		assertEquals(10, queue.getStoredCount());
+		assertEquals(0, queue.getQueueDepth());
+	}
+
+	@Test
+	public void testBatchSize() throws InterruptedException {
+		PersistenceQueue queue = new PersistenceQueue(service);
+		queue.configure(3, 0, 100, OverflowPolicy.DROP_OLDEST);
+		service.blocker = new CountDownLatch(1);
+		queue.start();
+		// the first entry blocks the worker, so that the following ones are queued
+		queue.add(item, null);
+		service.started.await();
+		for (int i = 0; i < 7; i++) {
+			queue.add(item, null);
+		}
+		service.blocker.countDown();
+		queue.stop(5000);
+
+		assertEquals(8, service.entries.size());
+		assertEquals(4, service.batchSizes.size());
+		for (int size : service.batchSizes) {
+			assertTrue(size <= 3);
+		}
+	}
+
+	@Test
+	public void testDropNewestWhenFull() throws InterruptedException {
+		PersistenceQueue queue = new PersistenceQueue(service);
+		queue.configure(1, 0, 2, OverflowPolicy.DROP_NEWEST);
+		service.blocker = new CountDownLatch(1);
+		queue.start();
+		queue.add(item, null);
+		service.started.await();
+		assertTrue(queue.add(item, null));
+		assertTrue(queue.add(item, null));
+		assertFalse(queue.add(item, null));
+		service.blocker.countDown();
+		queue.stop(5000);
+
+		assertEquals(1, queue.getDroppedCount());
+		assertEquals(3, service.entries.size());
+	}
+
+	@Test
+	public void testNoEntriesAfterStop() {
+		PersistenceQueue queue = new PersistenceQueue(service);
+		queue.start();
+		queue.stop(5000);
+		assertFalse(queue.add(item, null));
+	}
+
+	@Test
+	public void testServiceWithoutBatchesStoresEachState() {
+		TestService plainService = new TestService();
+		PersistenceQueue queue = new PersistenceQueue(plainService);
+		queue.start();
+		item.setState(OnOffType.ON);
+		assertTrue(queue.add(item, null));
+		item.setState(OnOffType.OFF);
+		assertTrue(queue.add(item, null));
+		queue.stop(5000);
+		assertFalse(queue.add(item, null));
+
+		assertEquals(2, plainService.states.size());
+		assertEquals(OnOffType.ON, plainService.states.get(0));
+		assertEquals(OnOffType.OFF, plainService.states.get(1));
+		assertEquals(2, queue.getStoredCount());
+	}
+
+
+	class TestService implements PersistenceService {
+
+		List<State> states = new ArrayList<State>();
+
+		@Override
+		public String getName() {
+			return "plain";
+		}
+
+		@Override
+		public void store(Item item) {
+			store(item, null);
+		}
+
+		@Override
+		public void store(Item item, String alias) {
+			states.add(item.getState());
+		}
+
+	}
+
+	class TestBatchService implements BatchPersistenceService {
+
+		List<PersistenceEntry> entries = new ArrayList<PersistenceEntry>();
+		List<Integer> batchSizes = new ArrayList<Integer>();
+		CountDownLatch blocker;
+		CountDownLatch started = new CountDownLatch(1);
+
+		@Override
+		public String getName() {
+			return "test";
+		}
+
+		@Override
+		public void store(Item item) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void store(Item item, String alias) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void store(Collection<PersistenceEntry> batch) {
+			started.countDown();
+			if (blocker != null) {
+				try {
+					blocker.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			entries.addAll(batch);
+			batchSizes.add(batch.size());
+		}
+
+	}
+
+}
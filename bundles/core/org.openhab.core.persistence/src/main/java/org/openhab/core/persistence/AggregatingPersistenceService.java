@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A queryable persistence service which is able to compute aggregates over the
+ * persisted states of an item itself, e.g. through SQL aggregate functions. This
+ * avoids transferring all historic states of a time range just to reduce them
+ * to a single value.
+ *
+ * @since 1.9.0
+ */
+public interface AggregatingPersistenceService extends QueryablePersistenceService {
+
+	/**
+	 * The aggregate functions which can be computed by a service.
+	 */
+	enum AggregateFunction {
+		/** the number of numerical states */
+		COUNT,
+		/** the minimum numerical state, together with the time it first occurred */
+		MIN,
+		/** the maximum numerical state, together with the time it first occurred */
+		MAX,
+		/** the sum of all numerical states */
+		SUM,
+		/** the average of all numerical states */
+		AVG,
+		/** the oldest numerical state */
+		FIRST,
+		/** the most recent numerical state */
+		LAST
+	}
+
+	/**
+	 * Computes aggregates over the persisted states of an item. Only the item name,
+	 * the begin date and the end date of the filter are regarded; only states which are
+	 * numerical (i.e. {@link org.openhab.core.library.types.DecimalType}s) are included.
+	 * All functions are computed together, so that a service can share the work between
+	 * them, e.g. compute {@link AggregateFunction#COUNT}, {@link AggregateFunction#SUM}
+	 * and {@link AggregateFunction#AVG} with a single query.
+	 * <p>The state of each returned item is the value of the aggregate. Its timestamp is
+	 * the time of the state for {@link AggregateFunction#MIN}, {@link AggregateFunction#MAX},
+	 * {@link AggregateFunction#FIRST} and {@link AggregateFunction#LAST}, and the end of the
+	 * time range for all other functions.</p>
+	 *
+	 * @param filter the filter that determines the item and the time range
+	 * @param functions the aggregate functions to compute
+	 * @return the aggregate of each function, which is <code>null</code> if there are no
+	 *         numerical states in the time range
+	 * @throws UnsupportedOperationException if the service cannot compute the aggregates for
+	 *         the item, in which case the caller falls back to a regular query
+	 */
+	Map<AggregateFunction, HistoricItem> aggregate(FilterCriteria filter, Set<AggregateFunction> functions);
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence;
+
+import java.util.Collection;
+
+/**
+ * A persistence service which is able to store several item states at once.
+ * The persistence manager collects the states to persist in a queue per
+ * service and passes them as batches to services that implement this
+ * interface, which allows them to e.g. use a single transaction or request.
+ *
+ * @since 1.9.0
+ */
+public interface BatchPersistenceService extends PersistenceService {
+
+	/**
+	 * Stores the given entries. The entries are passed in the order they have
+	 * been requested and hold the state of the item at the time of the request,
+	 * which is the state that should be persisted.
+	 * <p>This method is called from a worker thread of the persistence manager,
+	 * so it may block while writing the data.</p>
+	 *
+	 * @param entries the entries to persist
+	 */
+	void store(Collection<PersistenceEntry> entries);
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A queryable persistence service which is able to retrieve the most recent
+ * persisted state of many items at once. It is used to restore the states
+ * of all items on startup with as few requests as possible.
+ *
+ * @since 1.9.0
+ */
+public interface BulkQueryablePersistenceService extends QueryablePersistenceService {
+
+	/**
+	 * Retrieves the most recent persisted state for each of the given items.
+	 * The result is the same as that of a descending {@link #query(FilterCriteria)}
+	 * with a page size of 1 for each item.
+	 *
+	 * @param itemNames the names of the items to query
+	 * @return the most recent historic item per item name; items without any
+	 *         persisted state are not contained
+	 */
+	Map<String, HistoricItem> queryLatest(Collection<String> itemNames);
+
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence;
+
+import java.util.Date;
+
+import org.openhab.core.items.Item;
+import org.openhab.core.types.State;
+
+/**
+ * A single write request for a {@link PersistenceService}. It holds the state
+ * of the item at the time the request was queued, so that it can be stored
+ * later on, even if the item has changed its state in the meantime.
+ *
+ * @since 1.9.0
+ */
+public class PersistenceEntry {
+
+	private final Item item;
+	private final String alias;
+	private final State state;
+	private final Date timestamp;
+
+	public PersistenceEntry(Item item, String alias) {
+		this(item, alias, item.getState(), new Date());
+	}
+
+	public PersistenceEntry(Item item, String alias, State state, Date timestamp) {
+		this.item = item;
+		this.alias = alias;
+		this.state = state;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * @return the item to persist
+	 */
+	public Item getItem() {
+		return item;
+	}
+
+	/**
+	 * @return the alias under which the item should be persisted or <code>null</code>, if none is set
+	 */
+	public String getAlias() {
+		return alias;
+	}
+
+	/**
+	 * @return the state of the item at the time of the request
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return the time of the request
+	 */
+	public Date getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "PersistenceEntry [item=" + item.getName() + ", alias=" + alias + ", state=" + state + ", timestamp="
+				+ timestamp + "]";
+	}
+
+}
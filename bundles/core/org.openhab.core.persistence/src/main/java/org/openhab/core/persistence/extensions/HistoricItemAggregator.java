@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence.extensions;
+
+import java.util.Date;
+
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.AggregatingPersistenceService.AggregateFunction;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.types.State;
+
+/**
+ * Computes all {@link AggregateFunction}s over a series of historic items in a
+ * single pass, without keeping the items in memory. It is used for persistence
+ * services which cannot compute the aggregates themselves.
+ *
+ * @since 1.9.0
+ */
+class HistoricItemAggregator {
+
+	private final String itemName;
+
+	private long count = 0;
+	private double sum = 0;
+	private HistoricItem first;
+	private HistoricItem last;
+	private HistoricItem minimum;
+	private HistoricItem maximum;
+	private DecimalType minimumValue;
+	private DecimalType maximumValue;
+
+	HistoricItemAggregator(String itemName) {
+		this.itemName = itemName;
+	}
+
+	/**
+	 * Adds all historic items of a series.
+	 *
+	 * @param historicItems the historic items in ascending order
+	 */
+	void addAll(Iterable<HistoricItem> historicItems) {
+		for (HistoricItem historicItem : historicItems) {
+			add(historicItem);
+		}
+	}
+
+	/**
+	 * Adds a historic item; items which do not have a numerical state are ignored.
+	 *
+	 * @param historicItem the next historic item of the series
+	 */
+	void add(HistoricItem historicItem) {
+		State state = historicItem.getState();
+		if (!(state instanceof DecimalType)) {
+			return;
+		}
+		DecimalType value = (DecimalType) state;
+		count++;
+		sum += value.doubleValue();
+		if (first == null) {
+			first = historicItem;
+		}
+		last = historicItem;
+		if (minimum == null || value.compareTo(minimumValue) < 0) {
+			minimum = historicItem;
+			minimumValue = value;
+		}
+		if (maximum == null || value.compareTo(maximumValue) > 0) {
+			maximum = historicItem;
+			maximumValue = value;
+		}
+	}
+
+	/**
+	 * Returns the value of an aggregate function over the items added so far.
+	 *
+	 * @param function the function to return the value for
+	 * @param endDate the end of the time range, used as the timestamp of computed values
+	 * @return the aggregate or <code>null</code>, if no numerical states have been added
+	 */
+	HistoricItem get(AggregateFunction function, Date endDate) {
+		if (count == 0) {
+			return null;
+		}
+		switch (function) {
+			case COUNT:
+				return new AggregateItem(itemName, new DecimalType(count), endDate);
+			case SUM:
+				return new AggregateItem(itemName, new DecimalType(sum), endDate);
+			case AVG:
+				return new AggregateItem(itemName, new DecimalType(sum / count), endDate);
+			case MIN:
+				return minimum;
+			case MAX:
+				return maximum;
+			case FIRST:
+				return first;
+			case LAST:
+				return last;
+			default:
+				return null;
+		}
+	}
+
+	private static class AggregateItem implements HistoricItem {
+
+		private final String name;
+		private final State state;
+		private final Date timestamp;
+
+		AggregateItem(String name, State state, Date timestamp) {
+			this.name = name;
+			this.state = state;
+			this.timestamp = timestamp;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public State getState() {
+			return state;
+		}
+
+		public Date getTimestamp() {
+			return timestamp;
+		}
+
+	}
+
+}
@@ -8,10 +8,13 @@
  */
 package org.openhab.core.persistence.extensions;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Dictionary;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -19,6 +22,8 @@ import java.util.Map;
 import org.joda.time.base.AbstractInstant;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.AggregatingPersistenceService;
+import org.openhab.core.persistence.AggregatingPersistenceService.AggregateFunction;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
@@ -160,16 +165,27 @@ public class PersistenceExtensions implements ManagedService {
 	 * @return true, if item state had changed
 	 */
 	static public Boolean changedSince(Item item, AbstractInstant timestamp, String serviceName) {
-		Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-		Iterator<HistoricItem> it = result.iterator();
 		HistoricItem itemThen = historicState(item, timestamp);
 		if(itemThen == null) {
 			// Can't get the state at the start time
 			// If we've got results more recent that this, it must have changed
-			return(it.hasNext());
+			return hasStatesSince(item, timestamp, serviceName);
 		}
 
 		State state = itemThen.getState();
+		if(state instanceof DecimalType) {
+			// numerical states have not changed, if their minimum and maximum are still the state at the start time
+			Map<AggregateFunction, HistoricItem> aggregates = 
+					aggregateNatively(item, timestamp, serviceName, AggregateFunction.MIN, AggregateFunction.MAX);
+			if(aggregates!=null) {
+				HistoricItem minimum = aggregates.get(AggregateFunction.MIN);
+				HistoricItem maximum = aggregates.get(AggregateFunction.MAX);
+				return (minimum!=null && !minimum.getState().equals(state)) || 
+						(maximum!=null && !maximum.getState().equals(state));
+			}
+		}
+
+		Iterator<HistoricItem> it = getAllStatesSince(item, timestamp, serviceName).iterator();
 		while(it.hasNext()) {
 			HistoricItem hItem = it.next();
 			if(state!=null && !hItem.getState().equals(state)) {
@@ -206,12 +222,7 @@ public class PersistenceExtensions implements ManagedService {
 	 * @return true, if item state was updated
 	 */
 	static public Boolean updatedSince(Item item, AbstractInstant timestamp, String serviceName) {
-		Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-		if(result.iterator().hasNext()) {
-			return true;
-		} else {
-			return false;
-		}
+		return hasStatesSince(item, timestamp, serviceName);
 	} 
 
 	/**
@@ -242,20 +253,11 @@ public class PersistenceExtensions implements ManagedService {
 	 * @return a historic item with the maximum state value since the given point in time
 	 */
 	static public HistoricItem maximumSince(final Item item, AbstractInstant timestamp, String serviceName) {
-		Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-		Iterator<HistoricItem> it = result.iterator();
-		HistoricItem maximumHistoricItem = null;
+		HistoricItem maximumHistoricItem = aggregateSince(item, timestamp, serviceName, AggregateFunction.MAX).get(AggregateFunction.MAX);
 		DecimalType maximum = (DecimalType) item.getStateAs(DecimalType.class);
-		while(it.hasNext()) {
-			HistoricItem historicItem = it.next();
-			State state = historicItem.getState();
-			if (state instanceof DecimalType) {
-				DecimalType value = (DecimalType) state;
-				if(maximum==null || value.compareTo(maximum)>0) {
-					maximum = value;
-					maximumHistoricItem = historicItem;
-				}
-			}
+		if(maximumHistoricItem!=null && maximum!=null && ((DecimalType) maximumHistoricItem.getState()).compareTo(maximum)<=0) {
+			// the current state is the maximum
+			maximumHistoricItem = null;
 		}
 		if(maximumHistoricItem==null && maximum!=null) {
 			// the maximum state is the current one, so construct a historic item on the fly
@@ -307,20 +309,11 @@ public class PersistenceExtensions implements ManagedService {
 	 * @return the historic item with the minimum state value since the given point in time
 	 */
 	static public HistoricItem minimumSince(final Item item, AbstractInstant timestamp, String serviceName) {
-		Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-		Iterator<HistoricItem> it = result.iterator();
-		HistoricItem minimumHistoricItem = null;
+		HistoricItem minimumHistoricItem = aggregateSince(item, timestamp, serviceName, AggregateFunction.MIN).get(AggregateFunction.MIN);
 		DecimalType minimum = (DecimalType) item.getStateAs(DecimalType.class);
-		while(it.hasNext()) {
-			HistoricItem historicItem = it.next();
-			State state = historicItem.getState();
-			if (state instanceof DecimalType) {
-				DecimalType value = (DecimalType) state;
-				if(minimum==null || value.compareTo(minimum)<0) {
-					minimum = value;
-					minimumHistoricItem = historicItem;
-				}
-			}
+		if(minimumHistoricItem!=null && minimum!=null && ((DecimalType) minimumHistoricItem.getState()).compareTo(minimum)>=0) {
+			// the current state is the minimum
+			minimumHistoricItem = null;
 		}
 		if(minimumHistoricItem==null && minimum!=null) {
 			// the minimal state is the current one, so construct a historic item on the fly
@@ -370,19 +363,21 @@ public class PersistenceExtensions implements ManagedService {
 	 * @return the average state value since the given point in time
 	 */
 	static public DecimalType averageSince(Item item, AbstractInstant timestamp, String serviceName) {
-		Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-		Iterator<HistoricItem> it = result.iterator();
+		Map<AggregateFunction, HistoricItem> aggregates = aggregateSince(item, timestamp, serviceName, 
+				AggregateFunction.SUM, AggregateFunction.COUNT, AggregateFunction.LAST);
 
 		double total = 0;
-		int quantity = 0;
+		long quantity = 0;
 		DecimalType histValue = null;
-		while(it.hasNext()) {
-			State state = it.next().getState();
-			if (state instanceof DecimalType) {
-				histValue = (DecimalType) state;
-				total += histValue.doubleValue();
-				quantity++;
-			}
+		HistoricItem sum = aggregates.get(AggregateFunction.SUM);
+		HistoricItem count = aggregates.get(AggregateFunction.COUNT);
+		HistoricItem last = aggregates.get(AggregateFunction.LAST);
+		if(sum!=null && count!=null) {
+			total = ((DecimalType) sum.getState()).doubleValue();
+			quantity = ((DecimalType) count.getState()).longValue();
+		}
+		if(last!=null) {
+			histValue = (DecimalType) last.getState();
 		}
 		
 		// If the current value has not been persisted it should be included in the average as well.
@@ -529,18 +524,8 @@ public class PersistenceExtensions implements ManagedService {
 	 */
 
 	static public DecimalType sumSince(Item item, AbstractInstant timestamp, String serviceName) {
-		Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-		Iterator<HistoricItem> it = result.iterator();
-		
-		double sum = 0;
-		while(it.hasNext()) {
-			State state = it.next().getState();
-			if (state instanceof DecimalType) {
-				sum += ((DecimalType) state).doubleValue();
-			}
-		}
-
-		return new DecimalType(sum);
+		HistoricItem sum = aggregateSince(item, timestamp, serviceName, AggregateFunction.SUM).get(AggregateFunction.SUM);
+		return new DecimalType(sum!=null ? ((DecimalType) sum.getState()).doubleValue() : 0);
 	}
 	
 	/**
@@ -754,6 +739,71 @@ public class PersistenceExtensions implements ManagedService {
 		}
 	}
 	
+	/**
+	 * Checks whether there is at least one persisted state of an item since a certain point in time.
+	 */
+	static private boolean hasStatesSince(Item item, AbstractInstant timestamp, String serviceName) {
+		PersistenceService service = services.get(serviceName);
+		if (service instanceof QueryablePersistenceService) {
+			QueryablePersistenceService qService = (QueryablePersistenceService) service;
+			FilterCriteria filter = new FilterCriteria();
+			filter.setBeginDate(timestamp.toDate());
+			filter.setItemName(item.getName());
+			filter.setOrdering(Ordering.ASCENDING);
+			filter.setPageSize(1);
+			return qService.query(filter).iterator().hasNext();
+		} else {
+			logger.warn("There is no queryable persistence service registered with the name '{}'", serviceName);
+			return false;
+		}
+	}
+
+	/**
+	 * Computes aggregates over the persisted states of an item since a certain point in time.
+	 * If the persistence service cannot compute them itself, all states are queried and 
+	 * reduced in a single pass.
+	 * 
+	 * @return the aggregates, which are <code>null</code> if there are no numerical states
+	 */
+	static private Map<AggregateFunction, HistoricItem> aggregateSince(Item item, AbstractInstant timestamp, 
+			String serviceName, AggregateFunction... functions) {
+		Map<AggregateFunction, HistoricItem> aggregates = aggregateNatively(item, timestamp, serviceName, functions);
+		if(aggregates==null) {
+			aggregates = new EnumMap<AggregateFunction, HistoricItem>(AggregateFunction.class);
+			HistoricItemAggregator aggregator = new HistoricItemAggregator(item.getName());
+			aggregator.addAll(getAllStatesSince(item, timestamp, serviceName));
+			Date now = new Date();
+			for(AggregateFunction function : functions) {
+				aggregates.put(function, aggregator.get(function, now));
+			}
+		}
+		return aggregates;
+	}
+
+	/**
+	 * Lets the persistence service compute aggregates over the persisted states of an item since 
+	 * a certain point in time.
+	 * 
+	 * @return the aggregates or <code>null</code>, if the service cannot compute all of them
+	 */
+	static private Map<AggregateFunction, HistoricItem> aggregateNatively(Item item, AbstractInstant timestamp, 
+			String serviceName, AggregateFunction... functions) {
+		PersistenceService service = services.get(serviceName);
+		if (service instanceof AggregatingPersistenceService) {
+			AggregatingPersistenceService aService = (AggregatingPersistenceService) service;
+			FilterCriteria filter = new FilterCriteria();
+			filter.setBeginDate(timestamp.toDate());
+			filter.setItemName(item.getName());
+			try {
+				return aService.aggregate(filter, EnumSet.copyOf(Arrays.asList(functions)));
+			} catch (UnsupportedOperationException e) {
+				logger.debug("Persistence service '{}' cannot aggregate the states of item '{}', querying all states instead.", 
+						serviceName, item.getName());
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Returns <code>true</code>, if a default service is configured and returns <code>false</code> and logs a warning otherwise.
 	 * @return true, if a default service is available
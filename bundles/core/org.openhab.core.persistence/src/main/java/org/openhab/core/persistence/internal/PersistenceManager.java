@@ -12,16 +12,27 @@ import static org.quartz.JobBuilder.newJob;
 import static org.quartz.TriggerBuilder.newTrigger;
 
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.emf.ecore.EObject;
 import org.openhab.core.events.AbstractEventSubscriber;
@@ -32,10 +43,12 @@ import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.ItemRegistryChangeListener;
 import org.openhab.core.items.StateChangeListener;
+import org.openhab.core.persistence.BulkQueryablePersistenceService;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
+import org.openhab.core.persistence.internal.PersistenceQueue.OverflowPolicy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.openhab.model.core.EventType;
@@ -49,6 +62,8 @@ import org.openhab.model.persistence.persistence.PersistenceConfiguration;
 import org.openhab.model.persistence.persistence.PersistenceModel;
 import org.openhab.model.persistence.persistence.Strategy;
 import org.openhab.model.persistence.scoping.GlobalStrategies;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedService;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.Job;
 import org.quartz.JobDetail;
@@ -69,20 +84,38 @@ import org.slf4j.LoggerFactory;
  * @since 1.0.0
  *
  */
-public class PersistenceManager extends AbstractEventSubscriber implements ModelRepositoryChangeListener, ItemRegistryChangeListener, StateChangeListener {
+public class PersistenceManager extends AbstractEventSubscriber implements ModelRepositoryChangeListener, ItemRegistryChangeListener, StateChangeListener, ManagedService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(PersistenceManager.class);
 
+	/** the time in milliseconds to wait for a persistence queue to be written when it is stopped */
+	private static final long QUEUE_STOP_TIMEOUT = 5000L;
+
+	/** the maximum number of items whose states are restored with a single bulk query */
+	private static final int RESTORE_BATCH_SIZE = 500;
+
+	/** the number of threads used to restore item states from services without bulk queries */
+	private static final int RESTORE_THREADS = 5;
+
 	private static PersistenceManager instance;
 	
 	// the scheduler used for timer events
 	private Scheduler scheduler;
+
+	/** the threads which restore item states from services without bulk queries, created on first use */
+	private ThreadPoolExecutor restoreExecutor;
 	
 	/*default */ ModelRepository modelRepository;
 
 	private ItemRegistry itemRegistry;
 
-	/*default */ Map<String, PersistenceService> persistenceServices = new HashMap<String, PersistenceService>();
+	/*default */ Map<String, PersistenceService> persistenceServices = new ConcurrentHashMap<String, PersistenceService>();
+
+	/** keeps the write-behind queue for each persistence service */
+	protected Map<String, PersistenceQueue> persistenceQueues = new ConcurrentHashMap<String, PersistenceQueue>();
+
+	/** the current configuration of the persistence queues */
+	private Dictionary<?, ?> queueConfig;
 	
 	/** keeps a list of configurations for each persistence service */
 	protected Map<String, List<PersistenceConfiguration>> persistenceConfigurations = new ConcurrentHashMap<String, List<PersistenceConfiguration>>();
@@ -90,6 +123,9 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	/** keeps a list of default strategies for each persistence service */
 	protected Map<String, List<Strategy>> defaultStrategies = 
 			Collections.synchronizedMap(new HashMap<String, List<Strategy>>());
+
+	/** the resolved persistence configurations for each item name, derived from the maps above and the item registry */
+	private volatile Map<String, List<ItemPersistenceConfig>> itemConfigs = new ConcurrentHashMap<String, List<ItemPersistenceConfig>>();
 	
 	
 	public PersistenceManager() {
@@ -110,6 +146,16 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	}
 	
 	public void deactivate() {
+		for(PersistenceQueue queue : persistenceQueues.values()) {
+			queue.stop(QUEUE_STOP_TIMEOUT);
+		}
+		persistenceQueues.clear();
+		synchronized(this) {
+			if(restoreExecutor!=null) {
+				restoreExecutor.shutdownNow();
+				restoreExecutor = null;
+			}
+		}
 	}
 	
 	
@@ -140,17 +186,33 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	public void unsetItemRegistry(ItemRegistry itemRegistry) {
 		itemRegistry.removeItemRegistryChangeListener(this);
 		this.itemRegistry = null;
+		rebuildItemConfigs();
 	}
 
 	public void addPersistenceService(PersistenceService persistenceService) {
 		logger.debug("Initializing {} persistence service.", persistenceService.getName());
 		persistenceServices.put(persistenceService.getName(), persistenceService);
+		PersistenceQueue queue = new PersistenceQueue(persistenceService);
+		try {
+			configureQueue(queue, queueConfig);
+		} catch (ConfigurationException e) {
+			logger.warn("Invalid persistence queue configuration, using defaults: {}", e.getMessage());
+		}
+		PersistenceQueue oldQueue = persistenceQueues.put(persistenceService.getName(), queue);
+		if(oldQueue!=null) {
+			oldQueue.stop(QUEUE_STOP_TIMEOUT);
+		}
+		queue.start();
 		stopEventHandling(persistenceService.getName());
 		startEventHandling(persistenceService.getName());
 	}
 
 	public void removePersistenceService(PersistenceService persistenceService) {
 		stopEventHandling(persistenceService.getName());
+		PersistenceQueue queue = persistenceQueues.remove(persistenceService.getName());
+		if(queue!=null) {
+			queue.stop(QUEUE_STOP_TIMEOUT);
+		}
 		persistenceServices.remove(persistenceService.getName());
 	}
 	
@@ -180,13 +242,16 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 		if(model!=null) {
 			persistenceConfigurations.put(modelName, model.getConfigs());
 			defaultStrategies.put(modelName, model.getDefaults());
+			rebuildItemConfigs();
+			Set<Item> restoreItems = new HashSet<Item>();
 			for(PersistenceConfiguration config : model.getConfigs()) {
 				if(hasStrategy(modelName, config, GlobalStrategies.RESTORE)) {
 					for(Item item : getAllItems(config)) {
-						initialize(item);
+						restoreItems.add(item);
 					}
 				}
 			}
+			restoreItems(restoreItems);
 			createTimers(modelName);
 		}
 	}
@@ -199,6 +264,7 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	private void stopEventHandling(String modelName) {
 		persistenceConfigurations.remove(modelName);
 		defaultStrategies.remove(modelName);
+		rebuildItemConfigs();
 		removeTimers(modelName);
 	}
 
@@ -217,21 +283,45 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	 * @param onlyChanges true, if it has the change strategy, false otherwise
 	 */
 	private void handleStateEvent(Item item, boolean onlyChanges) {
-		synchronized (persistenceConfigurations) {
-			for(Entry<String, List<PersistenceConfiguration>> entry : persistenceConfigurations.entrySet()) {
-				String serviceName = entry.getKey();
-				if(persistenceServices.containsKey(serviceName)) {				
-					for(PersistenceConfiguration config : entry.getValue()) {
-						if(hasStrategy(serviceName, config, onlyChanges ? GlobalStrategies.CHANGE : GlobalStrategies.UPDATE)) {
-							if(appliesToItem(config, item)) {
-								persistenceServices.get(serviceName).store(item, config.getAlias());
-							}
-						}
+		List<ItemPersistenceConfig> configs = itemConfigs.get(item.getName());
+		if(configs!=null) {
+			for(ItemPersistenceConfig config : configs) {
+				if(onlyChanges ? config.onChange : config.onUpdate) {
+					if(persistenceServices.containsKey(config.serviceName)) {
+						store(config.serviceName, item, config.alias);
 					}
 				}
 			}
 		}
 	}
+
+	/**
+	 * Queues the current state of an item to be stored by a persistence service.
+	 * If there is no queue for the service, the item is stored directly.
+	 * 
+	 * @param serviceName the name of the persistence service
+	 * @param item the item to persist
+	 * @param alias the alias under which the item should be persisted
+	 */
+	/* default */ void store(String serviceName, Item item, String alias) {
+		PersistenceQueue queue = persistenceQueues.get(serviceName);
+		if(queue!=null) {
+			queue.add(item, alias);
+		} else {
+			PersistenceService service = persistenceServices.get(serviceName);
+			if(service!=null) {
+				service.store(item, alias);
+			}
+		}
+	}
+
+	/**
+	 * @param serviceName the name of the persistence service
+	 * @return the write-behind queue of the service or <code>null</code>, if the service is not known
+	 */
+	public PersistenceQueue getPersistenceQueue(String serviceName) {
+		return persistenceQueues.get(serviceName);
+	}
 	
 	/**
 	 * Checks if a given persistence configuration entry has a certain strategy for the given service
@@ -254,41 +344,6 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 		}
 	}
 
-	/**
-	 * Checks if a given persistence configuration entry is relevant for an item
-	 * 
-	 * @param config the persistence configuration entry
-	 * @param item to check if the configuration applies to
-	 * @return true, if the configuration applies to the item
-	 */
-	protected boolean appliesToItem(PersistenceConfiguration config, Item item) {
-		for(EObject itemCfg : config.getItems()) {
-			if (itemCfg instanceof AllConfig) {
-				return true;
-			}
-			if (itemCfg instanceof ItemConfig) {
-				ItemConfig singleItemConfig = (ItemConfig) itemCfg;
-				if(item.getName().equals(singleItemConfig.getItem())) {
-					return true;
-				}
-			}
-			if (itemCfg instanceof GroupConfig) {
-				GroupConfig groupItemCfg = (GroupConfig) itemCfg;
-				String groupName = groupItemCfg.getGroup();
-				try {
-					Item gItem = itemRegistry.getItem(groupName);
-					if (gItem instanceof GroupItem) {
-						GroupItem groupItem = (GroupItem) gItem;
-						if(groupItem.getAllMembers().contains(item)) {
-							return true;
-						}
-					}
-				} catch (Exception e) {}
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * Retrieves all items for which the persistence configuration applies to.
 	 * 
@@ -332,13 +387,123 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 		return items;
 	}
 
+	/**
+	 * Recalculates the resolved persistence configurations of all items. The new table
+	 * replaces the old one at once, so that state events never see a partially built table.
+	 */
+	private synchronized void rebuildItemConfigs() {
+		Map<String, List<ItemPersistenceConfig>> newItemConfigs = new ConcurrentHashMap<String, List<ItemPersistenceConfig>>();
+		if(itemRegistry!=null) {
+			for(Item item : itemRegistry.getItems()) {
+				List<ItemPersistenceConfig> configs = resolveItemConfigs(item);
+				if(!configs.isEmpty()) {
+					newItemConfigs.put(item.getName(), configs);
+				}
+			}
+		}
+		itemConfigs = newItemConfigs;
+	}
+
+	/**
+	 * Recalculates the resolved persistence configurations of a single item.
+	 * 
+	 * @param item the item to update the configurations for
+	 */
+	private synchronized void updateItemConfigs(Item item) {
+		List<ItemPersistenceConfig> configs = resolveItemConfigs(item);
+		if(configs.isEmpty()) {
+			itemConfigs.remove(item.getName());
+		} else {
+			itemConfigs.put(item.getName(), configs);
+		}
+	}
+
+	/**
+	 * Determines all persistence configurations that apply to an item together with the
+	 * strategies they use. 
+	 * 
+	 * @param item the item to resolve the configurations for
+	 * @return the configurations, never <code>null</code>
+	 */
+	private List<ItemPersistenceConfig> resolveItemConfigs(Item item) {
+		List<ItemPersistenceConfig> configs = new ArrayList<ItemPersistenceConfig>();
+		Set<String> groupNames = null;
+		for(Entry<String, List<PersistenceConfiguration>> entry : persistenceConfigurations.entrySet()) {
+			String serviceName = entry.getKey();
+			for(PersistenceConfiguration config : entry.getValue()) {
+				boolean applies = false;
+				for(EObject itemCfg : config.getItems()) {
+					if (itemCfg instanceof AllConfig) {
+						applies = true;
+					} else if (itemCfg instanceof ItemConfig) {
+						applies = item.getName().equals(((ItemConfig) itemCfg).getItem());
+					} else if (itemCfg instanceof GroupConfig && !(item instanceof GroupItem)) {
+						if(groupNames==null) {
+							groupNames = new HashSet<String>();
+							collectGroupNames(item, groupNames);
+						}
+						applies = groupNames.contains(((GroupConfig) itemCfg).getGroup());
+					}
+					if(applies) {
+						break;
+					}
+				}
+				if(applies) {
+					configs.add(new ItemPersistenceConfig(serviceName, config.getAlias(),
+							hasStrategy(serviceName, config, GlobalStrategies.CHANGE),
+							hasStrategy(serviceName, config, GlobalStrategies.UPDATE),
+							hasStrategy(serviceName, config, GlobalStrategies.RESTORE)));
+				}
+			}
+		}
+		return configs;
+	}
+
+	/**
+	 * Collects the names of all groups an item is a direct or indirect member of.
+	 * 
+	 * @param item the item to start with
+	 * @param groupNames the set to add the group names to
+	 */
+	private void collectGroupNames(Item item, Set<String> groupNames) {
+		for(String groupName : item.getGroupNames()) {
+			if(!groupNames.contains(groupName)) {
+				try {
+					Item groupItem = itemRegistry.getItem(groupName);
+					if(groupItem instanceof GroupItem) {
+						groupNames.add(groupName);
+						collectGroupNames(groupItem, groupNames);
+					}
+				} catch (ItemNotFoundException e) {
+					// the group does not exist, so the item cannot be a member of it
+				}
+			}
+		}
+	}
+
 	public void allItemsChanged(Collection<String> oldItemNames) {
-		for(Item item : itemRegistry.getItems()) {
-			itemAdded(item);
+		rebuildItemConfigs();
+		Collection<Item> items = itemRegistry.getItems();
+		restoreItems(items);
+		for(Item item : items) {
+			if (item instanceof GenericItem) {
+				GenericItem genericItem = (GenericItem) item;
+				genericItem.addStateChangeListener(this);
+			}
 		}
 	}
 
 	public void itemAdded(Item item) {
+		if(item instanceof GroupItem) {
+			// the group may change the configurations of all its members
+			rebuildItemConfigs();
+		} else {
+			updateItemConfigs(item);
+		}
+		registerItem(item);
+	}
+
+	private void registerItem(Item item) {
 		initialize(item);
 		if (item instanceof GenericItem) {
 			GenericItem genericItem = (GenericItem) item;
@@ -355,38 +520,165 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	 * @param item the item to restore the state for
 	 */
 	protected void initialize(Item item) {
-		// get the last persisted state from the persistence service if no state is yet set
-		if(item.getState().equals(UnDefType.NULL) && item instanceof GenericItem) {
-			for(Entry<String, List<PersistenceConfiguration>> entry : persistenceConfigurations.entrySet()) {
-				String serviceName = entry.getKey();
-				for(PersistenceConfiguration config : entry.getValue()) {
-					if(hasStrategy(serviceName, config, GlobalStrategies.RESTORE)) {
-						if(appliesToItem(config, item)) {
-							PersistenceService service = persistenceServices.get(serviceName);
-							if(service instanceof QueryablePersistenceService) {
-								QueryablePersistenceService queryService = (QueryablePersistenceService) service;
-								FilterCriteria filter = new FilterCriteria().setItemName(item.getName()).setPageSize(1);
-								Iterable<HistoricItem> result = queryService.query(filter);
-								Iterator<HistoricItem> it = result.iterator();
-								if(it.hasNext()) {
-									HistoricItem historicItem = it.next();
-									GenericItem genericItem = (GenericItem) item;
-									genericItem.removeStateChangeListener(this);
-									genericItem.setState(historicItem.getState());
-									genericItem.addStateChangeListener(this);
-									logger.debug("Restored item state from '{}' for item '{}' -> '{}'", 
-											new Object[] { DateFormat.getDateTimeInstance().format(historicItem.getTimestamp()), 
-											item.getName(), historicItem.getState().toString() } );
-									return;
-								}
-							} else if(service!=null) {
-								logger.warn("Failed to restore item states as persistence service '{}' can not be queried.", serviceName);
+		restoreItems(Collections.singletonList(item));
+	}
+
+	/**
+	 * Handles the "restoreOnStartup" strategy for many items at once.
+	 * The items are restored service by service: services implementing {@link BulkQueryablePersistenceService}
+	 * are asked for the states of all their items in a few batches, all other queryable services are
+	 * queried for each item in parallel. If several services are configured for an item, the first one
+	 * that has a persisted state for it is used.
+	 * 
+	 * @param items the items to restore the states for
+	 */
+	protected void restoreItems(Collection<Item> items) {
+		// collect the items which need to be restored per persistence service
+		Map<String, List<Item>> itemsByService = new LinkedHashMap<String, List<Item>>();
+		for(Item item : items) {
+			if(item.getState().equals(UnDefType.NULL) && item instanceof GenericItem) {
+				List<ItemPersistenceConfig> configs = itemConfigs.get(item.getName());
+				if(configs!=null) {
+					for(ItemPersistenceConfig config : configs) {
+						if(config.restore) {
+							List<Item> serviceItems = itemsByService.get(config.serviceName);
+							if(serviceItems==null) {
+								serviceItems = new ArrayList<Item>();
+								itemsByService.put(config.serviceName, serviceItems);
 							}
+							serviceItems.add(item);
 						}
 					}
 				}
-			}	
-		}		
+			}
+		}
+
+		Set<String> restoredItems = new HashSet<String>();
+		for(Entry<String, List<Item>> entry : itemsByService.entrySet()) {
+			String serviceName = entry.getKey();
+			PersistenceService service = persistenceServices.get(serviceName);
+			if(service instanceof QueryablePersistenceService) {
+				List<Item> pendingItems = new ArrayList<Item>();
+				for(Item item : entry.getValue()) {
+					if(!restoredItems.contains(item.getName())) {
+						pendingItems.add(item);
+					}
+				}
+				if(pendingItems.isEmpty()) {
+					continue;
+				}
+				long startTime = System.currentTimeMillis();
+				Map<String, HistoricItem> states;
+				if(service instanceof BulkQueryablePersistenceService) {
+					states = queryLatest((BulkQueryablePersistenceService) service, pendingItems);
+				} else {
+					states = queryLatestInParallel((QueryablePersistenceService) service, pendingItems);
+				}
+				for(Item item : pendingItems) {
+					HistoricItem historicItem = states.get(item.getName());
+					if(historicItem!=null) {
+						restoreState((GenericItem) item, historicItem);
+						restoredItems.add(item.getName());
+					}
+				}
+				logger.debug("Restored {} of {} item states from persistence service '{}' in {}ms", 
+						new Object[] { states.size(), pendingItems.size(), serviceName, System.currentTimeMillis() - startTime });
+			} else if(service!=null) {
+				logger.warn("Failed to restore item states as persistence service '{}' can not be queried.", serviceName);
+			}
+		}
+	}
+
+	private Map<String, HistoricItem> queryLatest(BulkQueryablePersistenceService service, List<Item> items) {
+		Map<String, HistoricItem> states = new HashMap<String, HistoricItem>();
+		for(int i = 0; i < items.size(); i += RESTORE_BATCH_SIZE) {
+			List<String> itemNames = new ArrayList<String>();
+			for(Item item : items.subList(i, Math.min(i + RESTORE_BATCH_SIZE, items.size()))) {
+				itemNames.add(item.getName());
+			}
+			try {
+				Map<String, HistoricItem> result = service.queryLatest(itemNames);
+				if(result!=null) {
+					states.putAll(result);
+				}
+			} catch (RuntimeException e) {
+				logger.error("Failed to restore item states from persistence service '" + service.getName() + "'", e);
+			}
+		}
+		return states;
+	}
+
+	private Map<String, HistoricItem> queryLatestInParallel(final QueryablePersistenceService service, List<Item> items) {
+		Map<String, HistoricItem> states = new HashMap<String, HistoricItem>();
+		if(items.size()==1) {
+			HistoricItem historicItem = queryLatest(service, items.get(0).getName());
+			if(historicItem!=null) {
+				states.put(items.get(0).getName(), historicItem);
+			}
+			return states;
+		}
+
+		ThreadPoolExecutor executor = getRestoreExecutor();
+		Map<String, Future<HistoricItem>> futures = new LinkedHashMap<String, Future<HistoricItem>>();
+		try {
+			for(Item item : items) {
+				final String itemName = item.getName();
+				futures.put(itemName, executor.submit(new Callable<HistoricItem>() {
+					public HistoricItem call() {
+						return queryLatest(service, itemName);
+					}
+				}));
+			}
+			for(Entry<String, Future<HistoricItem>> entry : futures.entrySet()) {
+				try {
+					HistoricItem historicItem = entry.getValue().get();
+					if(historicItem!=null) {
+						states.put(entry.getKey(), historicItem);
+					}
+				} catch (ExecutionException e) {
+					logger.error("Failed to restore state of item '" + entry.getKey() + "' from persistence service '"
+							+ service.getName() + "'", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for(Future<HistoricItem> future : futures.values()) {
+				future.cancel(true);
+			}
+		}
+		return states;
+	}
+
+	private synchronized ThreadPoolExecutor getRestoreExecutor() {
+		if(restoreExecutor==null) {
+			final AtomicInteger count = new AtomicInteger();
+			restoreExecutor = new ThreadPoolExecutor(RESTORE_THREADS, RESTORE_THREADS, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "PersistenceManager-Restore-" + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			// the threads are only needed while items are restored
+			restoreExecutor.allowCoreThreadTimeOut(true);
+		}
+		return restoreExecutor;
+	}
+
+	private HistoricItem queryLatest(QueryablePersistenceService service, String itemName) {
+		FilterCriteria filter = new FilterCriteria().setItemName(itemName).setPageSize(1);
+		Iterator<HistoricItem> it = service.query(filter).iterator();
+		return it.hasNext() ? it.next() : null;
+	}
+
+	private void restoreState(GenericItem item, HistoricItem historicItem) {
+		item.removeStateChangeListener(this);
+		item.setState(historicItem.getState());
+		item.addStateChangeListener(this);
+		logger.debug("Restored item state from '{}' for item '{}' -> '{}'", 
+				new Object[] { DateFormat.getDateTimeInstance().format(historicItem.getTimestamp()), 
+				item.getName(), historicItem.getState().toString() } );
 	}
 
 	public void itemRemoved(Item item) {
@@ -394,6 +686,11 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 			GenericItem genericItem = (GenericItem) item;
 			genericItem.removeStateChangeListener(this);
 		}
+		if(item instanceof GroupItem) {
+			rebuildItemConfigs();
+		} else {
+			itemConfigs.remove(item.getName());
+		}
 	}
 	
 	/**
@@ -458,6 +755,102 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 			logger.warn("Failed to delete cron jobs of group '{}'", persistModelName);
 		}
 	}
-		
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("rawtypes")
+	public void updated(Dictionary config) throws ConfigurationException {
+		this.queueConfig = config;
+		for(PersistenceQueue queue : persistenceQueues.values()) {
+			configureQueue(queue, config);
+		}
+	}
+
+	/**
+	 * Applies the configuration to a persistence queue. Each setting can be given for
+	 * all services (e.g. <code>batchsize</code>) and for a single service, prefixed by 
+	 * its name (e.g. <code>jdbc.batchsize</code>).
+	 * 
+	 * @param queue the queue to configure
+	 * @param config the configuration, may be <code>null</code>
+	 * @throws ConfigurationException if a setting has an invalid value
+	 */
+	private void configureQueue(PersistenceQueue queue, Dictionary<?, ?> config) throws ConfigurationException {
+		String serviceName = queue.getService().getName();
+		int batchSize = PersistenceQueue.DEFAULT_BATCH_SIZE;
+		long flushInterval = PersistenceQueue.DEFAULT_FLUSH_INTERVAL;
+		int maxSize = PersistenceQueue.DEFAULT_MAX_SIZE;
+		OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+		if(config!=null) {
+			String value = getQueueSetting(config, serviceName, "batchsize");
+			if(value!=null) {
+				batchSize = parsePositive("batchsize", value);
+			}
+			value = getQueueSetting(config, serviceName, "flushinterval");
+			if(value!=null) {
+				flushInterval = parsePositive("flushinterval", value);
+			}
+			value = getQueueSetting(config, serviceName, "queuesize");
+			if(value!=null) {
+				maxSize = parsePositive("queuesize", value);
+			}
+			value = getQueueSetting(config, serviceName, "overflow");
+			if(value!=null) {
+				try {
+					overflowPolicy = OverflowPolicy.valueOf(value.toUpperCase());
+				} catch (IllegalArgumentException e) {
+					throw new ConfigurationException("persistence-queue:overflow", 
+							"The overflow policy must be one of drop_oldest, drop_newest or block, but is '" + value + "'");
+				}
+			}
+		}
+		queue.configure(batchSize, flushInterval, maxSize, overflowPolicy);
+		logger.debug("Configured persistence queue of service '{}' with batch size {}, flush interval {} ms, queue size {} and overflow policy {}", 
+				new Object[] { serviceName, batchSize, flushInterval, maxSize, overflowPolicy });
+	}
+
+	private String getQueueSetting(Dictionary<?, ?> config, String serviceName, String key) {
+		Object value = config.get(serviceName + "." + key);
+		if(value==null) {
+			value = config.get(key);
+		}
+		if(value==null || value.toString().trim().isEmpty()) {
+			return null;
+		}
+		return value.toString().trim();
+	}
+
+	private int parsePositive(String key, String value) throws ConfigurationException {
+		try {
+			int number = Integer.parseInt(value);
+			if(number<0 || (number==0 && !key.equals("flushinterval"))) {
+				throw new ConfigurationException("persistence-queue:" + key, "The value must be positive, but is '" + value + "'");
+			}
+			return number;
+		} catch (NumberFormatException e) {
+			throw new ConfigurationException("persistence-queue:" + key, "The value must be a number, but is '" + value + "'");
+		}
+	}
+
+	/**
+	 * A persistence configuration of a service that applies to a certain item,
+	 * together with the strategies that are relevant for event handling.
+	 */
+	private static class ItemPersistenceConfig {
+		final String serviceName;
+		final String alias;
+		final boolean onChange;
+		final boolean onUpdate;
+		final boolean restore;
+
+		ItemPersistenceConfig(String serviceName, String alias, boolean onChange, boolean onUpdate, boolean restore) {
+			this.serviceName = serviceName;
+			this.alias = alias;
+			this.onChange = onChange;
+			this.onUpdate = onUpdate;
+			this.restore = restore;
+		}
+	}
 
 }
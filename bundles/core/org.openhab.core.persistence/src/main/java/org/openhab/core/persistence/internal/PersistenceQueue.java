@@ -0,0 +1,373 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.persistence.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openhab.core.items.Item;
+import org.openhab.core.persistence.BatchPersistenceService;
+import org.openhab.core.persistence.PersistenceEntry;
+import org.openhab.core.persistence.PersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A write-behind queue for a single {@link PersistenceService}. Store requests
+ * are queued by the threads that change the item states and are written by a
+ * dedicated worker thread, so that a slow service does not block the rest of
+ * the system.
+ *
+ * The worker writes the queued entries in batches of at most
+ * <code>batchSize</code> entries. If a flush interval is set, it waits up to
+ * this time after the first entry for further entries to fill up the batch.
+ *
+ * Only services implementing {@link BatchPersistenceService} are queued, as
+ * only they can be given the state and time of a request. All other services
+ * read the state from the item when they store it, so they are called
+ * directly by the requesting thread.
+ *
+ * The queue holds at most <code>maxSize</code> entries. What happens if it is
+ * full is determined by its {@link OverflowPolicy}.
+ *
+ * @since 1.9.0
+ */
+public class PersistenceQueue implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(PersistenceQueue.class);
+
+	/** the default maximum number of entries that are written at once */
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	/** the default time in milliseconds to wait for a batch to fill up */
+	public static final long DEFAULT_FLUSH_INTERVAL = 0;
+
+	/** the default maximum number of queued entries */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	/**
+	 * Determines what happens to a store request when the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** the oldest queued entry is dropped in favour of the new one */
+		DROP_OLDEST,
+		/** the new entry is dropped */
+		DROP_NEWEST,
+		/** the calling thread is blocked until there is room in the queue */
+		BLOCK
+	}
+
+	private final PersistenceService service;
+
+	private final Deque<PersistenceEntry> entries = new ArrayDeque<PersistenceEntry>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+	private volatile long flushInterval = DEFAULT_FLUSH_INTERVAL;
+	private volatile int maxSize = DEFAULT_MAX_SIZE;
+	private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+	private Thread worker;
+	private volatile boolean running = false;
+	private boolean overflow = false;
+
+	private final AtomicLong storedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong flushCount = new AtomicLong();
+	private final AtomicLong totalFlushTime = new AtomicLong();
+	private final AtomicLong maxFlushTime = new AtomicLong();
+
+	public PersistenceQueue(PersistenceService service) {
+		this.service = service;
+	}
+
+	/**
+	 * @return <code>true</code>, if the requests are queued, i.e. if the service supports batches
+	 */
+	private boolean isQueued() {
+		return service instanceof BatchPersistenceService;
+	}
+
+	/**
+	 * Changes the settings of this queue. The new settings apply to all
+	 * subsequent requests and batches.
+	 *
+	 * @param batchSize the maximum number of entries written at once
+	 * @param flushInterval the time in milliseconds to wait for a batch to fill up
+	 * @param maxSize the maximum number of queued entries
+	 * @param overflowPolicy what to do if the queue is full
+	 */
+	public void configure(int batchSize, long flushInterval, int maxSize, OverflowPolicy overflowPolicy) {
+		lock.lock();
+		try {
+			this.batchSize = batchSize;
+			this.flushInterval = flushInterval;
+			this.maxSize = maxSize;
+			this.overflowPolicy = overflowPolicy;
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Starts the worker thread of this queue.
+	 */
+	public synchronized void start() {
+		running = true;
+		if (worker == null && isQueued()) {
+			worker = new Thread(this, "PersistenceQueue-" + service.getName());
+			worker.setDaemon(true);
+			worker.start();
+		}
+	}
+
+	/**
+	 * Stops accepting new requests. The entries which are still queued are
+	 * written before the worker terminates; this method waits up to the given
+	 * time for that to happen.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds
+	 */
+	public synchronized void stop(long timeout) {
+		if (worker == null) {
+			running = false;
+			return;
+		}
+		lock.lock();
+		try {
+			running = false;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			worker.join(timeout);
+			if (worker.isAlive()) {
+				logger.warn("Persistence service '{}' did not write its {} queued entries within {} ms.",
+						new Object[] { service.getName(), getQueueDepth(), timeout });
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		worker = null;
+		logger.debug("Stopped {}", this);
+	}
+
+	/**
+	 * Queues the current state of an item to be stored by the persistence service.
+	 * If the service does not support batches, it stores the item right away.
+	 *
+	 * @param item the item to persist
+	 * @param alias the alias under which the item should be persisted, may be <code>null</code>
+	 * @return <code>true</code>, if the request has been queued or stored
+	 */
+	public boolean add(Item item, String alias) {
+		if (!isQueued()) {
+			if (!running) {
+				logger.debug("Persistence queue of service '{}' is stopped, ignoring item '{}'", service.getName(),
+						item.getName());
+				return false;
+			}
+			storeDirectly(item, alias);
+			return true;
+		}
+		PersistenceEntry entry = new PersistenceEntry(item, alias);
+		lock.lock();
+		try {
+			while (running && entries.size() >= maxSize) {
+				if (!overflow) {
+					overflow = true;
+					logger.warn("Persistence queue of service '{}' is full ({} entries), applying policy {}.",
+							new Object[] { service.getName(), entries.size(), overflowPolicy });
+				}
+				switch (overflowPolicy) {
+					case DROP_OLDEST:
+						entries.poll();
+						droppedCount.incrementAndGet();
+						break;
+					case DROP_NEWEST:
+						droppedCount.incrementAndGet();
+						return false;
+					case BLOCK:
+						try {
+							notFull.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							droppedCount.incrementAndGet();
+							return false;
+						}
+						break;
+				}
+			}
+			if (!running) {
+				logger.debug("Persistence queue of service '{}' is stopped, ignoring {}", service.getName(), entry);
+				return false;
+			}
+			entries.add(entry);
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void run() {
+		while (true) {
+			List<PersistenceEntry> batch;
+			lock.lock();
+			try {
+				while (running && entries.isEmpty()) {
+					notEmpty.await();
+				}
+				if (entries.isEmpty()) {
+					return;
+				}
+				long interval = flushInterval;
+				if (interval > 0) {
+					long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(interval);
+					long remaining;
+					while (running && entries.size() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+						notEmpty.awaitNanos(remaining);
+					}
+				}
+				int size = Math.min(batchSize, entries.size());
+				batch = new ArrayList<PersistenceEntry>(size);
+				for (int i = 0; i < size; i++) {
+					batch.add(entries.poll());
+				}
+				if (overflow && entries.size() < maxSize / 2) {
+					overflow = false;
+					logger.info("Persistence queue of service '{}' has recovered ({} entries).", service.getName(),
+							entries.size());
+				}
+				notFull.signalAll();
+			} catch (InterruptedException e) {
+				logger.debug("Worker of persistence queue '{}' has been interrupted.", service.getName());
+				return;
+			} finally {
+				lock.unlock();
+			}
+			flush(batch);
+		}
+	}
+
+	private void flush(List<PersistenceEntry> batch) {
+		long startTime = System.nanoTime();
+		try {
+			((BatchPersistenceService) service).store(batch);
+		} catch (RuntimeException e) {
+			logger.error("Persistence service '" + service.getName() + "' failed to store " + batch.size()
+					+ " entries", e);
+		}
+		recordFlush(batch.size(), System.nanoTime() - startTime);
+	}
+
+	private void storeDirectly(Item item, String alias) {
+		long startTime = System.nanoTime();
+		try {
+			service.store(item, alias);
+		} catch (RuntimeException e) {
+			logger.error("Persistence service '" + service.getName() + "' failed to store item '" + item.getName()
+					+ "'", e);
+		}
+		recordFlush(1, System.nanoTime() - startTime);
+	}
+
+	private void recordFlush(int size, long flushTime) {
+		storedCount.addAndGet(size);
+		flushCount.incrementAndGet();
+		totalFlushTime.addAndGet(flushTime);
+		long max = maxFlushTime.get();
+		while (flushTime > max && !maxFlushTime.compareAndSet(max, flushTime)) {
+			max = maxFlushTime.get();
+		}
+		logger.trace("Storing {} entries with persistence service '{}' took {} ms", new Object[] { size,
+				service.getName(), flushTime / 1000000 });
+	}
+
+	/**
+	 * @return the persistence service this queue belongs to
+	 */
+	public PersistenceService getService() {
+		return service;
+	}
+
+	/**
+	 * @return the number of entries which are waiting to be written
+	 */
+	public int getQueueDepth() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of entries that have been passed to the persistence service
+	 */
+	public long getStoredCount() {
+		return storedCount.get();
+	}
+
+	/**
+	 * @return the number of entries that have been dropped because the queue was full
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * @return the number of batches that have been written
+	 */
+	public long getFlushCount() {
+		return flushCount.get();
+	}
+
+	/**
+	 * @return the average time in milliseconds it took to write a batch
+	 */
+	public double getAverageFlushTime() {
+		long count = flushCount.get();
+		return count > 0 ? totalFlushTime.get() / (count * 1000000.0) : 0.0;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds it took to write a batch
+	 */
+	public double getMaxFlushTime() {
+		return maxFlushTime.get() / 1000000.0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("PersistenceQueue [service=%s, queueDepth=%d, stored=%d, dropped=%d, flushes=%d, "
+				+ "avgFlush=%.2fms, maxFlush=%.2fms]", service.getName(), getQueueDepth(), getStoredCount(),
+				getDroppedCount(), getFlushCount(), getAverageFlushTime(), getMaxFlushTime());
+	}
+
+}
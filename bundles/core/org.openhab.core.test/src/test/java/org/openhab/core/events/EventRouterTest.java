@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.events;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.binding.BindingChangeListener;
+import org.openhab.core.binding.BindingProvider;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+
+/**
+ * @since 1.9.0
+ */
+public class EventRouterTest {
+
+	private EventRouter router;
+
+	private TestBindingProvider provider;
+
+	private TestSubscriber subscriber;
+
+	@Before
+	public void setup() {
+		router = new EventRouter();
+		provider = new TestBindingProvider();
+		provider.itemNames.add("item1");
+		subscriber = new TestSubscriber();
+		router.addBindingProvider(subscriber, provider);
+	}
+
+	@Test
+	public void testRoutesAreBuiltFromProvider() {
+		assertTrue(router.getSubscribers("item1").contains(subscriber));
+		assertTrue(router.getSubscribers("item2").isEmpty());
+	}
+
+	@Test
+	public void testBindingChanged() {
+		provider.itemNames.add("item2");
+		provider.notifyListeners("item2");
+		assertTrue(router.getSubscribers("item2").contains(subscriber));
+
+		provider.itemNames.remove("item1");
+		provider.notifyListeners("item1");
+		assertTrue(router.getSubscribers("item1").isEmpty());
+	}
+
+	@Test
+	public void testAccepts() {
+		TestSubscriber otherSubscriber = new TestSubscriber();
+		assertTrue(router.accepts(subscriber, "item1"));
+		assertFalse(router.accepts(subscriber, "item2"));
+		assertFalse(router.accepts(subscriber, null));
+		assertTrue(router.accepts(otherSubscriber, "item2"));
+
+		router.removeBindingProvider(subscriber, provider);
+		assertTrue(router.accepts(subscriber, "item2"));
+		assertTrue(provider.listeners.isEmpty());
+	}
+
+
+	class TestSubscriber implements EventSubscriber {
+
+		@Override
+		public void receiveCommand(String itemName, Command command) {
+		}
+
+		@Override
+		public void receiveUpdate(String itemName, State newStatus) {
+		}
+
+	}
+
+	class TestBindingProvider implements BindingProvider {
+
+		Set<String> itemNames = new HashSet<String>();
+
+		Set<BindingChangeListener> listeners = new HashSet<BindingChangeListener>();
+
+		void notifyListeners(String itemName) {
+			for (BindingChangeListener listener : listeners) {
+				listener.bindingChanged(this, itemName);
+			}
+		}
+
+		@Override
+		public void addBindingChangeListener(BindingChangeListener listener) {
+			listeners.add(listener);
+		}
+
+		@Override
+		public void removeBindingChangeListener(BindingChangeListener listener) {
+			listeners.remove(listener);
+		}
+
+		@Override
+		public boolean providesBindingFor(String itemName) {
+			return itemNames.contains(itemName);
+		}
+
+		@Override
+		public boolean providesBinding() {
+			return !itemNames.isEmpty();
+		}
+
+		@Override
+		public Collection<String> getItemNames() {
+			return new ArrayList<String>(itemNames);
+		}
+
+	}
+
+}
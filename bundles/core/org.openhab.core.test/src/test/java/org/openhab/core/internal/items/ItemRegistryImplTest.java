@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.internal.items;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemProvider;
+import org.openhab.core.items.ItemsChangeListener;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+
+/**
+ * Checks that the name and group membership indexes of the {@link ItemRegistryImpl}
+ * stay consistent with the items of its providers.
+ *
+ * @since 1.9.0
+ */
+public class ItemRegistryImplTest {
+
+	private ItemRegistryImpl registry;
+
+	private TestItemProvider provider;
+
+	@Before
+	public void setup() {
+		registry = new ItemRegistryImpl();
+		provider = new TestItemProvider();
+		TestItem member = new TestItem("member1");
+		member.getGroupNames().add("group1");
+		provider.items.add(member);
+		provider.items.add(new GroupItem("group1"));
+		registry.addItemProvider(provider);
+	}
+
+	@Test
+	public void testGetItem() throws ItemNotFoundException {
+		assertEquals("member1", registry.getItem("member1").getName());
+		assertEquals("group1", registry.getItem("group1").getName());
+	}
+
+	@Test(expected=ItemNotFoundException.class)
+	public void testGetUnknownItem() throws ItemNotFoundException {
+		registry.getItem("unknown");
+	}
+
+	@Test
+	public void testGroupMembersAreResolvedRegardlessOfOrder() throws ItemNotFoundException {
+		GroupItem group = (GroupItem) registry.getItem("group1");
+		assertEquals(1, group.getMembers().size());
+		assertSame(registry.getItem("member1"), group.getMembers().get(0));
+	}
+
+	@Test
+	public void testItemAddedAndRemoved() throws ItemNotFoundException {
+		TestItem item = new TestItem("member2");
+		item.getGroupNames().add("group1");
+		registry.itemAdded(provider, item);
+		assertSame(item, registry.getItem("member2"));
+		assertEquals(2, ((GroupItem) registry.getItem("group1")).getMembers().size());
+
+		registry.itemRemoved(provider, item);
+		try {
+			registry.getItem("member2");
+			assertTrue("item should have been removed from the index", false);
+		} catch (ItemNotFoundException e) {
+			// expected
+		}
+		assertEquals(1, ((GroupItem) registry.getItem("group1")).getMembers().size());
+	}
+
+	@Test
+	public void testItemsOfNewModelAddedOneByOne() throws ItemNotFoundException {
+		Item member1 = registry.getItem("member1");
+		TestItem member3 = new TestItem("member3");
+		member3.getGroupNames().add("group2");
+		registry.itemAdded(provider, member3);
+		registry.itemAdded(provider, new GroupItem("group2"));
+
+		GroupItem group2 = (GroupItem) registry.getItem("group2");
+		assertEquals(1, group2.getMembers().size());
+		assertSame(member3, group2.getMembers().get(0));
+		assertSame(member1, registry.getItem("member1"));
+		assertEquals(1, ((GroupItem) registry.getItem("group1")).getMembers().size());
+	}
+
+	@Test
+	public void testGroupItemReplaced() throws ItemNotFoundException {
+		GroupItem oldGroup = (GroupItem) registry.getItem("group1");
+		registry.itemRemoved(provider, oldGroup);
+		assertEquals(0, oldGroup.getMembers().size());
+
+		registry.itemAdded(provider, new GroupItem("group1"));
+		GroupItem newGroup = (GroupItem) registry.getItem("group1");
+		assertEquals(1, newGroup.getMembers().size());
+		assertSame(registry.getItem("member1"), newGroup.getMembers().get(0));
+	}
+
+	@Test
+	public void testAllItemsChangedWithKeptItems() throws ItemNotFoundException {
+		registry.allItemsChanged(provider, null);
+		GroupItem group = (GroupItem) registry.getItem("group1");
+		assertEquals(1, group.getMembers().size());
+		assertSame(provider.items.get(0), registry.getItem("member1"));
+	}
+
+	@Test
+	public void testAllItemsChanged() throws ItemNotFoundException {
+		provider.items.clear();
+		provider.items.add(new TestItem("other"));
+		registry.allItemsChanged(provider, null);
+		assertEquals("other", registry.getItem("other").getName());
+		try {
+			registry.getItem("member1");
+			assertTrue("item should have been removed from the index", false);
+		} catch (ItemNotFoundException e) {
+			// expected
+		}
+	}
+
+
+	class TestItemProvider implements ItemProvider {
+
+		List<Item> items = new ArrayList<Item>();
+
+		@Override
+		public Collection<Item> getItems() {
+			return new ArrayList<Item>(items);
+		}
+
+		@Override
+		public void addItemChangeListener(ItemsChangeListener listener) {
+		}
+
+		@Override
+		public void removeItemChangeListener(ItemsChangeListener listener) {
+		}
+
+	}
+
+	class TestItem extends GenericItem {
+
+		public TestItem(String name) {
+			super(name);
+		}
+
+		@Override
+		public List<Class<? extends State>> getAcceptedDataTypes() {
+			return null;
+		}
+
+		@Override
+		public List<Class<? extends Command>> getAcceptedCommandTypes() {
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.internal.items;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * @since 1.9.0
+ */
+public class ItemUpdaterTest {
+
+	private final ItemUpdater updater = new ItemUpdater();
+
+	@Test
+	public void testAcceptedStates() {
+		TestItem item = new TestItem("item", TestState.class, UnDefType.class);
+		assertTrue(updater.isAccepted(item, new TestState()));
+		assertTrue(updater.isAccepted(item, UnDefType.UNDEF));
+		// subclasses of accepted types are accepted, repeatedly as the result is cached
+		assertTrue(updater.isAccepted(item, new SubState()));
+		assertTrue(updater.isAccepted(item, new SubState()));
+		assertFalse(updater.isAccepted(item, new OtherState()));
+		assertFalse(updater.isAccepted(item, new OtherState()));
+	}
+
+	@Test
+	public void testAcceptedStatesOfOtherInstances() {
+		assertTrue(updater.isAccepted(new TestItem("item1", TestState.class), new SubState()));
+		// the items of the same class accept other types here, the cache must not be used
+		assertFalse(updater.isAccepted(new TestItem("item2", OtherState.class), new SubState()));
+		assertTrue(updater.isAccepted(new TestItem("item3", OtherState.class), new OtherState()));
+	}
+
+	@Test
+	public void testAcceptedStatesOfGroups() {
+		GroupItem group = new GroupItem("group");
+		group.addMember(new TestItem("member1", TestState.class, OtherState.class));
+		assertTrue(updater.isAccepted(group, new OtherState()));
+
+		group.addMember(new TestItem("member2", TestState.class));
+		assertFalse(updater.isAccepted(group, new OtherState()));
+		assertTrue(updater.isAccepted(group, new SubState()));
+	}
+
+	class TestItem extends GenericItem {
+
+		private final List<Class<? extends State>> acceptedDataTypes;
+
+		@SafeVarargs
+		public TestItem(String name, Class<? extends State>... acceptedDataTypes) {
+			super(name);
+			this.acceptedDataTypes = new ArrayList<Class<? extends State>>();
+			Collections.addAll(this.acceptedDataTypes, acceptedDataTypes);
+		}
+
+		@Override
+		public List<Class<? extends State>> getAcceptedDataTypes() {
+			return acceptedDataTypes;
+		}
+
+		@Override
+		public List<Class<? extends Command>> getAcceptedCommandTypes() {
+			return Collections.emptyList();
+		}
+
+	}
+
+	static class TestState implements State {
+
+		public String format(String pattern) {
+			return toString();
+		}
+
+	}
+
+	static class SubState extends TestState {
+	}
+
+	static class OtherState implements State {
+
+		public String format(String pattern) {
+			return toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.items;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * @since 1.9.0
+ */
+public class GenericItemTest {
+
+	private final List<String> notifications = new ArrayList<String>();
+
+	@Test
+	public void testListenersAreNotifiedInOrder() {
+		TestItem item = new TestItem("item");
+		TestListener first = new TestListener("first");
+		TestListener second = new TestListener("second");
+		item.addStateChangeListener(first);
+		item.addStateChangeListener(second);
+		// a listener is only notified once
+		item.addStateChangeListener(first);
+
+		item.setState(UnDefType.UNDEF);
+		assertEquals("[first updated, second updated, first changed, second changed]", notifications.toString());
+
+		notifications.clear();
+		item.setState(UnDefType.UNDEF);
+		assertEquals("[first updated, second updated]", notifications.toString());
+
+		notifications.clear();
+		item.removeStateChangeListener(first);
+		item.setState(UnDefType.NULL);
+		assertEquals("[second updated, second changed]", notifications.toString());
+		item.removeStateChangeListener(second);
+	}
+
+	@Test
+	public void testListenersAreWeaklyReferenced() throws InterruptedException {
+		TestItem item = new TestItem("item");
+		TestListener listener = new TestListener("listener");
+		item.addStateChangeListener(listener);
+		WeakReference<TestListener> reference = new WeakReference<TestListener>(listener);
+		listener = null;
+
+		for (int i = 0; i < 20 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(reference.get());
+		item.setState(UnDefType.UNDEF);
+		assertEquals(Collections.emptyList(), notifications);
+	}
+
+	class TestListener implements StateChangeListener {
+
+		private final String name;
+
+		TestListener(String name) {
+			this.name = name;
+		}
+
+		public void stateChanged(Item item, State oldState, State newState) {
+			notifications.add(name + " changed");
+		}
+
+		public void stateUpdated(Item item, State state) {
+			notifications.add(name + " updated");
+		}
+
+	}
+
+	class TestItem extends GenericItem {
+
+		public TestItem(String name) {
+			super(name);
+		}
+
+		@Override
+		public List<Class<? extends State>> getAcceptedDataTypes() {
+			return null;
+		}
+
+		@Override
+		public List<Class<? extends Command>> getAcceptedCommandTypes() {
+			return null;
+		}
+
+	}
+
+}
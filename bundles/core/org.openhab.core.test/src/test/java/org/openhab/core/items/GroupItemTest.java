@@ -11,6 +11,7 @@ package org.openhab.core.items;
 import static org.junit.Assert.fail;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
@@ -54,6 +55,66 @@ public class GroupItemTest {
 	}
 	
 	
+	@Test
+	public void testMemberUpdatesAreCoalesced() throws InterruptedException {
+		TestItem member = new TestItem("member");
+		GroupItem group = new GroupItem("group");
+		group.addMember(member);
+		group.setRecalculationInterval(200);
+		final AtomicInteger updates = new AtomicInteger();
+		StateChangeListener listener = new StateChangeListener() {
+			public void stateChanged(Item item, State oldState, State newState) {
+			}
+
+			public void stateUpdated(Item item, State state) {
+				updates.incrementAndGet();
+			}
+		};
+		group.addStateChangeListener(listener);
+
+		for (int i = 0; i < 10; i++) {
+			member.setState(new TestState(i));
+		}
+		// the first update is calculated at once, all others at the end of the interval
+		Assert.assertEquals(1, updates.get());
+		Assert.assertEquals(new TestState(0), group.getState());
+
+		Thread.sleep(600);
+		Assert.assertEquals(2, updates.get());
+		Assert.assertEquals(new TestState(9), group.getState());
+		// listeners are weakly referenced, keep it until the end of the test
+		group.removeStateChangeListener(listener);
+	}
+	
+	class TestState implements State {
+
+		private final int value;
+
+		public TestState(int value) {
+			this.value = value;
+		}
+
+		public String format(String pattern) {
+			return toString();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof TestState && ((TestState) obj).value == value;
+		}
+
+		@Override
+		public int hashCode() {
+			return value;
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(value);
+		}
+
+	}
+	
 	class TestItem extends GenericItem {
 
 		public TestItem(String name) {
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @since 1.9.0
+ */
+public class AbstractActiveServiceTest {
+
+	@After
+	public void tearDown() {
+		ActiveServiceScheduler.shutdown();
+	}
+
+	@Test
+	public void testScheduledServiceIsExecutedUntilShutdown() throws InterruptedException {
+		TestService service = new TestService(10, 0);
+		service.setProperlyConfigured(true);
+		assertTrue(service.isRunning());
+		assertTrue(service.executed.await(5, TimeUnit.SECONDS));
+
+		service.shutdown();
+		assertFalse(service.isRunning());
+		// an execution which is running during the shutdown is completed
+		Thread.sleep(50);
+		int executions = service.executions.get();
+		Thread.sleep(50);
+		assertEquals(executions, service.executions.get());
+		assertEquals(executions, service.getExecutionCount());
+	}
+
+	@Test
+	public void testSlowExecutionsDoNotOverlap() throws InterruptedException {
+		TestService service = new TestService(5, 30);
+		service.setProperlyConfigured(true);
+		assertTrue(service.executed.await(5, TimeUnit.SECONDS));
+		service.shutdown();
+
+		assertEquals(1, service.maxConcurrent.get());
+		assertTrue(service.getSkippedCount() > 0);
+	}
+
+	@Test
+	public void testErrorsDoNotEndTheExecutions() throws InterruptedException {
+		TestService service = new TestService(5, 0);
+		service.error = new AssertionError("test");
+		service.setProperlyConfigured(true);
+		assertTrue(service.executed.await(5, TimeUnit.SECONDS));
+		assertTrue(service.isRunning());
+		service.shutdown();
+
+		assertTrue(service.getErrorCount() >= 3);
+	}
+
+	private static class TestService extends AbstractActiveService {
+
+		final long refreshInterval;
+		final long executionTime;
+		final CountDownLatch executed = new CountDownLatch(3);
+		final AtomicInteger executions = new AtomicInteger();
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+		Error error;
+
+		TestService(long refreshInterval, long executionTime) {
+			this.refreshInterval = refreshInterval;
+			this.executionTime = executionTime;
+		}
+
+		@Override
+		protected boolean isSharedSchedulerUsed() {
+			return true;
+		}
+
+		@Override
+		protected void execute() {
+			int running = concurrent.incrementAndGet();
+			maxConcurrent.set(Math.max(maxConcurrent.get(), running));
+			try {
+				if (executionTime > 0) {
+					Thread.sleep(executionTime);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			executions.incrementAndGet();
+			concurrent.decrementAndGet();
+			executed.countDown();
+			if (error != null) {
+				throw error;
+			}
+		}
+
+		@Override
+		protected long getRefreshInterval() {
+			return refreshInterval;
+		}
+
+		@Override
+		protected String getName() {
+			return "TestService";
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform.internal;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.config.core.ConfigConstants;
+import org.openhab.core.transform.TransformationException;
+import org.openhab.core.transform.internal.service.JavaScriptTransformationService;
+
+/**
+ * @since 1.9.0
+ */
+public class JavaScriptTransformationServiceTest {
+
+	private File configFolder;
+	private JavaScriptTransformationService processor;
+
+	@Before
+	public void init() throws IOException {
+		configFolder = File.createTempFile("openhab", "config");
+		configFolder.delete();
+		File transformFolder = new File(configFolder, TransformationActivator.TRANSFORM_FOLDER_NAME);
+		FileUtils.writeStringToFile(new File(transformFolder, "setglobal.js"), "var leaked = 'leaked'; input;");
+		FileUtils.writeStringToFile(new File(transformFolder, "readglobal.js"),
+				"typeof leaked === 'undefined' ? input : leaked;");
+		System.setProperty(ConfigConstants.CONFIG_DIR_PROG_ARGUMENT, configFolder.getAbsolutePath());
+		processor = new JavaScriptTransformationService();
+	}
+
+	@After
+	public void cleanUp() throws IOException {
+		System.clearProperty(ConfigConstants.CONFIG_DIR_PROG_ARGUMENT);
+		FileUtils.deleteDirectory(configFolder);
+	}
+
+	@Test
+	public void testTransform() throws TransformationException {
+		Assert.assertEquals("ON", processor.transform("setglobal.js", "ON"));
+	}
+
+	@Test
+	public void testGlobalsDoNotLeakIntoNextTransformation() throws TransformationException {
+		processor.transform("setglobal.js", "ON");
+		Assert.assertEquals("OFF", processor.transform("readglobal.js", "OFF"));
+	}
+
+}
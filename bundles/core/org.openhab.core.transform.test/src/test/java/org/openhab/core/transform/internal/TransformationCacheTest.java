@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform.internal;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * @since 1.9.0
+ */
+public class TransformationCacheTest {
+
+	private int loads = 0;
+
+	private final TransformationCache.Loader<String> loader = new TransformationCache.Loader<String>() {
+		public String load(String key) throws TransformationException {
+			loads++;
+			return key + loads;
+		}
+	};
+
+	@Test
+	public void testLeastRecentlyUsedEntryIsEvicted() throws TransformationException {
+		TransformationCache<String> cache = new TransformationCache<String>("test", 2, false);
+		Assert.assertEquals("a1", cache.get("a", loader));
+		Assert.assertEquals("b2", cache.get("b", loader));
+		Assert.assertEquals("a1", cache.get("a", loader));
+		Assert.assertEquals("c3", cache.get("c", loader));
+
+		// 'b' has been evicted, 'a' is still cached
+		Assert.assertEquals("a1", cache.get("a", loader));
+		Assert.assertEquals("b4", cache.get("b", loader));
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(2, cache.getEvictionCount());
+		Assert.assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void testChangedFileIsReloaded() throws TransformationException, IOException {
+		File file = File.createTempFile("transform", ".map");
+		try {
+			TransformationCache<String> cache = new TransformationCache<String>("test", 10, true);
+			String path = file.getPath();
+			Assert.assertEquals(path + "1", cache.get(path, loader));
+			Assert.assertEquals(path + "1", cache.get(path, loader));
+
+			// the watcher is not active in this test, so the modification time is checked
+			file.setLastModified(file.lastModified() - 10000);
+			Assert.assertEquals(path + "2", cache.get(path, loader));
+
+			cache.invalidate(file.toPath().toAbsolutePath().normalize());
+			Assert.assertEquals(path + "3", cache.get(path, loader));
+			Assert.assertEquals(1, cache.getInvalidationCount());
+		} finally {
+			file.delete();
+		}
+	}
+
+}
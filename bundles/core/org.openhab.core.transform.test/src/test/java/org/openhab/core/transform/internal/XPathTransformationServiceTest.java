@@ -8,6 +8,9 @@
  */
 package org.openhab.core.transform.internal;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import junit.framework.Assert;
 
 import org.junit.Before;
@@ -39,4 +42,17 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
 		Assert.assertEquals("8", transformedResponse);
 	}
 
+	@Test
+	public void testTransformMultipleByXPath() throws TransformationException {
+
+		// method under test
+		Map<String, String> transformedResponse = processor.transform(Arrays.asList(
+				"//current_conditions/temp_c/@data", "//current_conditions/temp_f/@data", "//[invalid"), source);
+
+		// Asserts
+		Assert.assertEquals(2, transformedResponse.size());
+		Assert.assertEquals("8", transformedResponse.get("//current_conditions/temp_c/@data"));
+		Assert.assertEquals("46", transformedResponse.get("//current_conditions/temp_f/@data"));
+	}
+
 }
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A {@link TransformationService} which is able to extract many values from the
+ * same document at once, e.g. by XPath or JSONPath expressions. The document is
+ * parsed only once and all expressions are evaluated against the parsed tree,
+ * so that one response can be fanned out to many items cheaply.
+ *
+ * @since 1.9.0
+ */
+public interface MultiPathTransformationService extends TransformationService {
+
+	/**
+	 * Transforms the input <code>source</code> by each of the given functions.
+	 * Functions which cannot be evaluated are logged and left out of the result.
+	 *
+	 * @param functions the functions (i.e. path expressions) to be evaluated
+	 * @param source the input to be transformed
+	 *
+	 * @return the transformed result of each function, keyed by the function and
+	 *         in the iteration order of <code>functions</code>
+	 *
+	 * @throws TransformationException if the source cannot be parsed
+	 */
+	Map<String, String> transform(Collection<String> functions, String source) throws TransformationException;
+
+}
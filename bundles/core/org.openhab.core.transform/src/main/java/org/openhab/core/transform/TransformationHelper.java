@@ -9,6 +9,8 @@
 package org.openhab.core.transform;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.InvalidSyntaxException;
@@ -44,4 +46,31 @@ public class TransformationHelper {
 		return null;
 	}
 
+	/**
+	 * Transforms a source by many functions of the same transformation service. If the service
+	 * is a {@link MultiPathTransformationService}, the source is parsed only once; otherwise
+	 * the service is called for each function.
+	 * 
+	 * @param service the transformation service to use
+	 * @param functions the functions to be evaluated
+	 * @param source the input to be transformed
+	 * @return the transformed result of each function which could be evaluated, keyed by the function
+	 * @throws TransformationException if the source cannot be parsed
+	 */
+	static public Map<String, String> transform(TransformationService service, Collection<String> functions, 
+			String source) throws TransformationException {
+		if(service instanceof MultiPathTransformationService) {
+			return ((MultiPathTransformationService) service).transform(functions, source);
+		}
+		Map<String, String> results = new LinkedHashMap<String, String>();
+		for(String function : functions) {
+			try {
+				results.put(function, service.transform(function, source));
+			} catch (TransformationException e) {
+				logger.warn("Transformation by '{}' failed: {}", function, e.getMessage());
+			}
+		}
+		return results;
+	}
+
 }
@@ -8,6 +8,9 @@
  */
 package org.openhab.core.transform.internal;
 
+import java.io.File;
+
+import org.openhab.config.core.ConfigDispatcher;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
@@ -35,6 +38,7 @@ public final class TransformationActivator implements BundleActivator {
 	 */
 	public void start(BundleContext bc) throws Exception {
 		context = bc;
+		TransformationFolderWatcher.start(new File(ConfigDispatcher.getConfigFolder(), TRANSFORM_FOLDER_NAME));
 		logger.debug("Transformation Service has been started.");
 	}
 
@@ -42,6 +46,7 @@ public final class TransformationActivator implements BundleActivator {
 	 * Called whenever the OSGi framework stops our bundle
 	 */
 	public void stop(BundleContext bc) throws Exception {
+		TransformationFolderWatcher.stop();
 		context = null;
 		logger.debug("Transformation Service has been stopped.");
 	}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform.internal;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * A bounded LRU cache for compiled transformation artifacts like parsed maps,
+ * XSLT templates or regular expression patterns, so that they do not have to be
+ * built again on every transformation.
+ *
+ * The entries of a file based cache are keyed by the path of the transformation
+ * file they have been loaded from. They are invalidated by the
+ * {@link TransformationFolderWatcher} when the file changes. If the watcher is not
+ * active, the modification time of the file is checked on every access instead.
+ *
+ * @param <V> the type of the cached artifacts
+ *
+ * @since 1.9.0
+ */
+public class TransformationCache<V> {
+
+	/** the default maximum number of entries of a cache */
+	public static final int DEFAULT_MAX_SIZE = 100;
+
+	/**
+	 * Builds the artifact for a cache key if it is not cached yet.
+	 */
+	public interface Loader<V> {
+		V load(String key) throws TransformationException;
+	}
+
+	private final String name;
+	private final boolean fileBased;
+	private final Map<String, CacheEntry<V>> entries;
+
+	/** incremented on every invalidation, so that artifacts loaded in the meantime are not cached */
+	private long generation = 0;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param name the name of the cache, used for logging
+	 * @param maxSize the maximum number of entries, the least recently used entry is evicted if it is exceeded
+	 * @param fileBased <code>true</code>, if the keys of the cache are paths of transformation files
+	 */
+	public TransformationCache(String name, final int maxSize, boolean fileBased) {
+		this.name = name;
+		this.fileBased = fileBased;
+		this.entries = new LinkedHashMap<String, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+				if (size() > maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+		if (fileBased) {
+			TransformationFolderWatcher.register(this);
+		}
+	}
+
+	/**
+	 * Returns the cached artifact for a key; it is loaded and cached if it is
+	 * not cached yet or if its transformation file has changed.
+	 *
+	 * @param key the key of the artifact, i.e. the path of the transformation file for file based caches
+	 * @param loader builds the artifact if necessary
+	 * @return the artifact
+	 * @throws TransformationException if the artifact could not be loaded
+	 */
+	public V get(String key, Loader<V> loader) throws TransformationException {
+		CacheEntry<V> entry;
+		long loadGeneration;
+		synchronized (entries) {
+			entry = entries.get(key);
+			loadGeneration = generation;
+		}
+		if (entry != null && isValid(key, entry)) {
+			hits.incrementAndGet();
+			return entry.value;
+		}
+
+		misses.incrementAndGet();
+		long lastModified = fileBased ? new File(key).lastModified() : 0;
+		V value = loader.load(key);
+		synchronized (entries) {
+			if (generation == loadGeneration) {
+				entries.put(key, new CacheEntry<V>(value, lastModified));
+			}
+		}
+		return value;
+	}
+
+	private boolean isValid(String key, CacheEntry<V> entry) {
+		// changes of the files are reported by the watcher if it is active, otherwise the file has to be checked
+		return !fileBased || TransformationFolderWatcher.isActive()
+				|| entry.lastModified == new File(key).lastModified();
+	}
+
+	/**
+	 * Removes all entries which have been loaded from the given file or from a
+	 * file within the given folder.
+	 *
+	 * @param file the absolute and normalized path of the changed file or folder
+	 */
+	void invalidate(Path file) {
+		synchronized (entries) {
+			generation++;
+			Iterator<String> it = entries.keySet().iterator();
+			while (it.hasNext()) {
+				if (new File(it.next()).toPath().toAbsolutePath().normalize().startsWith(file)) {
+					it.remove();
+					invalidations.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			generation++;
+			invalidations.addAndGet(entries.size());
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the number of requests which have been served from the cache
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of requests which required loading the artifact
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of entries which have been evicted because the cache was full
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the number of entries which have been removed because their file has changed
+	 */
+	public long getInvalidationCount() {
+		return invalidations.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "TransformationCache [name=" + name + ", size=" + size() + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + ", invalidations=" + getInvalidationCount()
+				+ "]";
+	}
+
+	private static class CacheEntry<V> {
+
+		final V value;
+		final long lastModified;
+
+		CacheEntry(V value, long lastModified) {
+			this.value = value;
+			this.lastModified = lastModified;
+		}
+
+	}
+
+}
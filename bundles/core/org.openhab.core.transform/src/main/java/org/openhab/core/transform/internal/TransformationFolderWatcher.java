@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform.internal;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the transformation folder and its subfolders for changes and
+ * invalidates the affected entries of all file based {@link TransformationCache}s.
+ *
+ * @since 1.9.0
+ */
+public final class TransformationFolderWatcher implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(TransformationFolderWatcher.class);
+
+	private static final List<TransformationCache<?>> caches = new CopyOnWriteArrayList<TransformationCache<?>>();
+
+	private static TransformationFolderWatcher instance;
+
+	private final WatchService watchService;
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	private TransformationFolderWatcher(Path folder) throws IOException {
+		watchService = FileSystems.getDefault().newWatchService();
+		registerAll(folder);
+		thread = new Thread(this, "TransformationFolderWatcher");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts watching the given folder. If the folder cannot be watched, the
+	 * caches check the modification time of the files on every access instead.
+	 *
+	 * @param folder the transformation folder
+	 */
+	public static synchronized void start(File folder) {
+		if (instance != null) {
+			return;
+		}
+		if (!folder.isDirectory()) {
+			logger.debug("Transformation folder '{}' does not exist, transformation files are not watched.", folder);
+			return;
+		}
+		try {
+			instance = new TransformationFolderWatcher(folder.toPath().toAbsolutePath().normalize());
+			instance.thread.start();
+			// files may have changed while nobody was watching
+			clearCaches();
+			logger.debug("Started watching transformation folder '{}'.", folder);
+		} catch (IOException e) {
+			logger.warn("Cannot watch transformation folder '{}', transformation files are checked on every access: {}",
+					folder, e.getMessage());
+			instance = null;
+		}
+	}
+
+	/**
+	 * Stops watching the transformation folder.
+	 */
+	public static synchronized void stop() {
+		if (instance == null) {
+			return;
+		}
+		instance.running = false;
+		try {
+			instance.watchService.close();
+		} catch (IOException e) {
+			logger.debug("Closing the watch service failed: {}", e.getMessage());
+		}
+		instance = null;
+	}
+
+	/**
+	 * @return <code>true</code>, if changes of the transformation files are reported by the watcher
+	 */
+	public static boolean isActive() {
+		TransformationFolderWatcher watcher = instance;
+		return watcher != null && watcher.running;
+	}
+
+	static void register(TransformationCache<?> cache) {
+		caches.add(cache);
+	}
+
+	private static void clearCaches() {
+		for (TransformationCache<?> cache : caches) {
+			cache.clear();
+		}
+	}
+
+	private void registerAll(Path folder) throws IOException {
+		Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void run() {
+		while (running) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException e) {
+				break;
+			} catch (ClosedWatchServiceException e) {
+				break;
+			}
+			Path dir = (Path) key.watchable();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					logger.debug("Lost events for transformation folder '{}', clearing all caches.", dir);
+					clearCaches();
+					continue;
+				}
+				Path file = dir.resolve((Path) event.context());
+				logger.trace("Transformation file '{}' has changed ({}).", file, event.kind());
+				if (event.kind() == ENTRY_CREATE && Files.isDirectory(file)) {
+					try {
+						registerAll(file);
+					} catch (IOException e) {
+						logger.warn("Cannot watch transformation folder '{}': {}", file, e.getMessage());
+					}
+				}
+				for (TransformationCache<?> cache : caches) {
+					cache.invalidate(file);
+				}
+			}
+			if (!key.reset()) {
+				logger.trace("Transformation folder '{}' is no longer watched.", dir);
+			}
+		}
+		running = false;
+	}
+
+}
@@ -8,11 +8,18 @@
  */
 package org.openhab.core.transform.internal.service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openhab.core.transform.MultiPathTransformationService;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.InvalidPathException;
 
@@ -25,7 +32,7 @@ import com.jayway.jsonpath.InvalidPathException;
  * @author Gaël L'hopital
  * @since 1.6.0
  */
-public class JSonPathTransformationService implements TransformationService {
+public class JSonPathTransformationService implements MultiPathTransformationService {
 
 	static final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
@@ -50,4 +57,37 @@ public class JSonPathTransformationService implements TransformationService {
 
 	}
 
+	/**
+	 * @{inheritDoc
+	 */
+	public Map<String, String> transform(Collection<String> JSonPathExpressions, String source) throws TransformationException {
+
+		if (JSonPathExpressions == null || source == null) {
+			throw new TransformationException("the given parameters 'JSonPath' and 'source' must not be null");
+		}
+
+		logger.debug("about to transform '{}' by {} functions", source, JSonPathExpressions.size());
+
+		DocumentContext document;
+		try {
+			document = JsonPath.parse(source);
+		} catch(InvalidJsonException e) {
+			throw new TransformationException("An error occured while parsing JSON source.", e);
+		}
+
+		Map<String, String> results = new LinkedHashMap<String, String>();
+		for (String JSonPathExpression : JSonPathExpressions) {
+			try {
+				Object transformationResult = document.read(JSonPathExpression);
+				results.put(JSonPathExpression, (transformationResult != null) ? transformationResult.toString() : null);
+			} catch(InvalidPathException e) {
+				logger.warn("Cannot evaluate JSON expression '{}': {}", JSonPathExpression, e.getMessage());
+			}
+		}
+
+		logger.debug("transformation resulted in '{}'", results);
+
+		return results;
+	}
+
 }
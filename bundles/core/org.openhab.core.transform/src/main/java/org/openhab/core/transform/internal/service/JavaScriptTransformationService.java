@@ -11,9 +11,20 @@ package org.openhab.core.transform.internal.service;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
@@ -23,6 +34,7 @@ import org.openhab.config.core.ConfigDispatcher;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.openhab.core.transform.internal.TransformationActivator;
+import org.openhab.core.transform.internal.TransformationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +42,13 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * input by Java Script.
  * 
+ * Script engines are expensive to create, so a small pool of engines is kept.
+ * Each engine is used by one transformation at a time and has its own cache of
+ * compiled scripts, which are invalidated when the script files change. This
+ * allows transformations to run concurrently. Every transformation is evaluated
+ * with fresh bindings, so that variables of one script do not leak into the
+ * next one.
+ * 
  * @author Pauli Anttila
  * @since 1.3.0
  */
@@ -37,6 +56,20 @@ public class JavaScriptTransformationService implements TransformationService {
 
 	static final Logger logger = 
 		LoggerFactory.getLogger(JavaScriptTransformationService.class);
+
+	/** the maximum number of script engines, and therefore of concurrent transformations */
+	private static final int MAX_ENGINES = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	private static final ScriptEngineManager manager = new ScriptEngineManager();
+
+	private static final BlockingQueue<PooledEngine> idleEngines = new LinkedBlockingQueue<PooledEngine>();
+	private static final List<PooledEngine> allEngines = new CopyOnWriteArrayList<PooledEngine>();
+	private static final AtomicInteger engineCount = new AtomicInteger();
+
+	private static final AtomicLong compileCount = new AtomicLong();
+	private static final AtomicLong evalCount = new AtomicLong();
+	private static final AtomicLong totalEvalTime = new AtomicLong();
+	private static final AtomicLong maxEvalTime = new AtomicLong();
 	
 	/**
 	 * Transforms the input <code>source</code> by Java Script. It expects the
@@ -60,37 +93,186 @@ public class JavaScriptTransformationService implements TransformationService {
 
 		logger.debug("about to transform '{}' by the Java Script '{}'", source, filename);
 
-		Reader reader;
+		String path = ConfigDispatcher.getConfigFolder() 
+			+ File.separator + TransformationActivator.TRANSFORM_FOLDER_NAME
+			+ File.separator + filename;
 
+		PooledEngine pooledEngine = borrowEngine();
 		try {
-			String path = ConfigDispatcher.getConfigFolder() 
-				+ File.separator + TransformationActivator.TRANSFORM_FOLDER_NAME
-				+ File.separator + filename;
-			reader = new InputStreamReader(new FileInputStream(path));
-		} catch (FileNotFoundException e) {
-			throw new TransformationException("An error occured while loading script.", e);
-		}
+			CompiledScript script = pooledEngine.scripts.get(path, pooledEngine);
 
-		ScriptEngineManager manager = new ScriptEngineManager();
-		
-		ScriptEngine engine = manager.getEngineByName("javascript");
-		engine.put("input", source);
+			long startTime = System.nanoTime();
+			Object result;
+			try {
+				Bindings bindings = pooledEngine.engine.createBindings();
+				bindings.put("input", source);
+				result = script.eval(bindings);
+			} catch (ScriptException e) {
+				throw new TransformationException("An error occured while executing script.", e);
+			}
+			long evalTime = System.nanoTime() - startTime;
+			recordEvalTime(evalTime);
 
-		Object result = null;
+			logger.trace("JavaScript execution elapsed {} ms", evalTime / 1000000);
 
-		long startTime = System.currentTimeMillis();
+			return String.valueOf(result);
+		} finally {
+			idleEngines.offer(pooledEngine);
+		}
+	}
 
+	/**
+	 * Returns an idle script engine, creates a new one if the pool is not full
+	 * yet or waits for an engine to become idle otherwise.
+	 */
+	private static PooledEngine borrowEngine() throws TransformationException {
+		PooledEngine pooledEngine = idleEngines.poll();
+		if (pooledEngine != null) {
+			return pooledEngine;
+		}
+		if (engineCount.incrementAndGet() <= MAX_ENGINES) {
+			ScriptEngine engine;
+			synchronized (manager) {
+				engine = manager.getEngineByName("javascript");
+			}
+			if (engine == null) {
+				engineCount.decrementAndGet();
+				throw new TransformationException("No Java Script engine is available.");
+			}
+			logger.debug("Created Java Script engine {} of {}", engineCount.get(), MAX_ENGINES);
+			pooledEngine = new PooledEngine(engine);
+			allEngines.add(pooledEngine);
+			return pooledEngine;
+		}
+		engineCount.decrementAndGet();
 		try {
-			result = engine.eval(reader);
-		} catch (ScriptException e) {
-			throw new TransformationException("An error occured while executing script.", e);
-		} finally {
-			IOUtils.closeQuietly(reader);
+			return idleEngines.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TransformationException("Interrupted while waiting for a Java Script engine.", e);
+		}
+	}
+
+	private static void recordEvalTime(long evalTime) {
+		evalCount.incrementAndGet();
+		totalEvalTime.addAndGet(evalTime);
+		long max = maxEvalTime.get();
+		while (evalTime > max && !maxEvalTime.compareAndSet(max, evalTime)) {
+			max = maxEvalTime.get();
+		}
+	}
+
+	/**
+	 * @return the number of times a script file has been compiled
+	 */
+	public long getCompileCount() {
+		return compileCount.get();
+	}
+
+	/**
+	 * @return the number of transformations which used an already compiled script
+	 */
+	public long getCacheHitCount() {
+		long hits = 0;
+		for (PooledEngine pooledEngine : allEngines) {
+			hits += pooledEngine.scripts.getHitCount();
+		}
+		return hits;
+	}
+
+	/**
+	 * @return the number of executed scripts
+	 */
+	public long getEvalCount() {
+		return evalCount.get();
+	}
+
+	/**
+	 * @return the average time in milliseconds it took to execute a script
+	 */
+	public double getAverageEvalTime() {
+		long count = evalCount.get();
+		return count > 0 ? totalEvalTime.get() / (count * 1000000.0) : 0.0;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds it took to execute a script
+	 */
+	public double getMaxEvalTime() {
+		return maxEvalTime.get() / 1000000.0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("JavaScriptTransformationService [engines=%d, compiled=%d, cacheHits=%d, evals=%d, "
+				+ "avgEval=%.2fms, maxEval=%.2fms]", allEngines.size(), getCompileCount(), getCacheHitCount(),
+				getEvalCount(), getAverageEvalTime(), getMaxEvalTime());
+	}
+
+	/**
+	 * A script engine of the pool together with the scripts it has compiled.
+	 */
+	private static class PooledEngine implements TransformationCache.Loader<CompiledScript> {
+
+		final ScriptEngine engine;
+		final TransformationCache<CompiledScript> scripts = 
+				new TransformationCache<CompiledScript>("javascript", TransformationCache.DEFAULT_MAX_SIZE, true);
+
+		PooledEngine(ScriptEngine engine) {
+			this.engine = engine;
+		}
+
+		public CompiledScript load(String path) throws TransformationException {
+			Reader reader;
+			try {
+				reader = new InputStreamReader(new FileInputStream(path));
+			} catch (FileNotFoundException e) {
+				throw new TransformationException("An error occured while loading script.", e);
+			}
+			try {
+				compileCount.incrementAndGet();
+				if (engine instanceof Compilable) {
+					return ((Compilable) engine).compile(reader);
+				} else {
+					return new SourceScript(engine, IOUtils.toString(reader));
+				}
+			} catch (ScriptException e) {
+				throw new TransformationException("An error occured while compiling script.", e);
+			} catch (IOException e) {
+				throw new TransformationException("An error occured while loading script.", e);
+			} finally {
+				IOUtils.closeQuietly(reader);
+			}
 		}
 
-		logger.trace("JavaScript execution elapsed {} ms", System.currentTimeMillis() - startTime);
+	}
+
+	/**
+	 * Evaluates the source of a script for engines which cannot compile scripts.
+	 */
+	private static class SourceScript extends CompiledScript {
+
+		private final ScriptEngine engine;
+		private final String source;
+
+		SourceScript(ScriptEngine engine, String source) {
+			this.engine = engine;
+			this.source = source;
+		}
+
+		@Override
+		public Object eval(ScriptContext context) throws ScriptException {
+			return engine.eval(source, context);
+		}
+
+		@Override
+		public ScriptEngine getEngine() {
+			return engine;
+		}
 
-		return String.valueOf(result);
 	}
 
 }
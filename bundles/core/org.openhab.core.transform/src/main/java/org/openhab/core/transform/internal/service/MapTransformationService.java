@@ -15,6 +15,7 @@ import java.util.Properties;
 import org.apache.commons.io.IOUtils;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.openhab.core.transform.internal.TransformationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +32,28 @@ public class MapTransformationService extends LocalizableTransformationService i
 
 	static final Logger logger = LoggerFactory.getLogger(MapTransformationService.class);
 
+	/** the parsed mapping files, keyed by their path */
+	private static final TransformationCache<Properties> cache = 
+			new TransformationCache<Properties>("map", TransformationCache.DEFAULT_MAX_SIZE, true);
+
+	private static final TransformationCache.Loader<Properties> loader = new TransformationCache.Loader<Properties>() {
+		public Properties load(String path) throws TransformationException {
+			Reader reader = null;
+			try {
+				Properties properties = new Properties();
+				reader = new FileReader(path);
+				properties.load(reader);
+				return properties;
+			} catch (IOException e) {
+				String message = "opening file '" + path + "' throws exception";
+				logger.error(message, e);
+				throw new TransformationException(message, e);
+			} finally {
+				IOUtils.closeQuietly(reader);
+			}
+		}
+	};
+
 	/**
 	 * <p>
 	 * Transforms the input <code>source</code> by mapping it to another string. It expects the mappings to be read from a file which
@@ -53,26 +76,15 @@ public class MapTransformationService extends LocalizableTransformationService i
 			throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
 		}
 		
-		String path = getLocalizedProposedFilename(filename);					
-		Reader reader = null;
-		try {						
-			Properties properties = new Properties();
-			reader = new FileReader(path);
-			properties.load(reader);
-			String target = properties.getProperty(source);
-			if (target!=null) {
-				logger.debug("transformation resulted in '{}'", target);
-				return target;
-			} else {
-				logger.warn("Could not find a mapping for '{}' in the file '{}'.", source, filename);
-				return "";
-			}
-		} catch (IOException e) {
-			String message = "opening file '" + filename + "' throws exception";
-			logger.error(message, e);
-			throw new TransformationException(message, e);
-		} finally {
-			IOUtils.closeQuietly(reader);
+		String path = getLocalizedProposedFilename(filename);
+		Properties properties = cache.get(path, loader);
+		String target = properties.getProperty(source);
+		if (target!=null) {
+			logger.debug("transformation resulted in '{}'", target);
+			return target;
+		} else {
+			logger.warn("Could not find a mapping for '{}' in the file '{}'.", source, filename);
+			return "";
 		}
 	}
 
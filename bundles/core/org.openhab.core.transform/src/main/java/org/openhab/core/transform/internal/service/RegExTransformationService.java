@@ -13,6 +13,7 @@ import java.util.regex.Pattern;
 
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.openhab.core.transform.internal.TransformationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +31,16 @@ public class RegExTransformationService implements TransformationService {
 
 	static final Logger logger = LoggerFactory.getLogger(RegExTransformationService.class);
 
+	/** the compiled patterns, keyed by their regular expression */
+	private static final TransformationCache<Pattern> cache = 
+			new TransformationCache<Pattern>("regex", TransformationCache.DEFAULT_MAX_SIZE, false);
+
+	private static final TransformationCache.Loader<Pattern> loader = new TransformationCache.Loader<Pattern>() {
+		public Pattern load(String regExpression) {
+			return Pattern.compile("^" + regExpression + "$", Pattern.DOTALL);
+		}
+	};
+
 	/**
 	 * @{inheritDoc
 	 */
@@ -43,7 +54,7 @@ public class RegExTransformationService implements TransformationService {
 
 		String result = source;
 
-		Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+		Matcher matcher = cache.get(regExpression, loader).matcher(source.trim());
 		if (!matcher.matches()) {
 			logger.debug("the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation", regExpression, source);
 			return result;
@@ -13,11 +13,14 @@ import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.openhab.core.transform.internal.TransformationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +38,20 @@ public class ScaleTransformationService extends LocalizableTransformationService
 	/** RegEx to extract a scale definition */
 	private static final Pattern limits_pattern = Pattern.compile("(\\[|\\])(.*)\\,(.*)(\\[|\\])\\=(.*)");
 
+	/** the parsed scale files, keyed by their path */
+	private static final TransformationCache<List<ScaleRange>> cache = 
+			new TransformationCache<List<ScaleRange>>("scale", TransformationCache.DEFAULT_MAX_SIZE, true);
+
+	private static final TransformationCache.Loader<List<ScaleRange>> loader = new TransformationCache.Loader<List<ScaleRange>>() {
+		public List<ScaleRange> load(String path) throws TransformationException {
+			try {
+				return parseScale(path);
+			} catch (IOException e) {
+				throw new TransformationException("An error occured while scaling value ", e);
+			}
+		}
+	};
+
 	/**
 	 * <p>
 	 * Transforms the input <code>source</code> by matching it to another string. It expects the scaling to be read from a file which
@@ -62,46 +79,79 @@ public class ScaleTransformationService extends LocalizableTransformationService
 
 	try{
 		double value = Double.parseDouble(source);
-		FileInputStream fstream = new FileInputStream(path);
-		DataInputStream in = new DataInputStream(fstream);
-		BufferedReader br = new BufferedReader(new InputStreamReader(in));
-
-		String strLine;
-		while ((strLine = br.readLine()) != null) {
-			Matcher matcher = limits_pattern.matcher(strLine);
-			if (matcher.matches() && (matcher.groupCount()==5)) {
-				double minLimit = Double.parseDouble(matcher.group(2));
-				double maxLimit = Double.parseDouble(matcher.group(3));
-
-				// a bit of a trick to include/exclude limits of the segment
-				if (matcher.group(1).equals("]"))
-					minLimit = minLimit + 0.0000000001;
-				if (matcher.group(1).equals("["))
-					minLimit = minLimit - 0.0000000001;
-				if (matcher.group(4).equals("]"))
-					maxLimit = maxLimit + 0.0000000001;
-				if (matcher.group(4).equals("["))
-					maxLimit = maxLimit - 0.0000000001;
-
-				if ((minLimit < value) && (value < maxLimit)) {
-					result = matcher.group(5);
-					break;
-				}
-			} 
+		for (ScaleRange range : cache.get(path, loader)) {
+			if ((range.minLimit < value) && (value < range.maxLimit)) {
+				result = range.value;
+				break;
+			}
 		}
-
-		in.close();
 	} catch (NumberFormatException e){
 		// If it's not a number let's try it like a classical map
 		// mainly for UnDefType value reason
 		MapTransformationService map = new MapTransformationService();
 		result = map.transform(filename, source);
-		
-	} catch (IOException e) {	
-		throw new TransformationException("An error occured while scaling value ", e);
 	}
 
 	return result;
 }
 
+	/**
+	 * Reads the ranges of a scale file in the order of their definition.
+	 */
+	private static List<ScaleRange> parseScale(String path) throws IOException {
+		List<ScaleRange> ranges = new ArrayList<ScaleRange>();
+		FileInputStream fstream = new FileInputStream(path);
+		DataInputStream in = new DataInputStream(fstream);
+		BufferedReader br = new BufferedReader(new InputStreamReader(in));
+		try {
+			String strLine;
+			while ((strLine = br.readLine()) != null) {
+				Matcher matcher = limits_pattern.matcher(strLine);
+				if (matcher.matches() && (matcher.groupCount()==5)) {
+					double minLimit;
+					double maxLimit;
+					try {
+						minLimit = Double.parseDouble(matcher.group(2));
+						maxLimit = Double.parseDouble(matcher.group(3));
+					} catch (NumberFormatException e) {
+						logger.warn("Ignoring invalid scale definition '{}' in file '{}'.", strLine, path);
+						continue;
+					}
+
+					// a bit of a trick to include/exclude limits of the segment
+					if (matcher.group(1).equals("]"))
+						minLimit = minLimit + 0.0000000001;
+					if (matcher.group(1).equals("["))
+						minLimit = minLimit - 0.0000000001;
+					if (matcher.group(4).equals("]"))
+						maxLimit = maxLimit + 0.0000000001;
+					if (matcher.group(4).equals("["))
+						maxLimit = maxLimit - 0.0000000001;
+
+					ranges.add(new ScaleRange(minLimit, maxLimit, matcher.group(5)));
+				}
+			}
+		} finally {
+			in.close();
+		}
+		return ranges;
+	}
+
+	/**
+	 * A range of a scale file and the value it is mapped to.
+	 */
+	private static class ScaleRange {
+
+		final double minLimit;
+		final double maxLimit;
+		final String value;
+
+		ScaleRange(double minLimit, double maxLimit, String value) {
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			this.value = value;
+		}
+
+	}
+
 }
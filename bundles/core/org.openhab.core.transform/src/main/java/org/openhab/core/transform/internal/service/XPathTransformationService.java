@@ -9,14 +9,20 @@
 package org.openhab.core.transform.internal.service;
 
 import java.io.StringReader;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import org.openhab.core.transform.MultiPathTransformationService;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.slf4j.Logger;
@@ -32,10 +38,32 @@ import org.xml.sax.InputSource;
  * @author Thomas.Eichstaedt-Engelen
  * @since 0.7.0
  */
-public class XPathTransformationService implements TransformationService {
+public class XPathTransformationService implements MultiPathTransformationService {
 
 	static final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+	/** document builders and XPath objects are not thread-safe, but can be reused by the same thread */
+	private static final ThreadLocal<DocumentBuilder> documentBuilder = new ThreadLocal<DocumentBuilder>() {
+		@Override
+		protected DocumentBuilder initialValue() {
+			try {
+				DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+				domFactory.setNamespaceAware(true);
+				domFactory.setValidating(false);
+				return domFactory.newDocumentBuilder();
+			} catch (ParserConfigurationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+
+	private static final ThreadLocal<XPath> xpath = new ThreadLocal<XPath>() {
+		@Override
+		protected XPath initialValue() {
+			return XPathFactory.newInstance().newXPath();
+		}
+	};
+
 	/**
 	 * @{inheritDoc
 	 */
@@ -47,22 +75,10 @@ public class XPathTransformationService implements TransformationService {
 
 		logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-		StringReader stringReader = null;
-
 		try {
-			DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-			domFactory.setNamespaceAware(true);
-			domFactory.setValidating(false);
-			DocumentBuilder builder = domFactory.newDocumentBuilder();
-
-			stringReader = new StringReader(source);
-			InputSource inputSource = new InputSource(stringReader);
-			inputSource.setEncoding("UTF-8");
-
-			Document doc = builder.parse(inputSource);
+			Document doc = parse(source);
 
-			XPath xpath = XPathFactory.newInstance().newXPath();
-			XPathExpression expr = xpath.compile(xpathExpression);
+			XPathExpression expr = xpath.get().compile(xpathExpression);
 
 			String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
 
@@ -71,12 +87,56 @@ public class XPathTransformationService implements TransformationService {
 			return transformationResult;
 		} catch (Exception e) {
 			throw new TransformationException("transformation throws exceptions", e);
-		} finally {
-			if (stringReader != null) {
-				stringReader.close();
+		}
+
+	}
+
+	/**
+	 * @{inheritDoc
+	 */
+	public Map<String, String> transform(Collection<String> xpathExpressions, String source) throws TransformationException {
+
+		if (xpathExpressions == null || source == null) {
+			throw new TransformationException("the given parameters 'xpath' and 'source' must not be null");
+		}
+
+		logger.debug("about to transform '{}' by {} functions", source, xpathExpressions.size());
+
+		Document doc;
+		try {
+			doc = parse(source);
+		} catch (Exception e) {
+			throw new TransformationException("transformation throws exceptions", e);
+		}
+
+		XPath xp = xpath.get();
+		Map<String, String> results = new LinkedHashMap<String, String>();
+		for (String xpathExpression : xpathExpressions) {
+			try {
+				XPathExpression expr = xp.compile(xpathExpression);
+				results.put(xpathExpression, (String) expr.evaluate(doc, XPathConstants.STRING));
+			} catch (XPathExpressionException e) {
+				logger.warn("Cannot evaluate XPath expression '{}': {}", xpathExpression, e.getMessage());
 			}
 		}
 
+		logger.debug("transformation resulted in '{}'", results);
+
+		return results;
+	}
+
+	private Document parse(String source) throws Exception {
+		StringReader stringReader = new StringReader(source);
+		try {
+			InputSource inputSource = new InputSource(stringReader);
+			inputSource.setEncoding("UTF-8");
+
+			DocumentBuilder builder = documentBuilder.get();
+			builder.reset();
+			return builder.parse(inputSource);
+		} finally {
+			stringReader.close();
+		}
 	}
 
 }
@@ -126,6 +126,18 @@ public abstract class AbstractActiveBinding<P extends BindingProvider> extends A
 	 * @return the name of the refresh thread.
 	 */
 	protected abstract String getName();
+
+	/**
+	 * Determines whether this binding is executed by the shared scheduler instead of
+	 * a refresh thread of its own. Bindings can opt in by overriding this method,
+	 * unless their execute method may block indefinitely.
+	 * 
+	 * @return <code>true</code>, if the shared scheduler should be used; <code>false</code> by default
+	 * @see org.openhab.core.service.ActiveServiceScheduler
+	 */
+	protected boolean isSharedSchedulerUsed() {
+		return false;
+	}
 	
 	
 	/** private inner class, which delegates method calls to the outer binding instance */
@@ -166,6 +178,11 @@ public abstract class AbstractActiveBinding<P extends BindingProvider> extends A
 			return AbstractActiveBinding.this.getName();
 		}
 
+		@Override
+		protected boolean isSharedSchedulerUsed() {
+			return AbstractActiveBinding.this.isSharedSchedulerUsed();
+		}
+
 	}
 	
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.openhab.core.events.AbstractEventSubscriber;
 import org.openhab.core.events.EventPublisher;
+import org.openhab.core.events.EventRouter;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 
@@ -32,6 +33,13 @@ public abstract class AbstractBinding<P extends BindingProvider> extends Abstrac
 	
 	protected EventPublisher eventPublisher = null;
 	
+	/** 
+	 * whether this binding only cares about the items of its providers, so that
+	 * it can drop the events of all other items through the {@link EventRouter}
+	 */
+	private final boolean routable = !overridesReceiveMethod("receiveCommand", Command.class)
+			&& !overridesReceiveMethod("receiveUpdate", State.class);
+	
 	
 	public void setEventPublisher(EventPublisher eventPublisher) {
 		this.eventPublisher = eventPublisher;
@@ -58,6 +66,9 @@ public abstract class AbstractBinding<P extends BindingProvider> extends Abstrac
 		this.providers.add((P) provider);
         provider.addBindingChangeListener(this);
         allBindingsChanged(provider);
+        if (routable) {
+        	EventRouter.getInstance().addBindingProvider(this, provider);
+        }
     }
 
 	/**
@@ -69,6 +80,7 @@ public abstract class AbstractBinding<P extends BindingProvider> extends Abstrac
 	public void removeBindingProvider(BindingProvider provider) {
 		this.providers.remove(provider);
 		provider.removeBindingChangeListener(this);
+		EventRouter.getInstance().removeBindingProvider(this, provider);
 	}
 	
 	
@@ -144,6 +156,23 @@ public abstract class AbstractBinding<P extends BindingProvider> extends Abstrac
 		return false;
 	}
 	
+	/**
+	 * Checks whether the concrete binding class overrides one of the public
+	 * receive methods. Such bindings might want to see events of items they do
+	 * not provide a binding for and thus are not routed by item name.
+	 * 
+	 * @param methodName the name of the receive method
+	 * @param typeClass the type of the second parameter of the receive method
+	 * @return <code>true</code> if the method is overridden by a subclass
+	 */
+	private boolean overridesReceiveMethod(String methodName, Class<?> typeClass) {
+		try {
+			return getClass().getMethod(methodName, String.class, typeClass).getDeclaringClass() != AbstractBinding.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -8,41 +8,36 @@
  */
 package org.openhab.core.events;
 
-import static org.openhab.core.events.EventConstants.TOPIC_PREFIX;
-import static org.openhab.core.events.EventConstants.TOPIC_SEPERATOR;
-
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
-import org.openhab.core.types.EventType;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
 abstract public class AbstractEventSubscriber implements EventSubscriber, EventHandler {
-	
+
 	/**
 	 * {@inheritDoc}
 	 */
-	public void handleEvent(Event event) {  
-		String itemName = (String) event.getProperty("item");
-		
-		String topic = event.getTopic();
-		String[] topicParts = topic.split(TOPIC_SEPERATOR);
-		
-		if(!(topicParts.length > 2) || !topicParts[0].equals(TOPIC_PREFIX)) {
-			return; // we have received an event with an invalid topic
+	public void handleEvent(Event event) {
+		if(!EventRouter.getInstance().accepts(this, (String) event.getProperty("item"))) {
+			return; // we do not have a binding for this item
 		}
-		String operation = topicParts[1];
-		
-		if(operation.equals(EventType.UPDATE.toString())) {
-			State newState = (State) event.getProperty("state");
-			if(newState!=null) receiveUpdate(itemName, newState);
+
+		ItemEvent itemEvent = ItemEvent.fromEvent(event);
+		if(itemEvent==null) {
+			return; // we have received an event with an invalid topic
 		}
-		if(operation.equals(EventType.COMMAND.toString())) {
-			Command command = (Command) event.getProperty("command");
-			if(command!=null) receiveCommand(itemName, command);
+
+		switch(itemEvent.getType()) {
+			case UPDATE:
+				receiveUpdate(itemEvent.getItemName(), itemEvent.getState());
+				break;
+			case COMMAND:
+				receiveCommand(itemEvent.getItemName(), itemEvent.getCommand());
+				break;
 		}
 	}
-	
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.events;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.openhab.core.binding.BindingChangeListener;
+import org.openhab.core.binding.BindingProvider;
+
+/**
+ * The EventRouter keeps a routing table from item names to the {@link EventSubscriber}s
+ * which are interested in events of these items. The table is built from the binding
+ * configurations of the {@link BindingProvider}s the subscribers are registered with and
+ * is kept up to date by listening to their binding changes.
+ *
+ * The events are still delivered to every subscriber by the EventAdmin. A subscriber
+ * which is registered with the router drops the events of all other items right away
+ * (see {@link #accepts(EventSubscriber, String)}), before the event is decoded.
+ * Subscribers which are not registered (like the rule engine or persistence) accept
+ * all events.
+ *
+ * @since 1.9.0
+ */
+public class EventRouter implements BindingChangeListener {
+
+	private static final EventRouter INSTANCE = new EventRouter();
+
+	/** the subscribers that have been registered for the binding configurations of a provider */
+	private final Map<BindingProvider, Set<EventSubscriber>> subscribersByProvider = new ConcurrentHashMap<BindingProvider, Set<EventSubscriber>>();
+
+	/** the routing table, which maps item names to the subscribers interested in them */
+	private volatile Map<String, Set<EventSubscriber>> routes = new ConcurrentHashMap<String, Set<EventSubscriber>>();
+
+	/** all subscribers which are currently registered for at least one binding provider */
+	private final Set<EventSubscriber> routedSubscribers = Collections.newSetFromMap(new ConcurrentHashMap<EventSubscriber, Boolean>());
+
+	/**
+	 * @return the router instance that is shared by all subscribers of the event bus
+	 */
+	public static EventRouter getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Checks whether the given subscriber is interested in the events of an item.
+	 *
+	 * @param subscriber the subscriber to check
+	 * @param itemName the name of the item of the event, may be <code>null</code>
+	 * @return <code>true</code>, if the subscriber is not registered with the router
+	 *         or if it is registered for the item
+	 */
+	public boolean accepts(EventSubscriber subscriber, String itemName) {
+		if (!routedSubscribers.contains(subscriber)) {
+			return true;
+		}
+		return itemName != null && getSubscribers(itemName).contains(subscriber);
+	}
+
+	/**
+	 * Registers <code>subscriber</code> for all items that <code>provider</code>
+	 * provides a binding for.
+	 *
+	 * @param subscriber the subscriber to route the events to
+	 * @param provider the binding provider whose items are of interest
+	 */
+	public synchronized void addBindingProvider(EventSubscriber subscriber, BindingProvider provider) {
+		Set<EventSubscriber> subscribers = subscribersByProvider.get(provider);
+		if (subscribers == null) {
+			subscribers = new CopyOnWriteArraySet<EventSubscriber>();
+			subscribersByProvider.put(provider, subscribers);
+			provider.addBindingChangeListener(this);
+		}
+		subscribers.add(subscriber);
+		routedSubscribers.add(subscriber);
+		rebuildRoutes();
+	}
+
+	/**
+	 * Removes the registration of <code>subscriber</code> for the items of
+	 * <code>provider</code>.
+	 *
+	 * @param subscriber the subscriber to remove
+	 * @param provider the binding provider to remove the subscriber from
+	 */
+	public synchronized void removeBindingProvider(EventSubscriber subscriber, BindingProvider provider) {
+		Set<EventSubscriber> subscribers = subscribersByProvider.get(provider);
+		if (subscribers != null) {
+			subscribers.remove(subscriber);
+			if (subscribers.isEmpty()) {
+				subscribersByProvider.remove(provider);
+				provider.removeBindingChangeListener(this);
+			}
+			if (!isRegisteredForAnyProvider(subscriber)) {
+				routedSubscribers.remove(subscriber);
+			}
+			rebuildRoutes();
+		}
+	}
+
+	private boolean isRegisteredForAnyProvider(EventSubscriber subscriber) {
+		for (Set<EventSubscriber> subscribers : subscribersByProvider.values()) {
+			if (subscribers.contains(subscriber)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns all registered subscribers which are interested in events of the
+	 * given item, not including the subscribers which accept all events.
+	 *
+	 * @param itemName the name of the item
+	 * @return the routed subscribers, never <code>null</code>
+	 */
+	public Set<EventSubscriber> getSubscribers(String itemName) {
+		Set<EventSubscriber> subscribers = routes.get(itemName);
+		return subscribers != null ? subscribers : Collections.<EventSubscriber>emptySet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized void bindingChanged(BindingProvider provider, String itemName) {
+		Set<EventSubscriber> subscribers = new HashSet<EventSubscriber>();
+		for (Map.Entry<BindingProvider, Set<EventSubscriber>> entry : subscribersByProvider.entrySet()) {
+			if (entry.getKey().providesBindingFor(itemName)) {
+				subscribers.addAll(entry.getValue());
+			}
+		}
+		if (subscribers.isEmpty()) {
+			routes.remove(itemName);
+		} else {
+			routes.put(itemName, Collections.unmodifiableSet(subscribers));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized void allBindingsChanged(BindingProvider provider) {
+		rebuildRoutes();
+	}
+
+	/**
+	 * Recalculates the complete routing table from the item names of all known
+	 * binding providers. The new table replaces the old one at once, so that
+	 * dispatching never sees a partially built table.
+	 */
+	private void rebuildRoutes() {
+		Map<String, Set<EventSubscriber>> collectedRoutes = new HashMap<String, Set<EventSubscriber>>();
+		for (Map.Entry<BindingProvider, Set<EventSubscriber>> entry : subscribersByProvider.entrySet()) {
+			Collection<String> itemNames = entry.getKey().getItemNames();
+			if (itemNames == null) {
+				continue;
+			}
+			for (String itemName : itemNames) {
+				Set<EventSubscriber> subscribers = collectedRoutes.get(itemName);
+				if (subscribers == null) {
+					subscribers = new HashSet<EventSubscriber>();
+					collectedRoutes.put(itemName, subscribers);
+				}
+				subscribers.addAll(entry.getValue());
+			}
+		}
+		Map<String, Set<EventSubscriber>> newRoutes = new ConcurrentHashMap<String, Set<EventSubscriber>>();
+		for (Map.Entry<String, Set<EventSubscriber>> entry : collectedRoutes.entrySet()) {
+			newRoutes.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+		}
+		routes = newRoutes;
+	}
+
+}
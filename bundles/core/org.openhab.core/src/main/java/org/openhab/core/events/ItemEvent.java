@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.events;
+
+import static org.openhab.core.events.EventConstants.TOPIC_PREFIX;
+import static org.openhab.core.events.EventConstants.TOPIC_SEPERATOR;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openhab.core.types.Command;
+import org.openhab.core.types.EventType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.Type;
+import org.osgi.service.event.Event;
+
+/**
+ * An ItemEvent is the typed representation of a command or status update on
+ * the openHAB event bus. It is attached to every OSGi {@link Event} sent by the
+ * {@link EventPublisher} under the {@link #PROPERTY} key, so that subscribers
+ * can read the event type, item name and payload directly instead of parsing
+ * the event topic.
+ * 
+ * Events which have been sent by other means than the EventPublisher do not
+ * carry an ItemEvent; for those {@link #fromEvent(Event)} falls back to the
+ * topic and the "item", "state" and "command" properties.
+ * 
+ * @since 1.9.0
+ */
+public final class ItemEvent {
+
+	/** the name of the event property that holds the ItemEvent */
+	public static final String PROPERTY = "itemEvent";
+
+	private static final String UPDATE_TOPIC_PREFIX = TOPIC_PREFIX + TOPIC_SEPERATOR + EventType.UPDATE + TOPIC_SEPERATOR;
+
+	private static final String COMMAND_TOPIC_PREFIX = TOPIC_PREFIX + TOPIC_SEPERATOR + EventType.COMMAND + TOPIC_SEPERATOR;
+
+	/** caches the topics of update events by item name */
+	private static final ConcurrentMap<String, String> updateTopics = new ConcurrentHashMap<String, String>();
+
+	/** caches the topics of command events by item name */
+	private static final ConcurrentMap<String, String> commandTopics = new ConcurrentHashMap<String, String>();
+
+	private final EventType type;
+
+	private final String itemName;
+
+	private final Type payload;
+
+	private ItemEvent(EventType type, String itemName, Type payload) {
+		this.type = type;
+		this.itemName = itemName;
+		this.payload = payload;
+	}
+
+	/**
+	 * Creates an event for a status update.
+	 * 
+	 * @param itemName the name of the updated item
+	 * @param state the new state of the item
+	 * @return the update event
+	 */
+	public static ItemEvent createUpdate(String itemName, State state) {
+		return new ItemEvent(EventType.UPDATE, itemName, state);
+	}
+
+	/**
+	 * Creates an event for a command.
+	 * 
+	 * @param itemName the name of the item the command is sent to
+	 * @param command the command
+	 * @return the command event
+	 */
+	public static ItemEvent createCommand(String itemName, Command command) {
+		return new ItemEvent(EventType.COMMAND, itemName, command);
+	}
+
+	/**
+	 * Extracts the ItemEvent from an OSGi event. If the event does not carry
+	 * one, it is reconstructed from the event topic and properties.
+	 * 
+	 * @param event the OSGi event
+	 * @return the item event or <code>null</code>, if the event is not a valid
+	 *         openHAB command or status update
+	 */
+	public static ItemEvent fromEvent(Event event) {
+		Object property = event.getProperty(PROPERTY);
+		if (property instanceof ItemEvent) {
+			return (ItemEvent) property;
+		}
+
+		String itemName = (String) event.getProperty("item");
+		String topic = event.getTopic();
+		if (itemName == null || topic == null) {
+			return null;
+		}
+		if (topic.startsWith(UPDATE_TOPIC_PREFIX)) {
+			State state = (State) event.getProperty("state");
+			return state != null ? createUpdate(itemName, state) : null;
+		}
+		if (topic.startsWith(COMMAND_TOPIC_PREFIX)) {
+			Command command = (Command) event.getProperty("command");
+			return command != null ? createCommand(itemName, command) : null;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the topic for events of the given type and item. Topics are
+	 * cached, so that they are only built once per item.
+	 * 
+	 * @param type the event type
+	 * @param itemName the name of the item
+	 * @return the event topic
+	 */
+	public static String getTopic(EventType type, String itemName) {
+		ConcurrentMap<String, String> topics = type == EventType.UPDATE ? updateTopics : commandTopics;
+		String topic = topics.get(itemName);
+		if (topic == null) {
+			topic = (type == EventType.UPDATE ? UPDATE_TOPIC_PREFIX : COMMAND_TOPIC_PREFIX) + itemName;
+			topics.put(itemName, topic);
+		}
+		return topic;
+	}
+
+	/**
+	 * @return whether this is a command or a status update
+	 */
+	public EventType getType() {
+		return type;
+	}
+
+	/**
+	 * @return the name of the item this event refers to
+	 */
+	public String getItemName() {
+		return itemName;
+	}
+
+	/**
+	 * @return the new state, if this is a status update, <code>null</code> otherwise
+	 */
+	public State getState() {
+		return type == EventType.UPDATE ? (State) payload : null;
+	}
+
+	/**
+	 * @return the command, if this is a command event, <code>null</code> otherwise
+	 */
+	public Command getCommand() {
+		return type == EventType.COMMAND ? (Command) payload : null;
+	}
+
+	/**
+	 * @return the topic under which this event is sent on the bus
+	 */
+	public String getTopic() {
+		return getTopic(type, itemName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return itemName + " received " + type + " " + payload;
+	}
+
+}
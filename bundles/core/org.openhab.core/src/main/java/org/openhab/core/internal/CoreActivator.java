@@ -19,6 +19,7 @@ import java.util.logging.Handler;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.openhab.core.service.ActiveServiceScheduler;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
@@ -74,6 +75,7 @@ public class CoreActivator implements BundleActivator {
 	 * @see org.osgi.framework.BundleActivator#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		ActiveServiceScheduler.shutdown();
 		logger.info("openHAB runtime has been terminated.");
 	}
 	
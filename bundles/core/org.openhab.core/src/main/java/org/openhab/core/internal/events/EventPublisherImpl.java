@@ -8,15 +8,12 @@
  */
 package org.openhab.core.internal.events;
 
-import static org.openhab.core.events.EventConstants.TOPIC_PREFIX;
-import static org.openhab.core.events.EventConstants.TOPIC_SEPERATOR;
-
 import java.util.Dictionary;
 import java.util.Hashtable;
 
 import org.openhab.core.events.EventPublisher;
+import org.openhab.core.events.ItemEvent;
 import org.openhab.core.types.Command;
-import org.openhab.core.types.EventType;
 import org.openhab.core.types.State;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
@@ -82,22 +79,20 @@ public class EventPublisherImpl implements EventPublisher {
 	}
 	
 	private Event createUpdateEvent(String itemName, State newState) {
-		Dictionary<String, Object> properties = new Hashtable<String, Object>();
-		properties.put("item", itemName);
-		properties.put("state", newState);
-		return new Event(createTopic(EventType.UPDATE, itemName), properties);
+		return createEvent(ItemEvent.createUpdate(itemName, newState), "state", newState);
 	}
 
 	private Event createCommandEvent(String itemName, Command command) {
-		Dictionary<String, Object> properties = new Hashtable<String, Object>();
-		properties.put("item", itemName);
-		properties.put("command", command);
-		return new Event(createTopic(EventType.COMMAND, itemName) , properties);
+		return createEvent(ItemEvent.createCommand(itemName, command), "command", command);
 	}
 
-	private String createTopic(EventType type, String itemName) {
-		return TOPIC_PREFIX + TOPIC_SEPERATOR + type + TOPIC_SEPERATOR + itemName;
+	private Event createEvent(ItemEvent itemEvent, String payloadProperty, Object payload) {
+		// the plain properties are kept for subscribers which do not know about ItemEvents
+		Dictionary<String, Object> properties = new Hashtable<String, Object>(4);
+		properties.put("item", itemEvent.getItemName());
+		properties.put(payloadProperty, payload);
+		properties.put(ItemEvent.PROPERTY, itemEvent);
+		return new Event(itemEvent.getTopic(), properties);
 	}
 	
-	
 }
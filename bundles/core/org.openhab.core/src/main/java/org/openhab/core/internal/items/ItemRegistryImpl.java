@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -50,6 +51,12 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 	/** this is our local map in which we store all our items */
 	protected Map<ItemProvider, Collection<Item>> itemMap = new ConcurrentHashMap<ItemProvider, Collection<Item>>();
 	
+	/** index of all registered items by their name, kept in sync with {@link #itemMap} */
+	protected ConcurrentMap<String, Item> itemsByName = new ConcurrentHashMap<String, Item>();
+	
+	/** index of all registered items by the names of the groups they declare membership of */
+	protected ConcurrentMap<String, Collection<Item>> itemsByGroupName = new ConcurrentHashMap<String, Collection<Item>>();
+	
 	/** to keep track of all item change listeners */
 	protected Collection<ItemRegistryChangeListener> listeners = new CopyOnWriteArraySet<ItemRegistryChangeListener>();
 
@@ -63,6 +70,8 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 		}
 		// then release all items
 		itemMap.clear();
+		itemsByName.clear();
+		itemsByGroupName.clear();
     }
 
 	/* (non-Javadoc)
@@ -70,14 +79,11 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 	 */
     @Override
 	public Item getItem(String name) throws ItemNotFoundException {
-		for(Collection<Item> items : itemMap.values()) {
-			for(Item item : items) {
-				if(item.getName().equals(name)) {
-					return item;
-				}
-			}
+		Item item = name != null ? itemsByName.get(name) : null;
+		if(item == null) {
+			throw new ItemNotFoundException(name);
 		}
-		throw new ItemNotFoundException(name);
+		return item;
 	}
 
 	/* (non-Javadoc)
@@ -149,6 +155,7 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 			allItemsChanged(itemProvider, null);
 
 			for(Item item : itemMap.get(itemProvider)) {
+				unindexItem(item);
 				if(item instanceof GenericItem) {
 					((GenericItem) item).dispose();
 				}
@@ -189,6 +196,17 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 			}
 		}
 
+		// the items of this provider are about to be replaced, so drop them from the indexes
+		Collection<Item> previousItems = itemMap.get(provider);
+		if(previousItems!=null) {
+			for(Item previousItem : previousItems) {
+				detachItem(previousItem);
+			}
+			for(Item previousItem : previousItems) {
+				unindexItem(previousItem);
+			}
+		}
+
 		Collection<Item> items = new CopyOnWriteArrayList<Item>();
     	itemMap.put(provider, items);
 		for(Item item : provider.getItems()) {
@@ -225,6 +243,11 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 		if(items!=null) {
 			items.remove(item);
 		}
+		detachItem(item);
+		unindexItem(item);
+		if(item instanceof GenericItem) {
+			((GenericItem) item).dispose();
+		}
 		for(ItemRegistryChangeListener listener : listeners) {
 			listener.itemRemoved(item);
 		}
@@ -258,23 +281,22 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 			
 			if(item instanceof GroupItem) {
 				// fill group with its members 
-				for(Item i : getItems()) {
-					if(i.getGroupNames().contains(item.getName())) {
+				Collection<Item> members = itemsByGroupName.get(item.getName());
+				if(members!=null) {
+					for(Item i : members) {
 						((GroupItem)item).addMember(i);
 					}
 				}
 			}
 			// add the item to all relevant groups
 			for(String groupName : item.getGroupNames()) {
-				try {
-					Item groupItem = getItem(groupName);
-					if(groupItem instanceof GroupItem) {
-						((GroupItem)groupItem).addMember(item);
-					}
-				} catch (ItemNotFoundException e) {
-					// the group might not yet be registered, let's ignore this
+				Item groupItem = itemsByName.get(groupName);
+				if(groupItem instanceof GroupItem) {
+					((GroupItem)groupItem).addMember(item);
 				}
+				// if the group is not yet registered, it will pick the item up from the index later on
 			}
+			indexItem(item);
 			return true;
 		} else {
 			logger.warn("Ignoring item '{}' as it does not comply with" +
@@ -282,4 +304,63 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 			return false;
 		}
 	}
+
+	/**
+	 * Adds the given item to the name and group membership indexes.
+	 * 
+	 * @param item the item to index
+	 */
+	private void indexItem(Item item) {
+		itemsByName.put(item.getName(), item);
+		for(String groupName : item.getGroupNames()) {
+			Collection<Item> members = itemsByGroupName.get(groupName);
+			if(members==null) {
+				members = new CopyOnWriteArraySet<Item>();
+				Collection<Item> existingMembers = itemsByGroupName.putIfAbsent(groupName, members);
+				if(existingMembers!=null) {
+					members = existingMembers;
+				}
+			}
+			members.add(item);
+		}
+	}
+	
+	/**
+	 * Removes the given item from the members of its groups and, if it is a
+	 * group itself, removes all its members, so that no group keeps listening
+	 * to an item which is no longer registered.
+	 * 
+	 * @param item the item to detach
+	 */
+	private void detachItem(Item item) {
+		for(String groupName : item.getGroupNames()) {
+			Item groupItem = itemsByName.get(groupName);
+			if(groupItem instanceof GroupItem) {
+				((GroupItem)groupItem).removeMember(item);
+			}
+		}
+		if(item instanceof GroupItem) {
+			GroupItem groupItem = (GroupItem) item;
+			for(Item member : groupItem.getMembers()) {
+				groupItem.removeMember(member);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given item from the name and group membership indexes. The
+	 * name entry is only removed if it still refers to this very item instance,
+	 * so that an item of the same name from another provider is not lost.
+	 * 
+	 * @param item the item to remove from the indexes
+	 */
+	private void unindexItem(Item item) {
+		itemsByName.remove(item.getName(), item);
+		for(String groupName : item.getGroupNames()) {
+			Collection<Item> members = itemsByGroupName.get(groupName);
+			if(members!=null) {
+				members.remove(item);
+			}
+		}
+	}
 }
@@ -8,6 +8,10 @@
  */
 package org.openhab.core.internal.items;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.openhab.core.events.AbstractEventSubscriber;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.GroupItem;
@@ -33,6 +37,9 @@ public class ItemUpdater extends AbstractEventSubscriber {
 	
 	protected ItemRegistry itemRegistry;
 	
+	/** caches per item class which state classes are accepted by the items of this class */
+	private final ConcurrentMap<Class<?>, AcceptedStates> acceptedStatesCache = new ConcurrentHashMap<Class<?>, AcceptedStates>();
+	
 	public void setItemRegistry(ItemRegistry itemRegistry) {
 		this.itemRegistry = itemRegistry;
 	}
@@ -49,25 +56,7 @@ public class ItemUpdater extends AbstractEventSubscriber {
 		if (itemRegistry != null) {
 			try {
 				GenericItem item = (GenericItem) itemRegistry.getItem(itemName);
-				boolean isAccepted = false;
-				if (item.getAcceptedDataTypes().contains(newStatus.getClass())) {
-					isAccepted = true;
-				} else {
-					// Look for class hierarchy
-					for (Class<? extends State> state : item.getAcceptedDataTypes()) {
-						try {
-							if (!state.isEnum() && state.newInstance().getClass().isAssignableFrom(newStatus.getClass())) {
-								isAccepted = true;
-								break;
-							}
-						} catch (InstantiationException e) {
-							logger.warn("InstantiationException on {}", e.getMessage()); // Should never happen
-						} catch (IllegalAccessException e) {
-							logger.warn("IllegalAccessException on {}", e.getMessage()); // Should never happen
-						}
-					}
-				}				
-				if (isAccepted) {
+				if (isAccepted(item, newStatus)) {
 					item.setState(newStatus);
 				} else {
 					logger.debug("Received update of a not accepted type ("	+ newStatus.getClass().getSimpleName() + ") for item " + itemName);
@@ -78,6 +67,42 @@ public class ItemUpdater extends AbstractEventSubscriber {
 		}
 	}
 	
+	/**
+	 * Checks whether the given state is accepted by the item. For all items but groups,
+	 * the result is cached per item class and state class, as long as the items of a
+	 * class return the same list of accepted data types.
+	 * 
+	 * @param item the item to be updated
+	 * @param state the new state of the item
+	 * @return <code>true</code>, if the state is accepted by the item
+	 */
+	protected boolean isAccepted(GenericItem item, State state) {
+		List<Class<? extends State>> acceptedDataTypes = item.getAcceptedDataTypes();
+		if (item instanceof GroupItem) {
+			// the accepted types of a group depend on its members
+			return isAccepted(acceptedDataTypes, state.getClass());
+		}
+		AcceptedStates acceptedStates = acceptedStatesCache.get(item.getClass());
+		if (acceptedStates == null || acceptedStates.acceptedDataTypes != acceptedDataTypes) {
+			acceptedStates = new AcceptedStates(acceptedDataTypes);
+			acceptedStatesCache.put(item.getClass(), acceptedStates);
+		}
+		return acceptedStates.isAccepted(state.getClass());
+	}
+	
+	private static boolean isAccepted(List<Class<? extends State>> acceptedDataTypes, Class<? extends State> stateClass) {
+		if (acceptedDataTypes.contains(stateClass)) {
+			return true;
+		}
+		// Look for class hierarchy
+		for (Class<? extends State> acceptedDataType : acceptedDataTypes) {
+			if (!acceptedDataType.isEnum() && acceptedDataType.isAssignableFrom(stateClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -96,5 +121,29 @@ public class ItemUpdater extends AbstractEventSubscriber {
 			}
 		}
 	}
+	
+	/**
+	 * The state classes which have been checked against a list of accepted data types.
+	 */
+	private static class AcceptedStates {
+		
+		final List<Class<? extends State>> acceptedDataTypes;
+		
+		final ConcurrentMap<Class<? extends State>, Boolean> acceptedStates = new ConcurrentHashMap<Class<? extends State>, Boolean>();
+		
+		AcceptedStates(List<Class<? extends State>> acceptedDataTypes) {
+			this.acceptedDataTypes = acceptedDataTypes;
+		}
+		
+		boolean isAccepted(Class<? extends State> stateClass) {
+			Boolean accepted = acceptedStates.get(stateClass);
+			if (accepted == null) {
+				accepted = ItemUpdater.isAccepted(acceptedDataTypes, stateClass);
+				acceptedStates.put(stateClass, accepted);
+			}
+			return accepted;
+		}
+		
+	}
 
 }
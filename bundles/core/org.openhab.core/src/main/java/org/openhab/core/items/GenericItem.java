@@ -8,12 +8,10 @@
  */
 package org.openhab.core.items;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.WeakHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.openhab.core.events.EventPublisher;
 import org.openhab.core.types.Command;
@@ -31,9 +29,19 @@ import org.openhab.core.types.UnDefType;
  */
 abstract public class GenericItem implements Item {
 	
+	private static final ListenerReference[] NO_LISTENERS = new ListenerReference[0];
+	
 	protected EventPublisher eventPublisher;
 
-	protected Set<StateChangeListener> listeners = new CopyOnWriteArraySet<StateChangeListener>(Collections.newSetFromMap(new WeakHashMap<StateChangeListener, Boolean>()));
+	/**
+	 * The listeners are only weakly referenced, so that an item does not keep them from
+	 * being garbage collected. The array is never modified, but replaced as a whole
+	 * whenever a listener is added or removed, so that notifications iterate it without
+	 * locking or copying.
+	 */
+	private volatile ListenerReference[] listeners = NO_LISTENERS;
+	
+	private final Object listenersLock = new Object();
 	
 	protected List<String> groupNames = new ArrayList<String>();
 	
@@ -101,17 +109,28 @@ abstract public class GenericItem implements Item {
 	}
 
 	private void notifyListeners(State oldState, State newState) {
+		ListenerReference[] currentListeners = listeners;
+		boolean collected = false;
 		// if nothing has changed, we send update notifications
-		Set<StateChangeListener> clonedListeners = null;
-		clonedListeners = new CopyOnWriteArraySet<StateChangeListener>(listeners);
-		for(StateChangeListener listener : clonedListeners) {
-			listener.stateUpdated(this, newState);
+		for(ListenerReference reference : currentListeners) {
+			StateChangeListener listener = reference.get();
+			if(listener!=null) {
+				listener.stateUpdated(this, newState);
+			} else {
+				collected = true;
+			}
 		}
 		if(!oldState.equals(newState)) {
-			for(StateChangeListener listener : clonedListeners) {
-				listener.stateChanged(this, oldState, newState);
+			for(ListenerReference reference : currentListeners) {
+				StateChangeListener listener = reference.get();
+				if(listener!=null) {
+					listener.stateChanged(this, oldState, newState);
+				}
 			}
 		}
+		if(collected) {
+			removeStateChangeListener(null);
+		}
 	}
 		
 	/**
@@ -125,17 +144,57 @@ abstract public class GenericItem implements Item {
 	}
 
 	public void addStateChangeListener(StateChangeListener listener) {
-		synchronized(listeners) {
-			listeners.add(listener);
+		synchronized(listenersLock) {
+			ListenerReference[] currentListeners = removeListener(null);
+			for(ListenerReference reference : currentListeners) {
+				if(reference.get()==listener) {
+					listeners = currentListeners;
+					return;
+				}
+			}
+			ListenerReference[] newListeners = Arrays.copyOf(currentListeners, currentListeners.length + 1);
+			newListeners[currentListeners.length] = new ListenerReference(listener);
+			listeners = newListeners;
 		}
 	}
 	
 	public void removeStateChangeListener(StateChangeListener listener) {
-		synchronized(listeners) {
-			listeners.remove(listener);
+		synchronized(listenersLock) {
+			listeners = removeListener(listener);
 		}
 	}
 	
+	/**
+	 * Returns the current listeners without the given and all garbage collected listeners.
+	 * Must be called while holding the listeners lock.
+	 * 
+	 * @param listener the listener to remove, may be <code>null</code>
+	 * @return the remaining listeners
+	 */
+	private ListenerReference[] removeListener(StateChangeListener listener) {
+		ListenerReference[] currentListeners = listeners;
+		ListenerReference[] newListeners = new ListenerReference[currentListeners.length];
+		int size = 0;
+		for(ListenerReference reference : currentListeners) {
+			StateChangeListener currentListener = reference.get();
+			if(currentListener!=null && currentListener!=listener) {
+				newListeners[size++] = reference;
+			}
+		}
+		if(size==currentListeners.length) {
+			return currentListeners;
+		}
+		return size==0 ? NO_LISTENERS : Arrays.copyOf(newListeners, size);
+	}
+	
+
+	private static final class ListenerReference extends WeakReference<StateChangeListener> {
+		
+		ListenerReference(StateChangeListener listener) {
+			super(listener);
+		}
+		
+	}
 
 	@Override
 	public int hashCode() {
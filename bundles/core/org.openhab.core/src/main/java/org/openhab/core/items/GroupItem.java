@@ -9,10 +9,16 @@
 package org.openhab.core.items;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.ListUtils;
 import org.openhab.core.types.Command;
@@ -20,15 +26,54 @@ import org.openhab.core.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A group item calculates its state out of the states of its members by its
+ * {@link GroupFunction}. If the function is an {@link IncrementalGroupFunction},
+ * an update of a member only replaces the contribution of this member instead
+ * of iterating all members.
+ * 
+ * The group state can also be recalculated at most once per interval, which
+ * is set by {@link #setRecalculationInterval(long)} or for all groups by the
+ * system property <code>openhab.group.recalculationinterval</code> (in
+ * milliseconds). By default, the group state is recalculated on every update
+ * of a member.
+ */
 public class GroupItem extends GenericItem implements StateChangeListener {
 	
 	private static final Logger logger = LoggerFactory.getLogger(GroupItem.class);
 	
+	/** the system property for the default recalculation interval in milliseconds */
+	public static final String RECALCULATION_INTERVAL_PROPERTY = "openhab.group.recalculationinterval";
+	
 	protected final GenericItem baseItem;
 	
 	protected final List<Item> members;
 	
 	protected GroupFunction function;
+	
+	/** the aggregator of an incremental function, rebuilt when members or the function change */
+	private IncrementalGroupFunction.Aggregator<?> aggregator;
+	
+	private GroupFunction aggregatorFunction;
+	
+	private volatile long recalculationInterval = Long.getLong(RECALCULATION_INTERVAL_PROPERTY, 0);
+	
+	private final Object recalculationLock = new Object();
+	
+	private boolean recalculationPending = false;
+	
+	private long lastRecalculation = 0;
+	
+	/**
+	 * counts the membership changes of all groups; as the accepted types of a group depend
+	 * on the accepted types of its (possibly nested) member groups, the cached accepted types
+	 * of all groups are invalidated by any membership change
+	 */
+	private static final AtomicLong membershipVersion = new AtomicLong();
+	
+	private volatile AcceptedTypes<State> acceptedDataTypes;
+	
+	private volatile AcceptedTypes<Command> acceptedCommandTypes;
 
 	public GroupItem(String name) {
 		this(name, null);
@@ -92,6 +137,8 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
 	public void addMember(Item item) {
 		members.add(item);
+		invalidateAggregator();
+		membershipVersion.incrementAndGet();
 		if (item instanceof GenericItem) {
 			GenericItem genericItem = (GenericItem) item;
 			genericItem.addStateChangeListener(this);
@@ -100,16 +147,40 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 	
 	public void removeMember(Item item) {
 		members.remove(item);
+		invalidateAggregator();
+		membershipVersion.incrementAndGet();
 		if (item instanceof GenericItem) {
 			GenericItem genericItem = (GenericItem) item;
 			genericItem.removeStateChangeListener(this);
 		}
 	}
 	
+	/**
+	 * Returns the interval in which the group state is recalculated at most once.
+	 * 
+	 * @return the interval in milliseconds, 0 if the group state is recalculated on every update
+	 */
+	public long getRecalculationInterval() {
+		return recalculationInterval;
+	}
+	
+	/**
+	 * Sets the interval in which the group state is recalculated at most once.
+	 * Updates of members within the interval are coalesced into a single
+	 * recalculation at its end.
+	 * 
+	 * @param recalculationInterval the interval in milliseconds, 0 to recalculate
+	 *            the group state on every update of a member
+	 */
+	public void setRecalculationInterval(long recalculationInterval) {
+		this.recalculationInterval = recalculationInterval;
+	}
+	
 	/** 
 	 * The accepted data types of a group item is the same as of the underlying base item.
 	 * If none is defined, the intersection of all sets of accepted data types of all group
-	 * members is used instead.
+	 * members is used instead. The intersection is cached until the members of any group
+	 * change.
 	 * 
 	 * @return the accepted data types of this group item
 	 */
@@ -118,6 +189,11 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 		if(baseItem!=null) {
 			return baseItem.getAcceptedDataTypes();
 		} else {
+			long version = membershipVersion.get();
+			AcceptedTypes<State> cached = acceptedDataTypes;
+			if(cached!=null && cached.version==version) {
+				return cached.types;
+			}
 			List<Class<? extends State>> acceptedDataTypes = null;
 			
 			for(Item item : members) {
@@ -127,14 +203,17 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 					acceptedDataTypes = ListUtils.intersection(acceptedDataTypes, item.getAcceptedDataTypes());
 				}
 			}
-			return acceptedDataTypes == null ? ListUtils.EMPTY_LIST : acceptedDataTypes;
+			List<Class<? extends State>> types = acceptedDataTypes == null ? ListUtils.EMPTY_LIST : Collections.unmodifiableList(acceptedDataTypes);
+			this.acceptedDataTypes = new AcceptedTypes<State>(types, version);
+			return types;
 		}
 	}
 
 	/** 
 	 * The accepted command types of a group item is the same as of the underlying base item.
 	 * If none is defined, the intersection of all sets of accepted command types of all group
-	 * members is used instead.
+	 * members is used instead. The intersection is cached until the members of any group
+	 * change.
 	 * 
 	 * @return the accepted command types of this group item
 	 */
@@ -143,6 +222,11 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 		if(baseItem!=null) {
 			return baseItem.getAcceptedCommandTypes();
 		} else {
+			long version = membershipVersion.get();
+			AcceptedTypes<Command> cached = acceptedCommandTypes;
+			if(cached!=null && cached.version==version) {
+				return cached.types;
+			}
 			List<Class<? extends Command>> acceptedCommandTypes = null;
 			
 			for(Item item : members) {
@@ -152,7 +236,9 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 					acceptedCommandTypes = ListUtils.intersection(acceptedCommandTypes, item.getAcceptedCommandTypes());
 				}
 			}
-			return acceptedCommandTypes == null ? ListUtils.EMPTY_LIST : acceptedCommandTypes;
+			List<Class<? extends Command>> types = acceptedCommandTypes == null ? ListUtils.EMPTY_LIST : Collections.unmodifiableList(acceptedCommandTypes);
+			this.acceptedCommandTypes = new AcceptedTypes<Command>(types, version);
+			return types;
 		}
 	}
 	
@@ -210,13 +296,130 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 	 * @{inheritDoc
 	 */
 	public void stateChanged(Item item, State oldState, State newState) {
-		setState(function.calculate(members));
+		recalculate(item);
 	}
 
 	/**
 	 * @{inheritDoc
 	 */
 	public void stateUpdated(Item item, State state) {
-		setState(function.calculate(members));
+		recalculate(item);
+	}
+	
+	private void recalculate(Item item) {
+		IncrementalGroupFunction.Aggregator<?> aggregator = getAggregator();
+		if(aggregator!=null) {
+			aggregator.update(item);
+		}
+		if(recalculationInterval<=0 || isRecalculationDue()) {
+			setState(calculateState());
+		}
+	}
+	
+	private State calculateState() {
+		IncrementalGroupFunction.Aggregator<?> aggregator = getAggregator();
+		if(aggregator!=null) {
+			return aggregator.getState();
+		} else {
+			return function.calculate(members);
+		}
+	}
+	
+	/**
+	 * Checks whether the group state may be recalculated now. If the last
+	 * recalculation is less than the recalculation interval ago, a single
+	 * recalculation is scheduled for the end of the interval instead.
+	 * 
+	 * @return <code>true</code> if the group state is to be recalculated now
+	 */
+	private boolean isRecalculationDue() {
+		synchronized(recalculationLock) {
+			if(recalculationPending) {
+				return false;
+			}
+			long now = System.currentTimeMillis();
+			long delay = lastRecalculation + recalculationInterval - now;
+			if(delay<=0) {
+				lastRecalculation = now;
+				return true;
+			}
+			recalculationPending = true;
+			RecalculationScheduler.executor.schedule(new Runnable() {
+				public void run() {
+					synchronized(recalculationLock) {
+						recalculationPending = false;
+						lastRecalculation = System.currentTimeMillis();
+					}
+					try {
+						setState(calculateState());
+					} catch(RuntimeException e) {
+						logger.error("Error while recalculating the state of group '{}'", getName(), e);
+					}
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+			return false;
+		}
+	}
+	
+	/**
+	 * Returns the aggregator of the group function, if it is incremental. The aggregator
+	 * is only used if all members notify the group about their updates.
+	 * 
+	 * @return the aggregator or <code>null</code>, if the group state has to be calculated
+	 *         from all members
+	 */
+	private synchronized IncrementalGroupFunction.Aggregator<?> getAggregator() {
+		if(!(function instanceof IncrementalGroupFunction)) {
+			return null;
+		}
+		if(aggregator==null || aggregatorFunction!=function) {
+			IncrementalGroupFunction.Aggregator<?> newAggregator = ((IncrementalGroupFunction) function).createAggregator();
+			for(Item member : members) {
+				if(!(member instanceof GenericItem)) {
+					return null;
+				}
+				newAggregator.add(member);
+			}
+			aggregator = newAggregator;
+			aggregatorFunction = function;
+		}
+		return aggregator;
+	}
+	
+	private synchronized void invalidateAggregator() {
+		aggregator = null;
+	}
+	
+	/**
+	 * The accepted types of a group together with the membership version they have
+	 * been calculated for.
+	 */
+	private static class AcceptedTypes<T> {
+		
+		final List<Class<? extends T>> types;
+		
+		final long version;
+		
+		AcceptedTypes(List<Class<? extends T>> types, long version) {
+			this.types = types;
+			this.version = version;
+		}
+		
+	}
+	
+	/**
+	 * Holds the thread which executes the delayed recalculations of all groups;
+	 * it is only created if a recalculation interval is used.
+	 */
+	private static class RecalculationScheduler {
+		
+		static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "GroupItemRecalculation");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
 	}
 }
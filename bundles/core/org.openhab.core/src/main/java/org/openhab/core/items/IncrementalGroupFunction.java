@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.items;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.openhab.core.types.State;
+
+/**
+ * A {@link GroupFunction} whose group state can be maintained incrementally.
+ * Instead of iterating all members on every update of a single member, a
+ * {@link GroupItem} keeps an {@link Aggregator} which only replaces the
+ * contribution of the member that has been updated.
+ *
+ * @since 1.9.0
+ */
+public interface IncrementalGroupFunction extends GroupFunction {
+
+	/**
+	 * Creates a new, empty aggregator for this function. Every group item
+	 * uses an aggregator of its own.
+	 *
+	 * @return a new aggregator
+	 */
+	public Aggregator<?> createAggregator();
+
+	/**
+	 * Keeps the contribution of every member item to the group state. A member
+	 * which has been added more than once contributes once per addition, just
+	 * like in {@link GroupFunction#calculate(java.util.List)}.
+	 *
+	 * @param <V> the type of the value a member contributes, <code>null</code>
+	 *            if a member does not contribute to the group state
+	 */
+	public abstract static class Aggregator<V> {
+
+		private final Map<Item, Contribution<V>> contributions = new IdentityHashMap<Item, Contribution<V>>();
+
+		private int size = 0;
+
+		/**
+		 * Adds a member item with its current state.
+		 *
+		 * @param item the member to add
+		 */
+		public synchronized void add(Item item) {
+			Contribution<V> contribution = contributions.get(item);
+			if (contribution == null) {
+				contribution = new Contribution<V>(getValue(item));
+				contributions.put(item, contribution);
+			}
+			contribution.count++;
+			size++;
+			if (contribution.value != null) {
+				addValue(contribution.value);
+			}
+		}
+
+		/**
+		 * Replaces the contribution of a member item by the one of its current
+		 * state. Items which are not members are ignored.
+		 *
+		 * @param item the member whose state has been updated
+		 */
+		public synchronized void update(Item item) {
+			Contribution<V> contribution = contributions.get(item);
+			if (contribution == null) {
+				return;
+			}
+			V value = getValue(item);
+			for (int i = 0; i < contribution.count; i++) {
+				if (contribution.value != null) {
+					removeValue(contribution.value);
+				}
+				if (value != null) {
+					addValue(value);
+				}
+			}
+			contribution.value = value;
+		}
+
+		/**
+		 * @return the group state calculated from the contributions of all members
+		 */
+		public synchronized State getState() {
+			return calculate(size);
+		}
+
+		/**
+		 * Determines the value a member contributes to the group state.
+		 *
+		 * @param item the member item
+		 * @return the contributed value or <code>null</code>, if the member does
+		 *         not contribute
+		 */
+		protected abstract V getValue(Item item);
+
+		/**
+		 * Adds a contributed value to the aggregate.
+		 *
+		 * @param value the value, never <code>null</code>
+		 */
+		protected abstract void addValue(V value);
+
+		/**
+		 * Removes a value, which has been added before, from the aggregate.
+		 *
+		 * @param value the value, never <code>null</code>
+		 */
+		protected abstract void removeValue(V value);
+
+		/**
+		 * Calculates the group state from the aggregate.
+		 *
+		 * @param size the number of members, including those which do not contribute
+		 * @return the group state
+		 */
+		protected abstract State calculate(int size);
+
+		private static class Contribution<V> {
+
+			V value;
+
+			int count = 0;
+
+			Contribution(V value) {
+				this.value = value;
+			}
+
+		}
+
+	}
+
+}
@@ -8,6 +8,10 @@
  */
 package org.openhab.core.service;
 
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +20,13 @@ import org.slf4j.LoggerFactory;
  * Base class for services that frequently run some action in a separate thread in the 
  * background.
  * 
+ * By default, each service runs in a thread of its own, which pauses for the refresh
+ * interval after each execution. Services which return <code>true</code> from
+ * {@link #isSharedSchedulerUsed()} are executed at a fixed rate by the shared
+ * {@link ActiveServiceScheduler} instead; their first execution is delayed randomly to
+ * spread the load. An execution is never started while the previous one is still
+ * running; executions which would have been due meanwhile are skipped.
+ * 
  * @author Kai Kreuzer
  * @since 0.7.0
  */
@@ -38,6 +49,19 @@ public abstract class AbstractActiveService {
 	 */
 	private Thread refreshThread;
 	
+	/**
+	 * holds the task which is scheduled by the shared scheduler or is <code>null</code>
+	 * if the service is not scheduled at the moment
+	 */
+	private volatile ScheduledRefreshTask refreshTask;
+
+	private final AtomicLong executionCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicLong skippedCount = new AtomicLong();
+	private final AtomicLong totalExecutionTime = new AtomicLong();
+	private final AtomicLong maxExecutionTime = new AtomicLong();
+	private volatile long lastExecutionTime = 0;
+	
 	
 	public AbstractActiveService() {
 		super();
@@ -64,8 +88,13 @@ public abstract class AbstractActiveService {
 				
 		shutdown = false;
 		if (!isRunning()) {
-			this.refreshThread = new RefreshThread(getName(), getRefreshInterval());
-			this.refreshThread.start();
+			if (isSharedSchedulerUsed()) {
+				this.refreshTask = new ScheduledRefreshTask();
+				this.refreshTask.start();
+			} else {
+				this.refreshThread = new RefreshThread(getName(), getRefreshInterval());
+				this.refreshThread.start();
+			}
 		} else {
 			logger.trace("{} is already started > calling start() changed nothing.", getName());
 		}
@@ -77,6 +106,10 @@ public abstract class AbstractActiveService {
 	 */
 	public void shutdown() {
 		this.shutdown = true;
+		ScheduledRefreshTask task = this.refreshTask;
+		if (task != null) {
+			task.cancel(false);
+		}
 	}
 	
 	/**
@@ -84,7 +117,12 @@ public abstract class AbstractActiveService {
 	 */
 	public void interrupt() {
 		if (isRunning()) {
-			this.refreshThread.interrupt();
+			ScheduledRefreshTask task = this.refreshTask;
+			if (task != null) {
+				task.cancel(true);
+			} else {
+				this.refreshThread.interrupt();
+			}
 			logger.trace("{} has been interrupted.", getName());
 		}
 	}
@@ -93,8 +131,12 @@ public abstract class AbstractActiveService {
 	 * {@inheritDoc}
 	 */
 	public boolean isRunning() {
-		if (this.refreshThread != null) {
-			return this.refreshThread.isAlive();
+		if (this.refreshTask != null) {
+			return true;
+		}
+		Thread thread = this.refreshThread;
+		if (thread != null) {
+			return thread.isAlive();
 		}
 		return false;
 	}
@@ -125,6 +167,82 @@ public abstract class AbstractActiveService {
 		}
 	}
 	
+	/**
+	 * Determines whether this service is executed by the shared {@link ActiveServiceScheduler}
+	 * instead of a thread of its own. Services whose execution may block indefinitely
+	 * should keep the default.
+	 * 
+	 * @return <code>true</code>, if the shared scheduler should be used; <code>false</code> by default
+	 */
+	protected boolean isSharedSchedulerUsed() {
+		return false;
+	}
+
+	/**
+	 * @return the number of executions of this service
+	 */
+	public long getExecutionCount() {
+		return executionCount.get();
+	}
+
+	/**
+	 * @return the number of executions which have thrown an exception
+	 */
+	public long getErrorCount() {
+		return errorCount.get();
+	}
+
+	/**
+	 * @return the number of executions which have been skipped because the previous
+	 * execution took longer than the refresh interval
+	 */
+	public long getSkippedCount() {
+		return skippedCount.get();
+	}
+
+	/**
+	 * @return the average execution time in milliseconds
+	 */
+	public double getAverageExecutionTime() {
+		long count = executionCount.get();
+		return count > 0 ? totalExecutionTime.get() / (count * 1000000.0) : 0.0;
+	}
+
+	/**
+	 * @return the maximum execution time in milliseconds
+	 */
+	public double getMaxExecutionTime() {
+		return maxExecutionTime.get() / 1000000.0;
+	}
+
+	/**
+	 * @return the time of the last execution in milliseconds or 0, if it has not been executed yet
+	 */
+	public long getLastExecutionTime() {
+		return lastExecutionTime;
+	}
+
+	/**
+	 * Calls {@link #execute()} and records its execution time.
+	 */
+	private void executeTimed() {
+		long startTime = System.nanoTime();
+		lastExecutionTime = System.currentTimeMillis();
+		try {
+			execute();
+		} catch(RuntimeException e) {
+			errorCount.incrementAndGet();
+			logger.error("Error while executing background thread " + getName(), e);
+		}
+		long executionTime = System.nanoTime() - startTime;
+		executionCount.incrementAndGet();
+		totalExecutionTime.addAndGet(executionTime);
+		long max = maxExecutionTime.get();
+		while (executionTime > max && !maxExecutionTime.compareAndSet(max, executionTime)) {
+			max = maxExecutionTime.get();
+		}
+	}
+	
 	/**
 	 * The working method which is called by the refresh thread frequently. 
 	 * Developers should put their binding code here.
@@ -169,11 +287,7 @@ public abstract class AbstractActiveService {
 			logger.info(getName() + " has been started");
 			
 			while (!shutdown) {
-				try {
-					execute();
-				} catch(RuntimeException e) {
-					logger.error("Error while executing background thread " + getName(), e);
-				}
+				executeTimed();
 				pause(refreshInterval);
 			}
 			
@@ -199,4 +313,83 @@ public abstract class AbstractActiveService {
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Task which is executed by the shared scheduler at a fixed rate. It reschedules
+	 * itself after each execution, so that executions never overlap.
+	 */
+	class ScheduledRefreshTask implements Runnable {
+
+		private ScheduledFuture<?> future;
+		private long nextExecution;
+		private boolean cancelled = false;
+
+		synchronized void start() {
+			long delay = ActiveServiceScheduler.getJitter(getRefreshInterval());
+			nextExecution = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+			future = ActiveServiceScheduler.getExecutor().schedule(this, delay, TimeUnit.MILLISECONDS);
+			logger.info(getName() + " has been started");
+		}
+
+		public void run() {
+			if (isCancelled()) {
+				return;
+			}
+			try {
+				executeTimed();
+			} catch(Throwable t) {
+				// an error must not end the chain of executions silently
+				errorCount.incrementAndGet();
+				logger.error("Error while executing background thread " + getName(), t);
+			}
+			if (shutdown) {
+				cancel(false);
+				return;
+			}
+
+			try {
+				long interval = TimeUnit.MILLISECONDS.toNanos(Math.max(getRefreshInterval(), 1));
+				long now = System.nanoTime();
+				nextExecution += interval;
+				if (nextExecution - now < 0) {
+					long skipped = (now - nextExecution) / interval + 1;
+					skippedCount.addAndGet(skipped);
+					nextExecution += skipped * interval;
+					logger.debug("{} took longer than its refresh interval, skipped {} executions.", getName(), skipped);
+				}
+				synchronized (this) {
+					if (!cancelled) {
+						future = ActiveServiceScheduler.getExecutor().schedule(this, nextExecution - now, TimeUnit.NANOSECONDS);
+					}
+				}
+			} catch(RuntimeException e) {
+				logger.error("Cannot schedule the next execution of " + getName(), e);
+				cancel(false);
+			}
+		}
+
+		synchronized boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Stops scheduling further executions.
+		 * 
+		 * @param interrupt <code>true</code>, if a running execution should be interrupted
+		 */
+		synchronized void cancel(boolean interrupt) {
+			if (cancelled) {
+				return;
+			}
+			cancelled = true;
+			if (future != null) {
+				future.cancel(interrupt);
+			}
+			if (refreshTask == this) {
+				refreshTask = null;
+			}
+			logger.info(getName() + " has been shut down");
+		}
+
+	}
+
+}
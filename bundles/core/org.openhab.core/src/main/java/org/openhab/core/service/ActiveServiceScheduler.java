@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.service;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the scheduled executor which is shared by all {@link AbstractActiveService}s
+ * that use the shared scheduler instead of a thread of their own.
+ *
+ * The number of threads can be set by the system property
+ * <code>openhab.activeservice.threads</code>.
+ *
+ * @since 1.9.0
+ */
+public final class ActiveServiceScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(ActiveServiceScheduler.class);
+
+	/** the default number of threads executing the active services */
+	public static final int DEFAULT_POOL_SIZE = 5;
+
+	/** the maximum random delay in milliseconds before the first execution of a service */
+	public static final long MAX_JITTER = 10000;
+
+	private static ScheduledThreadPoolExecutor executor;
+
+	private ActiveServiceScheduler() {
+	}
+
+	/**
+	 * Returns the shared executor, which is created on first use.
+	 *
+	 * @return the shared executor
+	 */
+	static synchronized ScheduledExecutorService getExecutor() {
+		if (executor == null) {
+			int poolSize = Integer.getInteger("openhab.activeservice.threads", DEFAULT_POOL_SIZE);
+			executor = new ScheduledThreadPoolExecutor(poolSize, new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ActiveServiceScheduler-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			executor.setRemoveOnCancelPolicy(true);
+			logger.debug("Created the shared scheduler for active services with {} threads.", poolSize);
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the shared executor; running executions are interrupted.
+	 */
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+			logger.debug("Shut down the shared scheduler for active services.");
+		}
+	}
+
+	/**
+	 * Returns a random delay for the first execution of a service, so that services
+	 * which are started at the same time do not all execute at the same time.
+	 *
+	 * @param refreshInterval the refresh interval of the service in milliseconds
+	 * @return a delay between 0 (inclusive) and the refresh interval or {@link #MAX_JITTER} (exclusive)
+	 */
+	static long getJitter(long refreshInterval) {
+		long bound = Math.min(refreshInterval, MAX_JITTER);
+		return bound > 1 ? ThreadLocalRandom.current().nextLong(bound) : 0;
+	}
+
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.net.http;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The connections which are shared by all requests of {@link HttpUtil}. The
+ * connections are kept open after a request, so that further requests to the
+ * same host do not need a new TCP connection (and TLS handshake). Connections
+ * which have not been used for a while are closed by a background thread.
+ *
+ * @since 1.9.0
+ */
+public final class HttpConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    /** the default maximum number of connections to all hosts */
+    public static final int DEFAULT_MAX_CONNECTIONS = 100;
+
+    /** the default maximum number of connections to a single host */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+    /** the default time in milliseconds after which an unused connection is closed */
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+    private final MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+
+    private final ConcurrentMap<String, HttpHostStatistics> statistics = new ConcurrentHashMap<String, HttpHostStatistics>();
+
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    private IdleConnectionTimeoutThread idleConnectionTimeoutThread;
+
+    HttpConnectionPool() {
+        configure(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Changes the limits of the pool. Connections which are currently open are
+     * not affected.
+     *
+     * @param maxConnections the maximum number of connections to all hosts
+     * @param maxConnectionsPerHost the maximum number of connections to a single host
+     * @param idleTimeout the time in milliseconds after which an unused connection is closed
+     */
+    public synchronized void configure(int maxConnections, int maxConnectionsPerHost, long idleTimeout) {
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        params.setMaxTotalConnections(maxConnections);
+        params.setDefaultMaxConnectionsPerHost(maxConnectionsPerHost);
+        params.setStaleCheckingEnabled(true);
+        this.idleTimeout = idleTimeout;
+        // the thread is started again with the new timeout on the next request
+        stopIdleConnectionTimeoutThread();
+        logger.debug("Configured HTTP connection pool with {} connections, {} per host and an idle timeout of {} ms",
+                new Object[] { maxConnections, maxConnectionsPerHost, idleTimeout });
+    }
+
+    /**
+     * Creates a client which uses the connections of this pool. The client
+     * itself is cheap, it only holds the state (e.g. the credentials) of a
+     * single request.
+     *
+     * @return the client
+     */
+    HttpClient createClient() {
+        synchronized (this) {
+            if (idleConnectionTimeoutThread == null) {
+                idleConnectionTimeoutThread = new IdleConnectionTimeoutThread();
+                idleConnectionTimeoutThread.setName("HttpConnectionPool-IdleTimeout");
+                idleConnectionTimeoutThread.setConnectionTimeout(idleTimeout);
+                idleConnectionTimeoutThread.setTimeoutInterval(Math.max(1000, idleTimeout / 2));
+                idleConnectionTimeoutThread.addConnectionManager(connectionManager);
+                idleConnectionTimeoutThread.start();
+            }
+        }
+        return new HttpClient(connectionManager);
+    }
+
+    /**
+     * Returns the statistics of the host a request is sent to.
+     *
+     * @param url the url of the request
+     * @return the statistics of the host, they are created if they do not exist yet
+     */
+    HttpHostStatistics getHostStatistics(String url) {
+        String host = getHost(url);
+        HttpHostStatistics hostStatistics = statistics.get(host);
+        if (hostStatistics == null) {
+            hostStatistics = new HttpHostStatistics(host);
+            HttpHostStatistics existingStatistics = statistics.putIfAbsent(host, hostStatistics);
+            if (existingStatistics != null) {
+                hostStatistics = existingStatistics;
+            }
+        }
+        return hostStatistics;
+    }
+
+    /**
+     * Returns the host part of an url as it is used to identify the statistics.
+     * Credentials, path and query of the url are omitted.
+     */
+    static String getHost(String url) {
+        try {
+            URL parsedUrl = new URL(url);
+            int port = parsedUrl.getPort() != -1 ? parsedUrl.getPort() : parsedUrl.getDefaultPort();
+            return parsedUrl.getProtocol() + "://" + parsedUrl.getHost() + ":" + port;
+        } catch (MalformedURLException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * @return the statistics of all hosts requests have been sent to
+     */
+    public Collection<HttpHostStatistics> getStatistics() {
+        return new ArrayList<HttpHostStatistics>(statistics.values());
+    }
+
+    /**
+     * @return the number of open connections, both in use and idle
+     */
+    public int getConnectionsInPool() {
+        return connectionManager.getConnectionsInPool();
+    }
+
+    /**
+     * @return the number of requests which are currently being executed
+     */
+    public int getActiveRequests() {
+        int activeRequests = 0;
+        for (HttpHostStatistics hostStatistics : statistics.values()) {
+            activeRequests += hostStatistics.getActiveRequests();
+        }
+        return activeRequests;
+    }
+
+    /**
+     * Closes all idle connections and stops the background thread. The pool
+     * can still be used afterwards.
+     */
+    public synchronized void shutdown() {
+        stopIdleConnectionTimeoutThread();
+        connectionManager.closeIdleConnections(0);
+    }
+
+    private void stopIdleConnectionTimeoutThread() {
+        if (idleConnectionTimeoutThread != null) {
+            idleConnectionTimeoutThread.shutdown();
+            idleConnectionTimeoutThread = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("HttpConnectionPool [connections=%d, active=%d, hosts=%d]", getConnectionsInPool(),
+                getActiveRequests(), statistics.size());
+    }
+
+}
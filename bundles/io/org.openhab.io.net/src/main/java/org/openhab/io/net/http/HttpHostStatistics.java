@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.net.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the requests {@link HttpUtil} has sent to a single host.
+ *
+ * @since 1.9.0
+ */
+public final class HttpHostStatistics {
+
+    private final String host;
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private final AtomicLong totalTime = new AtomicLong();
+
+    private final AtomicLong maxTime = new AtomicLong();
+
+    HttpHostStatistics(String host) {
+        this.host = host;
+    }
+
+    void requestStarted() {
+        activeRequests.incrementAndGet();
+    }
+
+    /**
+     * @param nanos the time the request took in nanoseconds
+     * @param failed <code>true</code>, if the request failed or has been answered with an error status
+     */
+    void requestFinished(long nanos, boolean failed) {
+        activeRequests.decrementAndGet();
+        requestCount.incrementAndGet();
+        if (failed) {
+            failureCount.incrementAndGet();
+        }
+        totalTime.addAndGet(nanos);
+        long max = maxTime.get();
+        while (nanos > max && !maxTime.compareAndSet(max, nanos)) {
+            max = maxTime.get();
+        }
+    }
+
+    /**
+     * @return the scheme, host and port the requests have been sent to, e.g. <code>http://host:80</code>
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return the number of requests which are currently being executed, each of them uses a connection of the pool
+     */
+    public int getActiveRequests() {
+        return activeRequests.get();
+    }
+
+    /**
+     * @return the number of finished requests
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of requests which failed or have been answered with an error status
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return the average time in milliseconds a request took
+     */
+    public double getAverageLatency() {
+        long count = requestCount.get();
+        return count > 0 ? totalTime.get() / (count * 1000000.0) : 0.0;
+    }
+
+    /**
+     * @return the maximum time in milliseconds a request took
+     */
+    public double getMaxLatency() {
+        return maxTime.get() / 1000000.0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("HttpHostStatistics [host=%s, active=%d, requests=%d, failures=%d, avgLatency=%.2fms, "
+                + "maxLatency=%.2fms]", host, getActiveRequests(), getRequestCount(), getFailureCount(),
+                getAverageLatency(), getMaxLatency());
+    }
+
+}
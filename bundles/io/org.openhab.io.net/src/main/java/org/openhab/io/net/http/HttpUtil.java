@@ -18,6 +18,7 @@ import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 
+import org.apache.commons.httpclient.ConnectionPoolTimeoutException;
 import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
 import org.apache.commons.httpclient.Header;
@@ -55,6 +56,20 @@ public class HttpUtil {
     /** {@link Pattern} which matches the credentials out of an URL */
     private static final Pattern URL_CREDENTIALS_PATTERN = Pattern.compile("http://(.*?):(.*?)@.*");
 
+    /** the connections shared by all requests */
+    private static final HttpConnectionPool connectionPool = new HttpConnectionPool();
+
+    /**
+     * Returns the pool of connections which is used by all requests, e.g. to
+     * configure it or to read its statistics.
+     *
+     * @return the connection pool
+     * @since 1.9.0
+     */
+    public static HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
     /**
      * Executes the given <code>url</code> with the given <code>httpMethod</code>.
      * Furthermore the <code>http.proxyXXX</code> System variables are read and
@@ -136,7 +151,9 @@ public class HttpUtil {
     }
 
     /**
-     * Executes the given <code>url</code> with the given <code>httpMethod</code>
+     * Executes the given <code>url</code> with the given <code>httpMethod</code>.
+     * The connection is taken from the shared {@link HttpConnectionPool} and kept
+     * open for further requests to the same host.
      * 
      * @param httpMethod the HTTP method to use
      * @param url the url to execute (in milliseconds)
@@ -156,7 +173,9 @@ public class HttpUtil {
             String contentType, int timeout, String proxyHost, Integer proxyPort, String proxyUser,
             String proxyPassword, String nonProxyHosts) {
 
-        HttpClient client = new HttpClient();
+        HttpClient client = connectionPool.createClient();
+        // do not wait longer for a free connection of the pool than for the data
+        client.getParams().setConnectionManagerTimeout(timeout);
 
         // only configure a proxy if a host is provided
         if (StringUtils.isNotBlank(proxyHost) && proxyPort != null && shouldUseProxy(url, nonProxyHosts)) {
@@ -195,9 +214,16 @@ public class HttpUtil {
             }
         }
 
+        HttpHostStatistics hostStatistics = connectionPool.getHostStatistics(url);
+        boolean failed = false;
+        long startTime = System.nanoTime();
+        hostStatistics.requestStarted();
         try {
 
             int statusCode = client.executeMethod(method);
+            if (statusCode >= HttpStatus.SC_BAD_REQUEST) {
+                failed = true;
+            }
             if (statusCode == HttpStatus.SC_NO_CONTENT || statusCode == HttpStatus.SC_ACCEPTED) {
                 // perfectly fine but we cannot expect any answer...
                 return null;
@@ -228,11 +254,19 @@ public class HttpUtil {
 
             return responseBody;
         } catch (HttpException he) {
+            failed = true;
             logger.error("Fatal protocol violation: {}", he.toString());
+        } catch (ConnectionPoolTimeoutException cpte) {
+            failed = true;
+            logger.warn("No free connection to '{}' within {} ms, all pooled connections are in use. "
+                    + "Raise 'httpclient:maxconnectionsperhost' or 'httpclient:maxconnections' in openhab.cfg "
+                    + "if more concurrent requests are expected.", hostStatistics.getHost(), timeout);
         } catch (IOException ioe) {
+            failed = true;
             logger.error("Fatal transport error: {}", ioe.toString());
         } finally {
             method.releaseConnection();
+            hostStatistics.requestFinished(System.nanoTime() - startTime, failed);
         }
 
         return null;
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.net.internal;
+
+import java.util.Dictionary;
+
+import org.openhab.io.net.http.HttpConnectionPool;
+import org.openhab.io.net.http.HttpHostStatistics;
+import org.openhab.io.net.http.HttpUtil;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class configures the {@link HttpConnectionPool} of {@link HttpUtil}
+ * from the <code>httpclient:</code> settings of openhab.cfg.
+ *
+ * @since 1.9.0
+ */
+public class HttpConnectionPoolService implements ManagedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnectionPoolService.class);
+
+    public void activate() {
+    }
+
+    public void deactivate() {
+        HttpConnectionPool connectionPool = HttpUtil.getConnectionPool();
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}", connectionPool);
+            for (HttpHostStatistics hostStatistics : connectionPool.getStatistics()) {
+                logger.debug("{}", hostStatistics);
+            }
+        }
+        connectionPool.shutdown();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void updated(Dictionary config) throws ConfigurationException {
+        int maxConnections = HttpConnectionPool.DEFAULT_MAX_CONNECTIONS;
+        int maxConnectionsPerHost = HttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+        long idleTimeout = HttpConnectionPool.DEFAULT_IDLE_TIMEOUT;
+        if (config != null) {
+            String value = getSetting(config, "maxconnections");
+            if (value != null) {
+                maxConnections = parsePositive("maxconnections", value);
+            }
+            value = getSetting(config, "maxconnectionsperhost");
+            if (value != null) {
+                maxConnectionsPerHost = parsePositive("maxconnectionsperhost", value);
+            }
+            value = getSetting(config, "idletimeout");
+            if (value != null) {
+                idleTimeout = parsePositive("idletimeout", value);
+            }
+        }
+        HttpUtil.getConnectionPool().configure(maxConnections, maxConnectionsPerHost, idleTimeout);
+    }
+
+    private String getSetting(Dictionary<?, ?> config, String key) {
+        Object value = config.get(key);
+        if (value == null || value.toString().trim().isEmpty()) {
+            return null;
+        }
+        return value.toString().trim();
+    }
+
+    private int parsePositive(String key, String value) throws ConfigurationException {
+        try {
+            int number = Integer.parseInt(value);
+            if (number <= 0) {
+                throw new ConfigurationException("httpclient:" + key,
+                        "The value must be positive, but is '" + value + "'");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("httpclient:" + key, "The value must be a number, but is '" + value + "'");
+        }
+    }
+
+}
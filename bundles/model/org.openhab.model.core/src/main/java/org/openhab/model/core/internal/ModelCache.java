@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.model.core.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectInputStream;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectOutputStream;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the parsed models as serialized EMF resources in the userdata folder,
+ * so that unchanged models do not have to be parsed again after a restart.
+ *
+ * A cached model is only used if both the content of the model file and the
+ * grammar of its model type are unchanged. The grammar is identified by the
+ * version of the bundle which provides its EMF package and by the structure of
+ * the package. Only models which do not reference other resources (e.g. Java
+ * types) are cached, as their references could not be restored without
+ * linking them again.
+ *
+ * @since 1.9.0
+ */
+final class ModelCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ModelCache.class);
+
+	/** the system property to switch off the model cache */
+	static final String ENABLED_PROPERTY = "openhab.modelcache";
+
+	/* identifies the format of the cache files, to be increased whenever the format changes */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String CACHE_FOLDER_NAME = "modelcache";
+
+	private final File folder;
+
+	private ModelCache(File folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * Creates the cache in the userdata folder.
+	 *
+	 * @return the cache or <code>null</code>, if the cache is switched off or
+	 *         the cache folder cannot be created
+	 */
+	static ModelCache create() {
+		if ("false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY))) {
+			return null;
+		}
+		File folder = new File(getUserDataFolder(), CACHE_FOLDER_NAME);
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			logger.info("Cannot create the model cache folder '{}', models are always parsed.", folder);
+			return null;
+		}
+		return new ModelCache(folder);
+	}
+
+	private static String getUserDataFolder() {
+		String progArg = System.getProperty("smarthome.userdata");
+		if (progArg != null) {
+			return progArg;
+		} else {
+			return "etc";
+		}
+	}
+
+	/**
+	 * Loads a model from the cache into a new resource of the given resource set.
+	 *
+	 * @param resourceSet the resource set to add the resource to
+	 * @param name the name of the model
+	 * @param content the current content of the model file
+	 * @return the loaded resource or <code>null</code>, if there is no valid cache entry
+	 */
+	Resource load(ResourceSet resourceSet, String name, byte[] content) {
+		File file = getFile(name);
+		if (!file.isFile()) {
+			return null;
+		}
+		Resource resource = null;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(getContentHash(content))) {
+				logger.debug("Cached model '{}' is outdated", name);
+				return null;
+			}
+			EPackage ePackage = EPackage.Registry.INSTANCE.getEPackage(in.readUTF());
+			if (ePackage == null || !in.readUTF().equals(getGrammarVersion(ePackage))) {
+				logger.debug("Cached model '{}' has been created for another grammar", name);
+				return null;
+			}
+			resource = new BinaryResourceImpl(URI.createURI(name));
+			resourceSet.getResources().add(resource);
+			EObjectInputStream eObjectIn = new EObjectInputStream(in, Collections.emptyMap());
+			eObjectIn.loadResource(resource);
+			if (resource.getContents().isEmpty()) {
+				throw new IOException("cached model is empty");
+			}
+			return resource;
+		} catch (Exception e) {
+			// the model is parsed instead
+			logger.debug("Cannot load model '{}' from the cache: {}", name, e.getMessage());
+			if (resource != null) {
+				resourceSet.getResources().remove(resource);
+			}
+			return null;
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * Stores a model, which has just been parsed, in the cache. Models with
+	 * errors or references to other resources are not stored.
+	 *
+	 * @param name the name of the model
+	 * @param content the content the model has been parsed from
+	 * @param resource the resource of the parsed model
+	 */
+	void store(String name, byte[] content, Resource resource) {
+		if (resource.getContents().isEmpty() || !resource.getErrors().isEmpty()
+				|| !EcoreUtil.ExternalCrossReferencer.find(resource).isEmpty()) {
+			logger.debug("Model '{}' cannot be cached", name);
+			remove(name);
+			return;
+		}
+		EPackage ePackage = resource.getContents().get(0).eClass().getEPackage();
+		File file = getFile(name);
+		File tempFile = new File(folder, file.getName() + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(getContentHash(content));
+			out.writeUTF(ePackage.getNsURI());
+			out.writeUTF(getGrammarVersion(ePackage));
+			EObjectOutputStream eObjectOut = new EObjectOutputStream(out, Collections.emptyMap());
+			eObjectOut.saveResource(resource);
+			eObjectOut.flush();
+			out.close();
+			out = null;
+			if (!tempFile.renameTo(file)) {
+				// the rename fails on some platforms if the target exists
+				file.delete();
+				if (!tempFile.renameTo(file)) {
+					throw new IOException("cannot rename '" + tempFile + "'");
+				}
+			}
+		} catch (Exception e) {
+			logger.debug("Cannot store model '{}' in the cache: {}", name, e.getMessage());
+			tempFile.delete();
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	/**
+	 * Removes a model from the cache.
+	 *
+	 * @param name the name of the model
+	 */
+	void remove(String name) {
+		File file = getFile(name);
+		if (file.exists() && !file.delete()) {
+			logger.debug("Cannot remove model '{}' from the cache", name);
+		}
+	}
+
+	private File getFile(String name) {
+		return new File(folder, name.replaceAll("[^a-zA-Z0-9._\\-]", "_") + ".bin");
+	}
+
+	private static String getContentHash(byte[] content) throws NoSuchAlgorithmException {
+		return toHex(MessageDigest.getInstance("SHA-256").digest(content));
+	}
+
+	/**
+	 * Identifies the grammar of an EMF package by the version of the bundle
+	 * which provides it and by the names of its classes and features.
+	 */
+	private static String getGrammarVersion(EPackage ePackage) throws IOException, NoSuchAlgorithmException {
+		StringBuilder structure = new StringBuilder(ePackage.getNsURI());
+		for (EClassifier eClassifier : ePackage.getEClassifiers()) {
+			structure.append(';').append(eClassifier.getName());
+			if (eClassifier instanceof EClass) {
+				for (EStructuralFeature feature : ((EClass) eClassifier).getEAllStructuralFeatures()) {
+					structure.append(',').append(feature.getName());
+				}
+			}
+		}
+		Bundle bundle = FrameworkUtil.getBundle(ePackage.getClass());
+		String bundleVersion = bundle != null ? bundle.getVersion().toString() : "";
+		return bundleVersion + "/" + getContentHash(structure.toString().getBytes("UTF-8"));
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+}
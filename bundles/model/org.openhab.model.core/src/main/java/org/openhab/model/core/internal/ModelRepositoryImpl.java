@@ -8,12 +8,19 @@
  */
 package org.openhab.model.core.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
@@ -28,80 +35,104 @@ import org.openhab.model.core.ModelRepositoryChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-
+/**
+ * The models are kept in one resource set per model type (file extension).
+ * Models of different types do not reference each other, so they can be
+ * parsed in parallel: a model is only parsed while holding the lock of the
+ * resource set of its type. Readers do not take any lock, they are served from
+ * a snapshot of the successfully loaded models, which is replaced whenever a
+ * model has been loaded or removed.
+ *
+ * The listeners are never notified concurrently, as they do not expect
+ * changes of different models at the same time. While models are loaded in
+ * parallel, the notifications can be held back and are then sent in a
+ * deterministic order, sorted by model type and name.
+ */
 public class ModelRepositoryImpl implements ModelRepository {
-	
+
 	private static final Logger logger = LoggerFactory.getLogger(ModelRepositoryImpl.class);
-	private final ResourceSet resourceSet;
-	
+
+	/* the resource sets by model type */
+	private final ConcurrentMap<String, ResourceSet> resourceSets = new ConcurrentHashMap<String, ResourceSet>();
+
+	/* the loaded models by name, in the order they have been added; replaced on every change */
+	private volatile Map<String, EObject> models = Collections.emptyMap();
+
+	private final Object modelsLock = new Object();
+
 	private final ListenerList listeners = new ListenerList();
 
+	/* guards the notification of the listeners, so that they are notified one at a time */
+	private final Object notificationLock = new Object();
+
+	/* the notifications which are held back or null, if notifications are sent right away */
+	private List<ModelChange> heldNotifications = null;
+
+	/* the cache of parsed models or null, if models are always parsed */
+	private final ModelCache modelCache;
+
 	public ModelRepositoryImpl() {
-		XtextResourceSet xtextResourceSet = new SynchronizedXtextResourceSet();
-		xtextResourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL, Boolean.TRUE);
-		this.resourceSet = xtextResourceSet;
 		// don't use XMI as a default
 		Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().remove("*");
+		this.modelCache = ModelCache.create();
 	}
-	
+
 	public EObject getModel(String name) {
-		synchronized (resourceSet) {
-	 		Resource resource = getResource(name);
-			if(resource!=null) {
-				if(resource.getContents().size()>0) {
-					return resource.getContents().get(0);
-				} else {
-					logger.warn("Configuration model '{}' is either empty or cannot be parsed correctly!", name);
-					logger.debug("Errors reported for '{}': {}", name, resource.getErrors());
-					resourceSet.getResources().remove(resource);
-					return null;
-				}
-			} else {
-				logger.debug("Configuration model '{}' can not be found", name);
-				return null;
-			}
+		EObject model = models.get(name);
+		if(model==null) {
+			logger.debug("Configuration model '{}' can not be found", name);
 		}
+		return model;
 	}
 
 	public boolean addOrRefreshModel(String name, InputStream inputStream) {
-		Resource resource = getResource(name);
-		if(resource==null) {
-			synchronized(resourceSet) {
-				// try again to retrieve the resource as it might have been created by now
-				resource = getResource(name);
-				if(resource==null) {
-					// seems to be a new file
-					resource = resourceSet.createResource(URI.createURI(name));
-					if(resource!=null) {
-						logger.info("Loading model '{}'", name);
-						try {
-							Map<String, String> options = new HashMap<String, String>();
-							options.put(XtextResource.OPTION_ENCODING, "UTF-8");
-							resource.load(inputStream, options);
-							notifyListeners(name, EventType.ADDED);
-							return true;
-						} catch (IOException e) {
-							logger.warn("Configuration model '" + name + "' cannot be parsed correctly!", e);
-							resourceSet.getResources().remove(resource);
-						}
-					}
-				}
+		byte[] content;
+		try {
+			content = IOUtils.toByteArray(inputStream);
+		} catch (IOException e) {
+			logger.warn("Configuration model '" + name + "' cannot be read!", e);
+			return false;
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+		ResourceSet resourceSet = getResourceSet(name);
+		synchronized(resourceSet) {
+			Resource oldResource = getResource(resourceSet, name);
+			if(oldResource!=null) {
+				// the old resource is not unloaded, so that readers can still use its content
+				resourceSet.getResources().remove(oldResource);
 			}
-		} else {
-			synchronized(resourceSet) {
-				resource.unload();
+			long startTime = System.currentTimeMillis();
+			Resource resource = modelCache!=null ? modelCache.load(resourceSet, name, content) : null;
+			if(resource!=null) {
+				logger.info(oldResource==null ? "Loaded model '{}' from the cache in {} ms"
+						: "Refreshed model '{}' from the cache in {} ms", name, System.currentTimeMillis() - startTime);
+				updateModel(resourceSet, resource, name);
+				notifyListeners(name, oldResource==null ? EventType.ADDED : EventType.MODIFIED);
+				return true;
+			}
+			resource = resourceSet.createResource(URI.createURI(name));
+			if(resource!=null) {
+				logger.debug(oldResource==null ? "Loading model '{}'" : "Refreshing model '{}'", name);
 				try {
-					logger.info("Refreshing model '{}'", name);
-					resource.load(inputStream, Collections.EMPTY_MAP);
-					notifyListeners(name, EventType.MODIFIED);
+					Map<String, String> options = new HashMap<String, String>();
+					options.put(XtextResource.OPTION_ENCODING, "UTF-8");
+					resource.load(new ByteArrayInputStream(content), options);
+					logger.info(oldResource==null ? "Loaded model '{}' in {} ms" : "Refreshed model '{}' in {} ms",
+							name, System.currentTimeMillis() - startTime);
+					updateModel(resourceSet, resource, name);
+					notifyListeners(name, oldResource==null ? EventType.ADDED : EventType.MODIFIED);
+					if(modelCache!=null) {
+						modelCache.store(name, content, resource);
+					}
 					return true;
 				} catch (IOException e) {
 					logger.warn("Configuration model '" + name + "' cannot be parsed correctly!", e);
 					resourceSet.getResources().remove(resource);
+					putModel(name, null);
+					if(modelCache!=null) {
+						modelCache.remove(name);
+					}
 				}
 			}
 		}
@@ -109,34 +140,33 @@ public class ModelRepositoryImpl implements ModelRepository {
 	}
 
 	public boolean removeModel(String name) {
-		Resource resource = getResource(name);
-		if(resource!=null) {
-			synchronized(resourceSet) {
+		ResourceSet resourceSet = getResourceSet(name);
+		synchronized(resourceSet) {
+			Resource resource = getResource(resourceSet, name);
+			if(resource!=null) {
 				// do not physically delete it, but remove it from the resource set
 				notifyListeners(name, EventType.REMOVED);
 				resourceSet.getResources().remove(resource);
+				putModel(name, null);
+				if(modelCache!=null) {
+					modelCache.remove(name);
+				}
 				return true;
+			} else {
+				return false;
 			}
-		} else {
-			return false;
 		}
 	}
 
 	public Iterable<String> getAllModelNamesOfType(final String modelType) {
-		synchronized(resourceSet) {
-			Iterable<Resource> matchingResources = Iterables.filter(resourceSet.getResources(), new Predicate<Resource>() {
-				public boolean apply(Resource input) {
-					if(input!=null && input.getURI().lastSegment().contains(".") && input.isLoaded()) {
-						return modelType.equalsIgnoreCase(input.getURI().fileExtension());
-					} else {
-						return false;
-					}
-				}});
-			return Lists.newArrayList(Iterables.transform(matchingResources, new Function<Resource, String>() {
-				public String apply(Resource from) {
-					return from.getURI().path();
-				}}));
+		List<String> names = new ArrayList<String>();
+		for(String name : models.keySet()) {
+			URI uri = URI.createURI(name);
+			if(uri.lastSegment().contains(".") && modelType.equalsIgnoreCase(uri.fileExtension())) {
+				names.add(uri.path());
+			}
 		}
+		return names;
 	}
 
 	public void addModelRepositoryChangeListener(
@@ -149,14 +179,133 @@ public class ModelRepositoryImpl implements ModelRepository {
 		listeners.remove(listener);
 	}
 
-	private Resource getResource(String name) {
+	/**
+	 * Returns the resource set for the type of a model, the resource set is
+	 * created if there is none yet.
+	 *
+	 * @param name the name of the model
+	 * @return the resource set
+	 */
+	private ResourceSet getResourceSet(String name) {
+		String modelType = URI.createURI(name).fileExtension();
+		if(modelType==null) {
+			modelType = "";
+		}
+		ResourceSet resourceSet = resourceSets.get(modelType);
+		if(resourceSet==null) {
+			XtextResourceSet xtextResourceSet = new SynchronizedXtextResourceSet();
+			xtextResourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL, Boolean.TRUE);
+			resourceSet = resourceSets.putIfAbsent(modelType, xtextResourceSet);
+			if(resourceSet==null) {
+				resourceSet = xtextResourceSet;
+			}
+		}
+		return resourceSet;
+	}
+
+	private Resource getResource(ResourceSet resourceSet, String name) {
 		 return resourceSet.getResource(URI.createURI(name), false);
 	}
 
+	/**
+	 * Publishes the content of a resource, which has just been loaded, to the readers.
+	 * Empty resources are removed from the resource set again.
+	 */
+	private void updateModel(ResourceSet resourceSet, Resource resource, String name) {
+		if(resource.getContents().size()>0) {
+			putModel(name, resource.getContents().get(0));
+		} else {
+			logger.warn("Configuration model '{}' is either empty or cannot be parsed correctly!", name);
+			logger.debug("Errors reported for '{}': {}", name, resource.getErrors());
+			resourceSet.getResources().remove(resource);
+			putModel(name, null);
+		}
+	}
+
+	/**
+	 * Replaces the snapshot of the loaded models.
+	 *
+	 * @param name the name of the model
+	 * @param model the loaded model or <code>null</code>, if the model has been removed
+	 */
+	private void putModel(String name, EObject model) {
+		synchronized(modelsLock) {
+			Map<String, EObject> newModels = new LinkedHashMap<String, EObject>(models);
+			if(model!=null) {
+				newModels.put(name, model);
+			} else {
+				newModels.remove(name);
+			}
+			models = Collections.unmodifiableMap(newModels);
+		}
+	}
+
+	/**
+	 * Holds back the notifications about added and modified models until
+	 * {@link #releaseNotifications()} is called. Removals are still notified
+	 * right away, as the listeners may access the model before it is gone.
+	 */
+	public void holdNotifications() {
+		synchronized(notificationLock) {
+			if(heldNotifications==null) {
+				heldNotifications = new ArrayList<ModelChange>();
+			}
+		}
+	}
+
+	/**
+	 * Sends the notifications which have been held back since
+	 * {@link #holdNotifications()}, sorted by model type and name.
+	 * Changes of the same model keep their order.
+	 */
+	public void releaseNotifications() {
+		synchronized(notificationLock) {
+			List<ModelChange> changes = heldNotifications;
+			heldNotifications = null;
+			if(changes!=null) {
+				Collections.sort(changes);
+				for(ModelChange change : changes) {
+					notifyListeners(change.name, change.type);
+				}
+			}
+		}
+	}
+
 	private void notifyListeners(String name, EventType type) {
-		for(Object listener : listeners.getListeners()) {
-			ModelRepositoryChangeListener changeListener = (ModelRepositoryChangeListener) listener;
-			changeListener.modelChanged(name, type);
+		synchronized(notificationLock) {
+			if(heldNotifications!=null && type!=EventType.REMOVED) {
+				heldNotifications.add(new ModelChange(name, type));
+				return;
+			}
+			for(Object listener : listeners.getListeners()) {
+				ModelRepositoryChangeListener changeListener = (ModelRepositoryChangeListener) listener;
+				try {
+					changeListener.modelChanged(name, type);
+				} catch(RuntimeException e) {
+					logger.error("Model repository change listener failed to handle change of model '" + name + "'", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A notification which has been held back.
+	 */
+	private static class ModelChange implements Comparable<ModelChange> {
+		final String name;
+		final String modelType;
+		final EventType type;
+
+		ModelChange(String name, EventType type) {
+			this.name = name;
+			this.type = type;
+			String extension = URI.createURI(name).fileExtension();
+			this.modelType = extension!=null ? extension : "";
+		}
+
+		public int compareTo(ModelChange other) {
+			int result = modelType.compareTo(other.modelType);
+			return result!=0 ? result : name.compareTo(other.name);
 		}
 	}
 
@@ -10,19 +10,29 @@ package org.openhab.model.core.internal.folder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.openhab.config.core.ConfigDispatcher;
 import org.openhab.model.core.ModelCoreConstants;
 import org.openhab.model.core.ModelRepository;
+import org.openhab.model.core.internal.ModelRepositoryImpl;
 import org.openhab.model.core.internal.util.MathUtils;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
@@ -36,6 +46,11 @@ import org.slf4j.LoggerFactory;
  * 
  * This logic is run as a separate thread, so that it can always detect changes.
  * 
+ * Where the file system supports it, the folders are watched by a {@link FolderWatcher}
+ * instead, which reports changes right away without listing the folders periodically.
+ * Watching can be switched off by setting the system property
+ * {@value #WATCH_PROPERTY} to <code>false</code>.
+ * 
  * @author Kai Kreuzer
  * @since 0.3.0
  *
@@ -45,6 +60,14 @@ public class FolderObserver extends Thread implements ManagedService {
 	private static final Logger logger = LoggerFactory
 			.getLogger(FolderObserver.class);
 
+	/** the system property to switch off watching the folders */
+	public static final String WATCH_PROPERTY = "openhab.folder.watch";
+
+	/** the system property for the time in milliseconds to wait for further changes of a watched file */
+	public static final String DEBOUNCE_PROPERTY = "openhab.folder.debounce";
+
+	private static final long DEFAULT_DEBOUNCE_DELAY = 500;
+
 	/* map that lists all foldernames that should be observed and the frequency for checks in seconds */
 	private final Map<String, Integer> folderRefreshMap = new ConcurrentHashMap<String, Integer>();
 
@@ -69,6 +92,15 @@ public class FolderObserver extends Thread implements ManagedService {
 	/* the model repository is provided as a service */
 	private ModelRepository modelRepo = null;
 	
+	/* the watcher for the folders or null, if folders are not watched */
+	private FolderWatcher watcher = null;
+	
+	/* map that holds the lock for each folder, which guards checking the folder and its files */
+	private final ConcurrentMap<String, Object> folderLocks = new ConcurrentHashMap<String, Object>();
+	
+	/* set that lists all foldernames that are watched for changes instead of being checked periodically */
+	private final Set<String> watchedFolders = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	
 	
 	public FolderObserver() {
 		super("FolderObserver");
@@ -115,7 +147,13 @@ public class FolderObserver extends Thread implements ManagedService {
 		}
 	}
 	
-	private void checkFolder(String foldername) {
+	void checkFolder(String foldername) {
+		synchronized (getFolderLock(foldername)) {
+			checkFolderLocked(foldername);
+		}
+	}
+	
+	private void checkFolderLocked(String foldername) {
 		File folder = getFolder(foldername);
 		if(!folder.exists()) {
 			return;
@@ -125,13 +163,7 @@ public class FolderObserver extends Thread implements ManagedService {
 		// check current files and add or refresh them accordingly
 		Set<String> currentFileNames = new HashSet<String>();
 		for(File file : folder.listFiles()) {
-			if(file.isDirectory()) continue;
-			if(!file.getName().contains(".")) continue;
-			if(file.getName().startsWith(".")) continue;
-			
-			// if there is an extension filter defined, continue if the file has a different extension
-			String fileExt = getExtension(file.getName());
-			if(extensions!=null && extensions.length>0 && !ArrayUtils.contains(extensions, fileExt)) continue;
+			if(!isModelFile(file, extensions)) continue;
 			
 			currentFileNames.add(file.getName());
 			Long timeLastCheck = lastCheckedMap.get(file.getName());
@@ -164,6 +196,153 @@ public class FolderObserver extends Thread implements ManagedService {
 		lastFileNames.put(foldername, currentFileNames);
 	}
 
+	/**
+	 * Checks a single file of a watched folder and adds, refreshes or removes
+	 * its model accordingly.
+	 * 
+	 * @param foldername the name of the folder of the file
+	 * @param filename the name of the file, which has been created, modified or deleted
+	 */
+	void checkFile(String foldername, String filename) {
+		synchronized (getFolderLock(foldername)) {
+			if (!watchedFolders.contains(foldername)) {
+				return;
+			}
+			File file = new File(getFolder(foldername), filename);
+			Set<String> fileNames = lastFileNames.get(foldername);
+			if (file.exists()) {
+				if(!isModelFile(file, folderFileExtMap.get(foldername))) return;
+				if (fileNames != null) {
+					fileNames.add(filename);
+				}
+				// the file is refreshed even if its modification time has not changed, as the
+				// modification time of some file systems is too coarse to detect quick edits
+				if(modelRepo!=null) {
+					try {
+						if(modelRepo.addOrRefreshModel(filename, FileUtils.openInputStream(file))) {
+							lastCheckedMap.put(filename, new Date().getTime());
+						}
+					} catch (IOException e) {
+						logger.warn("Cannot open file '"+ file.getAbsolutePath() + "' for reading.", e);
+					}
+				}
+			} else if (fileNames != null && fileNames.remove(filename)) {
+				logger.info("File '{}' has been deleted", filename);
+				if (modelRepo != null) {
+					modelRepo.removeModel(filename);
+					lastCheckedMap.remove(filename);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks several folders at once with a thread for each folder, so that the
+	 * models of the different folders are parsed in parallel. The listeners of
+	 * the model repository are notified about the loaded models afterwards, in
+	 * a deterministic order.
+	 * 
+	 * @param foldernames the names of the folders to check
+	 */
+	private void checkFolders(List<String> foldernames) {
+		if (foldernames.size() <= 1) {
+			for (String foldername : foldernames) {
+				checkFolder(foldername);
+			}
+			return;
+		}
+		long startTime = System.currentTimeMillis();
+		int threadCount = Math.min(foldernames.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "FolderObserver-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (final String foldername : foldernames) {
+			tasks.add(Executors.callable(new Runnable() {
+				public void run() {
+					long folderStartTime = System.currentTimeMillis();
+					try {
+						checkFolder(foldername);
+					} catch (Throwable e) {
+						logger.error("An unexpected exception has occured", e);
+					}
+					logger.debug("Checked folder '{}' in {} ms", foldername,
+							System.currentTimeMillis() - folderStartTime);
+				}
+			}));
+		}
+		ModelRepository repository = modelRepo;
+		if (repository instanceof ModelRepositoryImpl) {
+			((ModelRepositoryImpl) repository).holdNotifications();
+		}
+		try {
+			executor.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+			if (repository instanceof ModelRepositoryImpl) {
+				((ModelRepositoryImpl) repository).releaseNotifications();
+			}
+		}
+		logger.info("Checked {} folders with {} threads in {} ms", foldernames.size(), threadCount,
+				System.currentTimeMillis() - startTime);
+	}
+
+	private Object getFolderLock(String foldername) {
+		Object lock = folderLocks.get(foldername);
+		if (lock == null) {
+			Object newLock = new Object();
+			lock = folderLocks.putIfAbsent(foldername, newLock);
+			if (lock == null) {
+				lock = newLock;
+			}
+		}
+		return lock;
+	}
+
+	private boolean isModelFile(File file, String[] extensions) {
+		if(file.isDirectory()) return false;
+		if(!file.getName().contains(".")) return false;
+		if(file.getName().startsWith(".")) return false;
+		
+		// if there is an extension filter defined, skip the file if it has a different extension
+		String fileExt = getExtension(file.getName());
+		if(extensions!=null && extensions.length>0 && !ArrayUtils.contains(extensions, fileExt)) return false;
+		return true;
+	}
+
+	/**
+	 * Starts watching a folder, if watching is supported.
+	 * 
+	 * @param foldername the name of the folder
+	 * @param folder the folder to watch
+	 * @return <code>true</code>, if the folder is watched, <code>false</code>
+	 * if it has to be checked periodically
+	 */
+	private boolean watch(String foldername, File folder) {
+		if (watcher == null) {
+			if ("false".equalsIgnoreCase(System.getProperty(WATCH_PROPERTY))) {
+				return false;
+			}
+			watcher = FolderWatcher.create(this, Long.getLong(DEBOUNCE_PROPERTY, DEFAULT_DEBOUNCE_DELAY));
+			if (watcher == null) {
+				return false;
+			}
+		}
+		if (watcher.watch(foldername, folder)) {
+			watchedFolders.add(foldername);
+			return true;
+		}
+		return false;
+	}
+
 	private String getExtension(String filename) {
 		String fileExt = filename.substring(filename.lastIndexOf(".") + 1);
 		return fileExt;
@@ -177,6 +356,13 @@ public class FolderObserver extends Thread implements ManagedService {
 			lastCheckedMap.clear();
 			folderFileExtMap.clear();
 			folderRefreshMap.clear();
+			watchedFolders.clear();
+			if (watcher != null) {
+				watcher.unwatchAll();
+			}
+			
+			// the folders which are checked once right away, this is done in parallel afterwards
+			List<String> foldersToCheck = new ArrayList<String>();
 			
 			Enumeration keys = config.keys();
 			while (keys.hasMoreElements()) {
@@ -189,7 +375,10 @@ public class FolderObserver extends Thread implements ManagedService {
 					File folder = getFolder(foldername);
 					if (folder.exists() && folder.isDirectory()) {
 						folderFileExtMap.put(foldername, fileExts);
-						if (refreshValue > 0) {
+						if (refreshValue > 0 && watch(foldername, folder)) {
+							// changes are reported by the watcher, so the folder is only read once
+							foldersToCheck.add(foldername);
+						} else if (refreshValue > 0) {
 							folderRefreshMap.put(foldername, refreshValue);
 							if(!this.isAlive()) {
 								// seems we have the first folder to observe, so let's start the thread
@@ -204,7 +393,7 @@ public class FolderObserver extends Thread implements ManagedService {
 						} else {
 							// deactivate the refresh for this folder
 							folderRefreshMap.remove(foldername);
-							checkFolder(foldername);
+							foldersToCheck.add(foldername);
 						}
 					} else {
 						logger.warn(
@@ -227,6 +416,7 @@ public class FolderObserver extends Thread implements ManagedService {
 				}
 
 			}
+			checkFolders(foldersToCheck);
 		}
 	}
 
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.model.core.internal.folder;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the model folders for changes, so that the {@link FolderObserver}
+ * does not have to list them periodically.
+ *
+ * Changes are not passed on immediately: every change of a file restarts a
+ * short delay, and the file is only checked once the delay has passed without
+ * further changes. This way the many events an editor causes when saving a
+ * file (e.g. create, modify and delete of a backup copy) result in a single
+ * refresh of the model.
+ *
+ * @since 1.9.0
+ */
+final class FolderWatcher implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(FolderWatcher.class);
+
+	private final FolderObserver observer;
+
+	private final long debounceDelay;
+
+	private final WatchService watchService;
+
+	/* the names of the watched folders by their watch keys */
+	private final Map<WatchKey, String> folderNames = new ConcurrentHashMap<WatchKey, String>();
+
+	/* the pending changes in the order of their due time; only accessed by the watcher thread */
+	private final Map<String, PendingChange> pendingChanges = new LinkedHashMap<String, PendingChange>();
+
+	private final Thread thread;
+
+	private volatile boolean running = true;
+
+	private FolderWatcher(FolderObserver observer, long debounceDelay) throws IOException {
+		this.observer = observer;
+		this.debounceDelay = Math.max(0, debounceDelay);
+		this.watchService = FileSystems.getDefault().newWatchService();
+		this.thread = new Thread(this, "FolderWatcher");
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Creates a watcher for the model folders.
+	 *
+	 * @param observer the observer to notify about changed files
+	 * @param debounceDelay the time in milliseconds to wait for further changes of a file
+	 * @return the watcher or <code>null</code>, if the file system does not support watching
+	 */
+	static FolderWatcher create(FolderObserver observer, long debounceDelay) {
+		try {
+			return new FolderWatcher(observer, debounceDelay);
+		} catch (IOException e) {
+			logger.info("Model folders cannot be watched, they are checked periodically instead: {}", e.getMessage());
+		} catch (UnsupportedOperationException e) {
+			logger.info("Model folders cannot be watched, they are checked periodically instead: {}", e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Starts watching a folder.
+	 *
+	 * @param foldername the name of the folder, as used in the configuration
+	 * @param folder the folder to watch
+	 * @return <code>true</code>, if changes of the folder are reported,
+	 *         <code>false</code> if the folder has to be checked periodically
+	 */
+	synchronized boolean watch(String foldername, File folder) {
+		if (!running) {
+			return false;
+		}
+		try {
+			WatchKey key = folder.toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+			folderNames.put(key, foldername);
+			if (!thread.isAlive()) {
+				thread.start();
+			}
+			logger.debug("Watching folder '{}' for changes", foldername);
+			return true;
+		} catch (IOException e) {
+			logger.info("Folder '{}' cannot be watched, it is checked periodically instead: {}", foldername,
+					e.getMessage());
+		} catch (UnsupportedOperationException e) {
+			logger.info("Folder '{}' cannot be watched, it is checked periodically instead: {}", foldername,
+					e.getMessage());
+		}
+		return false;
+	}
+
+	/**
+	 * Stops watching all folders. Changes which have already been detected are
+	 * still passed on.
+	 */
+	synchronized void unwatchAll() {
+		for (WatchKey key : folderNames.keySet()) {
+			key.cancel();
+		}
+		folderNames.clear();
+	}
+
+	/**
+	 * Stops watching all folders and terminates the watcher thread.
+	 */
+	synchronized void close() {
+		running = false;
+		unwatchAll();
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			logger.debug("Closing the watch service failed: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void run() {
+		while (running) {
+			try {
+				WatchKey key;
+				PendingChange next = getNextChange();
+				if (next == null) {
+					key = watchService.take();
+				} else {
+					key = watchService.poll(next.dueTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+				}
+				if (key != null) {
+					addPendingChanges(key);
+				}
+				processDueChanges();
+			} catch (InterruptedException e) {
+				break;
+			} catch (ClosedWatchServiceException e) {
+				break;
+			} catch (Throwable e) {
+				logger.error("An unexpected exception has occured", e);
+			}
+		}
+		running = false;
+	}
+
+	private PendingChange getNextChange() {
+		Iterator<PendingChange> iterator = pendingChanges.values().iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	private void addPendingChanges(WatchKey key) {
+		String foldername = folderNames.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (foldername == null) {
+				// the folder is no longer watched
+				continue;
+			}
+			if (event.kind() == OVERFLOW) {
+				logger.debug("Lost events for folder '{}', checking the whole folder", foldername);
+				addPendingChange(foldername, null);
+			} else {
+				String filename = event.context().toString();
+				logger.trace("File '{}' in folder '{}' has changed ({})", filename, foldername, event.kind());
+				addPendingChange(foldername, filename);
+			}
+		}
+		if (!key.reset() && folderNames.remove(key) != null) {
+			logger.warn("Folder '{}' is no longer watched, as it is not accessible anymore", foldername);
+		}
+	}
+
+	private void addPendingChange(String foldername, String filename) {
+		String id = filename == null ? foldername : foldername + File.separator + filename;
+		// remove first, so that the change moves to the end of the due order
+		pendingChanges.remove(id);
+		pendingChanges.put(id, new PendingChange(foldername, filename, System.currentTimeMillis() + debounceDelay));
+	}
+
+	private void processDueChanges() {
+		long now = System.currentTimeMillis();
+		Iterator<PendingChange> iterator = pendingChanges.values().iterator();
+		while (iterator.hasNext()) {
+			PendingChange change = iterator.next();
+			if (change.dueTime > now) {
+				break;
+			}
+			iterator.remove();
+			if (change.filename == null) {
+				observer.checkFolder(change.foldername);
+			} else {
+				observer.checkFile(change.foldername, change.filename);
+			}
+		}
+	}
+
+	private static class PendingChange {
+
+		final String foldername;
+
+		/* the name of the changed file or null, if the whole folder has to be checked */
+		final String filename;
+
+		final long dueTime;
+
+		PendingChange(String foldername, String filename, long dueTime) {
+			this.foldername = foldername;
+			this.filename = filename;
+			this.dueTime = dueTime;
+		}
+
+	}
+
+}
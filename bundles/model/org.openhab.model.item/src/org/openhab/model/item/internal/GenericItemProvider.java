@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -63,6 +64,12 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	
 	private Collection<ItemFactory> itemFactorys = new ArrayList<ItemFactory>();
 	
+	/**
+	 * the items which have been created from each model by their names, so that
+	 * unchanged items are kept (together with their state) when a model changes
+	 */
+	private Map<String, Map<String, ModelItemEntry>> itemsByModel = new HashMap<String, Map<String, ModelItemEntry>>();
+	
 	
 	public GenericItemProvider() {
 		// make sure that the DSL is correctly registered with EMF before we
@@ -89,6 +96,14 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	public void addItemFactory(ItemFactory factory) {
 		itemFactorys.add(factory);
 		dispatchBindingsPerItemType(null, factory.getSupportedItemTypes());
+		// items which could not be created so far may be supported by the new factory
+		List<String> modelNames;
+		synchronized (itemsByModel) {
+			modelNames = new ArrayList<String>(itemsByModel.keySet());
+		}
+		for (String modelName : modelNames) {
+			updateItemsFromModel(modelName, false);
+		}
 	}
 	
 	/**
@@ -130,24 +145,134 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	}
 	
 	private Collection<Item> getItemsFromModel(String modelName) {
+		List<Item> items = new ArrayList<Item>();
+		synchronized (itemsByModel) {
+			Map<String, ModelItemEntry> entries = itemsByModel.get(modelName);
+			if (entries == null) {
+				entries = createItemsFromModel(modelName, null);
+				itemsByModel.put(modelName, entries);
+			}
+			for (ModelItemEntry entry : entries.values()) {
+				items.add(entry.item);
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Creates the items of a model. Items whose definition has not changed
+	 * compared to the given previous items are kept instead of being created again.
+	 * 
+	 * @param modelName the name of the model
+	 * @param previousEntries the items previously created from this model, may be <code>null</code>
+	 * @return the items of the model by their names
+	 */
+	private Map<String, ModelItemEntry> createItemsFromModel(String modelName, Map<String, ModelItemEntry> previousEntries) {
 		logger.debug("Read items from model '{}'", modelName);
 		
-		List<Item> items = new ArrayList<Item>();
+		Map<String, ModelItemEntry> entries = new LinkedHashMap<String, ModelItemEntry>();
 		if (modelRepository != null) {
 			ItemModel model = (ItemModel) modelRepository.getModel(modelName);
 			if (model != null) {
 				for(ModelItem modelItem : model.getItems()) {
+					if (entries.containsKey(modelItem.getName())) {
+						logger.warn("Item '{}' is defined more than once in model '{}', ignoring the duplicate",
+							modelItem.getName(), modelName);
+						continue;
+					}
+					String definition = getItemDefinition(modelItem);
+					ModelItemEntry previousEntry = previousEntries != null ? previousEntries.get(modelItem.getName()) : null;
+					if (previousEntry != null && previousEntry.definition.equals(definition)) {
+						entries.put(modelItem.getName(), previousEntry);
+						continue;
+					}
 					Item item = createItemFromModelItem(modelItem);
 					if (item != null) {
 						for (String groupName : modelItem.getGroups()) {
 							item.getGroupNames().add(groupName);
 						}
-						items.add(item);
+						entries.put(modelItem.getName(), new ModelItemEntry(definition, item));
 					}
 				}
 			}
 		}
-		return items;
+		return entries;
+	}
+
+	/**
+	 * Returns everything of an item definition which goes into the created
+	 * {@link Item}; labels, icons and bindings are not part of the item itself.
+	 */
+	private String getItemDefinition(ModelItem modelItem) {
+		StringBuilder definition = new StringBuilder();
+		if (modelItem instanceof ModelGroupItem) {
+			ModelGroupItem modelGroupItem = (ModelGroupItem) modelItem;
+			definition.append("Group:").append(modelGroupItem.getType());
+			definition.append(':').append(modelGroupItem.getFunction()).append(modelGroupItem.getArgs());
+		} else {
+			definition.append(modelItem.getType());
+		}
+		definition.append(modelItem.getGroups());
+		return definition.toString();
+	}
+
+	/**
+	 * Compares the items of a model with the items previously created from it and
+	 * notifies the listeners about removed and added items. Changed items are
+	 * reported as removed and added again, unchanged items are not reported.
+	 * Only the initial load, when the provider has not created any items yet,
+	 * is announced at once as a change of all items instead of one event per
+	 * item; models added later are announced item by item, so that the items
+	 * of the other models are not initialized again.
+	 * 
+	 * @param modelName the name of the model
+	 * @param removed <code>true</code>, if the model has been removed
+	 */
+	private void updateItemsFromModel(String modelName, boolean removed) {
+		List<Item> removedItems = new ArrayList<Item>();
+		List<Item> addedItems = new ArrayList<Item>();
+		Map<String, ModelItemEntry> previousEntries;
+		boolean initialLoad;
+		synchronized (itemsByModel) {
+			initialLoad = itemsByModel.isEmpty();
+			previousEntries = itemsByModel.remove(modelName);
+			Map<String, ModelItemEntry> entries = new LinkedHashMap<String, ModelItemEntry>();
+			if (!removed) {
+				entries = createItemsFromModel(modelName, previousEntries);
+				itemsByModel.put(modelName, entries);
+			}
+			if (previousEntries != null) {
+				for (Map.Entry<String, ModelItemEntry> previousEntry : previousEntries.entrySet()) {
+					if (entries.get(previousEntry.getKey()) != previousEntry.getValue()) {
+						removedItems.add(previousEntry.getValue().item);
+					}
+				}
+			}
+			for (Map.Entry<String, ModelItemEntry> entry : entries.entrySet()) {
+				if (previousEntries == null || previousEntries.get(entry.getKey()) != entry.getValue()) {
+					addedItems.add(entry.getValue().item);
+				}
+			}
+		}
+		if (initialLoad && !removed) {
+			for (ItemsChangeListener listener : listeners) {
+				listener.allItemsChanged(this, null);
+			}
+			return;
+		}
+		logger.debug("Model '{}' has {} added and {} removed items", new Object[] { modelName,
+				addedItems.size(), removedItems.size() });
+		
+		for (Item item : removedItems) {
+			for (ItemsChangeListener listener : listeners) {
+				listener.itemRemoved(this, item);
+			}
+		}
+		for (Item item : addedItems) {
+			for (ItemsChangeListener listener : listeners) {
+				listener.itemAdded(this, item);
+			}
+		}
 	}
 
 	private void processBindingConfigsFromModel(String modelName) {
@@ -380,8 +505,9 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * Dispatches all binding configs and
-	 * fires all {@link ItemsChangeListener}s if {@code modelName} ends with "items".
+	 * Dispatches all binding configs and notifies all {@link ItemsChangeListener}s
+	 * about the items added to or removed from the model if {@code modelName} ends
+	 * with "items".
 	 */
 	@Override
 	public void modelChanged(String modelName, EventType type) {
@@ -389,9 +515,7 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 
 			processBindingConfigsFromModel(modelName);
 			
-			for (ItemsChangeListener listener : listeners) {
-			 	listener.allItemsChanged(this, null);
-			}
+			updateItemsFromModel(modelName, type == EventType.REMOVED);
 		}
 	}
 	
@@ -419,5 +543,21 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 		logger.debug("Couldn't find ItemFactory for item '{}' of type '{}'", itemName, itemType);
 		return null;
 	}
+	
+	/**
+	 * An item together with the definition it has been created from.
+	 */
+	private static class ModelItemEntry {
+		
+		final String definition;
+		
+		final Item item;
+		
+		ModelItemEntry(String definition, Item item) {
+			this.definition = definition;
+			this.item = item;
+		}
+		
+	}
 
 }
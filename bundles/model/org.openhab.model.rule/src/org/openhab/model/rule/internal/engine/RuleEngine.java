@@ -8,8 +8,6 @@
  */
 package org.openhab.model.rule.internal.engine;
 
-import static org.openhab.core.events.EventConstants.TOPIC_PREFIX;
-import static org.openhab.core.events.EventConstants.TOPIC_SEPERATOR;
 import static org.openhab.model.rule.internal.engine.RuleTriggerManager.TriggerTypes.CHANGE;
 import static org.openhab.model.rule.internal.engine.RuleTriggerManager.TriggerTypes.COMMAND;
 import static org.openhab.model.rule.internal.engine.RuleTriggerManager.TriggerTypes.SHUTDOWN;
@@ -18,10 +16,12 @@ import static org.openhab.model.rule.internal.engine.RuleTriggerManager.TriggerT
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Dictionary;
 import java.util.List;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.naming.QualifiedName;
+import org.openhab.core.events.ItemEvent;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -31,7 +31,6 @@ import org.openhab.core.items.StateChangeListener;
 import org.openhab.core.scriptengine.Script;
 import org.openhab.core.scriptengine.ScriptEngine;
 import org.openhab.core.scriptengine.ScriptExecutionException;
-import org.openhab.core.scriptengine.ScriptExecutionThread;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.EventType;
 import org.openhab.core.types.State;
@@ -39,6 +38,8 @@ import org.openhab.model.core.ModelRepository;
 import org.openhab.model.core.ModelRepositoryChangeListener;
 import org.openhab.model.rule.rules.Rule;
 import org.openhab.model.rule.rules.RuleModel;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedService;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.slf4j.Logger;
@@ -56,16 +57,21 @@ import com.google.common.collect.Lists;
  */
 @SuppressWarnings("restriction")
 public class RuleEngine implements EventHandler, ItemRegistryChangeListener, StateChangeListener,
-		ModelRepositoryChangeListener {
+		ModelRepositoryChangeListener, ManagedService {
 
 	static private final Logger logger = LoggerFactory.getLogger(RuleEngine.class);
 
+	/** the maximum time in milliseconds to wait for running rules when the rule engine is stopped */
+	private static final long SHUTDOWN_TIMEOUT = 10000L;
+
 	private ItemRegistry itemRegistry;
 	private ModelRepository modelRepository;
 	private ScriptEngine scriptEngine;
 
 	private RuleTriggerManager triggerManager;
 
+	private final RuleExecutor ruleExecutor = new RuleExecutor();
+
 	public void activate() {
 		triggerManager = new RuleTriggerManager();
 
@@ -99,6 +105,56 @@ public class RuleEngine implements EventHandler, ItemRegistryChangeListener, Sta
 		executeRules(triggerManager.getRules(SHUTDOWN));
 		triggerManager.clearAll();
 		triggerManager = null;
+		ruleExecutor.shutdown(SHUTDOWN_TIMEOUT);
+		logger.debug("Stopped rule engine: {}", ruleExecutor);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("rawtypes")
+	public void updated(Dictionary config) throws ConfigurationException {
+		if (config != null) {
+			String threadsString = (String) config.get("threads");
+			if (threadsString != null && !threadsString.trim().isEmpty()) {
+				ruleExecutor.setThreads(parsePositive("threads", threadsString));
+			}
+			String queueSizeString = (String) config.get("queuesize");
+			if (queueSizeString != null && !queueSizeString.trim().isEmpty()) {
+				ruleExecutor.setMaxQueueSize(parsePositive("queuesize", queueSizeString));
+			}
+			long statisticsInterval = 0;
+			String intervalString = (String) config.get("statisticsinterval");
+			if (intervalString != null && !intervalString.trim().isEmpty()) {
+				try {
+					statisticsInterval = Long.parseLong(intervalString.trim());
+				} catch (NumberFormatException e) {
+					throw new ConfigurationException("ruleengine:statisticsinterval",
+							"Invalid statistics interval: " + intervalString);
+				}
+			}
+			ruleExecutor.setStatisticsInterval(statisticsInterval);
+		}
+	}
+
+	private int parsePositive(String key, String value) throws ConfigurationException {
+		try {
+			int number = Integer.parseInt(value.trim());
+			if (number < 1) {
+				throw new ConfigurationException("ruleengine:" + key, "The value must be at least 1, but is '"
+						+ value + "'");
+			}
+			return number;
+		} catch (NumberFormatException e) {
+			throw new ConfigurationException("ruleengine:" + key, "The value must be a number, but is '" + value + "'");
+		}
+	}
+
+	/**
+	 * @return the executor which runs the triggered rules
+	 */
+	public RuleExecutor getRuleExecutor() {
+		return ruleExecutor;
 	}
 
 	public void setItemRegistry(ItemRegistry itemRegistry) {
@@ -214,20 +270,9 @@ public class RuleEngine implements EventHandler, ItemRegistryChangeListener, Sta
 	 * {@inheritDoc}
 	 */
 	public void handleEvent(Event event) {
-		String itemName = (String) event.getProperty("item");
-
-		String topic = event.getTopic();
-		String[] topicParts = topic.split(TOPIC_SEPERATOR);
-
-		if (!(topicParts.length > 2) || !topicParts[0].equals(TOPIC_PREFIX)) {
-			return; // we have received an event with an invalid topic
-		}
-		String operation = topicParts[1];
-
-		if (operation.equals(EventType.COMMAND.toString())) {
-			Command command = (Command) event.getProperty("command");
-			if (command != null)
-				receiveCommand(itemName, command);
+		ItemEvent itemEvent = ItemEvent.fromEvent(event);
+		if (itemEvent != null && itemEvent.getType() == EventType.COMMAND) {
+			receiveCommand(itemEvent.getItemName(), itemEvent.getCommand());
 		}
 	}
 
@@ -295,22 +340,21 @@ public class RuleEngine implements EventHandler, ItemRegistryChangeListener, Sta
 		return message;
 	}
 
-	protected synchronized void executeRule(Rule rule) {
+	protected void executeRule(Rule rule) {
 		executeRule(rule, new RuleEvaluationContext());
 	}
 
-	protected synchronized void executeRule(Rule rule, RuleEvaluationContext context) {
+	protected void executeRule(Rule rule, RuleEvaluationContext context) {
 		Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
 
 		logger.debug("Executing rule '{}'", rule.getName());
 
 		context.setGlobalContext(RuleContextHelper.getContext(rule));
 
-		ScriptExecutionThread thread = new ScriptExecutionThread(rule.getName(), script, context);
-		thread.start();
+		ruleExecutor.execute(rule, script, context);
 	}
 
-	protected synchronized void executeRules(Iterable<Rule> rules) {
+	protected void executeRules(Iterable<Rule> rules) {
 		for (Rule rule : rules) {
 			executeRule(rule);
 		}
@@ -0,0 +1,415 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.model.rule.internal.engine;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.xtext.xbase.interpreter.IEvaluationContext;
+import org.openhab.core.scriptengine.Script;
+import org.openhab.core.scriptengine.ScriptExecutionException;
+import org.openhab.model.rule.rules.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The RuleExecutor runs triggered rules on a bounded pool of worker threads.
+ *
+ * Executions of the same rule are serialized, i.e. a rule never runs
+ * concurrently with itself; further firings are queued and executed in the
+ * order they were triggered. The total number of pending executions is
+ * limited: if the limit is reached, callers are blocked until there is room
+ * again. Rules which are triggered from within a rule execution are always
+ * accepted, so that the workers can never block each other.
+ *
+ * Statistics about the queue depth, queue wait time and execution time are
+ * collected and can be retrieved through the getters of this class. They are
+ * also written to the log at a configurable interval.
+ *
+ * @since 1.9.0
+ */
+@SuppressWarnings("restriction")
+public class RuleExecutor {
+
+	private static final Logger logger = LoggerFactory.getLogger(RuleExecutor.class);
+
+	/** the default number of worker threads */
+	public static final int DEFAULT_THREADS = 10;
+
+	/** the default maximum number of pending rule executions */
+	public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+	private static final ThreadLocal<Boolean> isWorker = new ThreadLocal<Boolean>();
+
+	private final ThreadPoolExecutor executor;
+
+	/** the pending executions per rule; also serves as the lock for all queue handling */
+	private final Map<Rule, RuleQueue> ruleQueues = new HashMap<Rule, RuleQueue>();
+
+	private volatile int queueDepth = 0;
+
+	private volatile int maxQueueSize;
+
+	private volatile boolean queueFull = false;
+
+	private volatile boolean shutdown = false;
+
+	private final AtomicLong executionCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
+	private final AtomicLong maxWaitTime = new AtomicLong();
+	private final AtomicLong totalExecutionTime = new AtomicLong();
+	private final AtomicLong maxExecutionTime = new AtomicLong();
+
+	private ScheduledExecutorService statisticsScheduler;
+	private ScheduledFuture<?> statisticsTask;
+
+	public RuleExecutor() {
+		this(DEFAULT_THREADS, DEFAULT_QUEUE_SIZE);
+	}
+
+	public RuleExecutor(int threads, int maxQueueSize) {
+		this.maxQueueSize = maxQueueSize;
+		// the executor queue holds at most one entry per rule, so it does not need to be bounded
+		this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Changes the number of worker threads.
+	 *
+	 * @param threads the new number of worker threads
+	 * @throws IllegalArgumentException if <code>threads</code> is less than 1
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1, but is " + threads);
+		}
+		if (threads > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(threads);
+			executor.setCorePoolSize(threads);
+		} else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(threads);
+		}
+	}
+
+	/**
+	 * Changes the maximum number of pending rule executions.
+	 *
+	 * @param maxQueueSize the new maximum number of pending executions
+	 * @throws IllegalArgumentException if <code>maxQueueSize</code> is less than 1
+	 */
+	public void setMaxQueueSize(int maxQueueSize) {
+		if (maxQueueSize < 1) {
+			throw new IllegalArgumentException("The queue size must be at least 1, but is " + maxQueueSize);
+		}
+		synchronized (ruleQueues) {
+			this.maxQueueSize = maxQueueSize;
+			ruleQueues.notifyAll();
+		}
+	}
+
+	/**
+	 * Changes the interval at which the statistics are written to the log.
+	 *
+	 * @param minutes the interval in minutes, 0 disables the logging
+	 */
+	public synchronized void setStatisticsInterval(long minutes) {
+		if (statisticsTask != null) {
+			statisticsTask.cancel(false);
+			statisticsTask = null;
+		}
+		if (minutes <= 0 || shutdown) {
+			return;
+		}
+		if (statisticsScheduler == null) {
+			statisticsScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "RuleExecutor-Statistics");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		statisticsTask = statisticsScheduler.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				logger.info("Rule execution statistics: {}", RuleExecutor.this);
+			}
+		}, minutes, minutes, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Queues the given script of a rule for execution.
+	 *
+	 * @param rule the rule the script belongs to
+	 * @param script the script to execute
+	 * @param context the evaluation context to use for the execution
+	 */
+	public void execute(Rule rule, Script script, IEvaluationContext context) {
+		RuleExecution execution = new RuleExecution(rule, script, context);
+		synchronized (ruleQueues) {
+			if (Boolean.TRUE != isWorker.get()) {
+				waitForCapacity();
+			}
+			if (shutdown) {
+				logger.debug("Rule executor has been shut down, ignoring execution of rule '{}'", rule.getName());
+				return;
+			}
+			RuleQueue ruleQueue = ruleQueues.get(rule);
+			if (ruleQueue == null) {
+				ruleQueue = new RuleQueue(rule);
+				ruleQueues.put(rule, ruleQueue);
+			}
+			ruleQueue.pending.add(execution);
+			queueDepth++;
+			if (!ruleQueue.scheduled) {
+				ruleQueue.scheduled = true;
+				executor.execute(ruleQueue);
+			}
+		}
+	}
+
+	/**
+	 * Blocks the calling thread as long as the maximum number of pending
+	 * executions is reached. Must be called while holding the queue lock.
+	 */
+	private void waitForCapacity() {
+		while (!shutdown && queueDepth >= maxQueueSize) {
+			if (!queueFull) {
+				queueFull = true;
+				logger.warn("Rule execution queue is full ({} pending executions), delaying further rule triggers.",
+						queueDepth);
+			}
+			try {
+				ruleQueues.wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if (queueFull && queueDepth < maxQueueSize / 2) {
+			queueFull = false;
+			logger.info("Rule execution queue has recovered ({} pending executions).", queueDepth);
+		}
+	}
+
+	/**
+	 * Stops accepting new executions. Rules that are already queued are still
+	 * executed; this method waits up to the given time for them to finish.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds
+	 */
+	public void shutdown(long timeout) {
+		synchronized (ruleQueues) {
+			shutdown = true;
+			ruleQueues.notifyAll();
+		}
+		synchronized (this) {
+			if (statisticsScheduler != null) {
+				statisticsScheduler.shutdownNow();
+				statisticsScheduler = null;
+				statisticsTask = null;
+			}
+		}
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+				logger.warn("Not all rules have finished their execution within {} ms.", timeout);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the number of rule executions which are waiting for a worker thread
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * @return the number of rule executions that have been completed
+	 */
+	public long getExecutionCount() {
+		return executionCount.get();
+	}
+
+	/**
+	 * @return the average time in milliseconds a rule execution waited in the queue
+	 */
+	public double getAverageWaitTime() {
+		long count = executionCount.get();
+		return count > 0 ? totalWaitTime.get() / (count * 1000000.0) : 0.0;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds a rule execution waited in the queue
+	 */
+	public double getMaxWaitTime() {
+		return maxWaitTime.get() / 1000000.0;
+	}
+
+	/**
+	 * @return the average execution time of a rule in milliseconds
+	 */
+	public double getAverageExecutionTime() {
+		long count = executionCount.get();
+		return count > 0 ? totalExecutionTime.get() / (count * 1000000.0) : 0.0;
+	}
+
+	/**
+	 * @return the maximum execution time of a rule in milliseconds
+	 */
+	public double getMaxExecutionTime() {
+		return maxExecutionTime.get() / 1000000.0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("RuleExecutor [threads=%d, queueDepth=%d, executions=%d, "
+				+ "avgWait=%.2fms, maxWait=%.2fms, avgExecution=%.2fms, maxExecution=%.2fms]",
+				executor.getMaximumPoolSize(), getQueueDepth(), getExecutionCount(), getAverageWaitTime(),
+				getMaxWaitTime(), getAverageExecutionTime(), getMaxExecutionTime());
+	}
+
+	private void run(RuleExecution execution) {
+		long startTime = System.nanoTime();
+		long waitTime = startTime - execution.queuedTime;
+
+		Thread thread = Thread.currentThread();
+		String threadName = thread.getName();
+		thread.setName(execution.rule.getName());
+		try {
+			execution.script.execute(execution.context);
+		} catch (ScriptExecutionException e) {
+			String msg = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+			if (msg == null) {
+				logger.error("Error during the execution of rule '{}'", execution.rule.getName(), e.getCause());
+			} else {
+				logger.error("Error during the execution of rule '{}': {}", new String[] { execution.rule.getName(), msg });
+			}
+		} catch (RuntimeException e) {
+			logger.error("Error during the execution of rule '" + execution.rule.getName() + "'", e);
+		} finally {
+			thread.setName(threadName);
+		}
+
+		long executionTime = System.nanoTime() - startTime;
+		executionCount.incrementAndGet();
+		totalWaitTime.addAndGet(waitTime);
+		totalExecutionTime.addAndGet(executionTime);
+		updateMax(maxWaitTime, waitTime);
+		updateMax(maxExecutionTime, executionTime);
+		logger.trace("Rule '{}' waited {} ms and was executed in {} ms", new Object[] { execution.rule.getName(),
+				waitTime / 1000000, executionTime / 1000000 });
+	}
+
+	private static void updateMax(AtomicLong max, long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * A single triggered execution of a rule.
+	 */
+	private static class RuleExecution {
+		final Rule rule;
+		final Script script;
+		final IEvaluationContext context;
+		final long queuedTime = System.nanoTime();
+
+		RuleExecution(Rule rule, Script script, IEvaluationContext context) {
+			this.rule = rule;
+			this.script = script;
+			this.context = context;
+		}
+	}
+
+	/**
+	 * Holds the pending executions of a single rule. It is scheduled on the
+	 * executor at most once at a time, which serializes the executions of the rule.
+	 */
+	private class RuleQueue implements Runnable {
+		final Rule rule;
+		final Queue<RuleExecution> pending = new LinkedList<RuleExecution>();
+		boolean scheduled = false;
+
+		RuleQueue(Rule rule) {
+			this.rule = rule;
+		}
+
+		public void run() {
+			while (true) {
+				RuleExecution execution;
+				synchronized (ruleQueues) {
+					execution = pending.poll();
+					if (execution == null) {
+						scheduled = false;
+						ruleQueues.remove(rule);
+						return;
+					}
+					queueDepth--;
+					ruleQueues.notifyAll();
+				}
+
+				RuleExecutor.this.run(execution);
+
+				synchronized (ruleQueues) {
+					if (pending.isEmpty()) {
+						scheduled = false;
+						ruleQueues.remove(rule);
+						return;
+					}
+					try {
+						// give the other rules a chance to run before the next execution of this one
+						executor.execute(this);
+						return;
+					} catch (RejectedExecutionException e) {
+						// the executor is shutting down, so we continue with this thread
+					}
+				}
+			}
+		}
+	}
+
+	private static class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(final Runnable runnable) {
+			Thread thread = new Thread(new Runnable() {
+				public void run() {
+					isWorker.set(Boolean.TRUE);
+					runnable.run();
+				}
+			}, "RuleExecutor-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
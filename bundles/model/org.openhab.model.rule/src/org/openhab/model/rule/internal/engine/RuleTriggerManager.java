@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.openhab.core.items.Item;
@@ -86,6 +88,22 @@ public class RuleTriggerManager {
 	private List<Rule> systemShutdownTriggeredRules = Lists.newArrayList();
 	private List<Rule> timerEventTriggeredRules = Lists.newArrayList();
 
+	// precomputed trigger lists per item name, derived from the lookup maps above
+	private volatile Map<String, ItemTriggers> updateTriggers = Maps.newHashMap();
+	private volatile Map<String, ItemTriggers> changedTriggers = Maps.newHashMap();
+	private volatile Map<String, ItemTriggers> commandTriggers = Maps.newHashMap();
+
+	// caches for the parsed states and commands of trigger conditions, keyed by the accepted types of an item
+	private final ConcurrentMap<List<Class<? extends State>>, ConcurrentMap<String, Type>> parsedStates = new ConcurrentHashMap<List<Class<? extends State>>, ConcurrentMap<String, Type>>();
+	private final ConcurrentMap<List<Class<? extends Command>>, ConcurrentMap<String, Type>> parsedCommands = new ConcurrentHashMap<List<Class<? extends Command>>, ConcurrentMap<String, Type>>();
+
+	/** marks trigger conditions which cannot be parsed for the accepted types of an item */
+	private static final Type UNPARSEABLE = new Type() {
+		public String format(String pattern) {
+			return null;
+		}
+	};
+
 	// the scheduler used for timer events
 	private Scheduler scheduler;
 	
@@ -154,89 +172,52 @@ public class RuleTriggerManager {
 		return internalGetRules(triggerType, item, null, command);
 	}
 
-	private Iterable<Rule> getAllRules(TriggerTypes type, String itemName) {
-		switch(type) {
-			case STARTUP:  return systemStartupTriggeredRules;
-			case SHUTDOWN: return systemShutdownTriggeredRules;
-			case UPDATE:   return updateEventTriggeredRules.get(itemName);
-			case CHANGE:   return changedEventTriggeredRules.get(itemName);
-			case COMMAND:  return commandEventTriggeredRules.get(itemName);
-			default:       return Sets.newHashSet();
-		}
-	}
-
 	private Iterable<Rule> internalGetRules(TriggerTypes triggerType, Item item, Type oldType, Type newType) {
 		List<Rule> result = Lists.newArrayList();
-		Iterable<Rule> rules = getAllRules(triggerType, item.getName());
-		if(rules==null) {
-			rules = Lists.newArrayList();
-		}
+		ItemTriggers triggers;
 		switch(triggerType) {
 		case STARTUP:  return systemStartupTriggeredRules;
 		case SHUTDOWN: return systemShutdownTriggeredRules;
 		case TIMER :   return timerEventTriggeredRules;
 		case UPDATE:   
-			if(newType instanceof State) {
+			triggers = updateTriggers.get(item.getName());
+			if(triggers!=null && newType instanceof State) {
 				State state = (State) newType;
-				for(Rule rule : rules) {
-					for(EventTrigger t : rule.getEventtrigger()) {
-						if (t instanceof UpdateEventTrigger) {
-							UpdateEventTrigger ut = (UpdateEventTrigger) t;
-							if(ut.getItem().equals(item.getName())) {
-								if(ut.getState()!=null) {
-									State triggerState = TypeParser.parseState(item.getAcceptedDataTypes(), ut.getState());
-									if(!state.equals(triggerState)) {
-										continue;
-									}
-								}
-								result.add(rule);
-							}
-						}
+				result.addAll(triggers.unconditionalRules);
+				for(ConditionalTrigger t : triggers.conditionalTriggers) {
+					if(state.equals(getTriggerState(item, t.value))) {
+						result.add(t.rule);
 					}
 				}
 			}
 			break;
 		case CHANGE:
-			if(newType instanceof State && oldType instanceof State) {
+			triggers = changedTriggers.get(item.getName());
+			if(triggers!=null && newType instanceof State && oldType instanceof State) {
 				State newState = (State) newType;
 				State oldState = (State) oldType;
-				for(Rule rule : rules) {
-					for(EventTrigger t : rule.getEventtrigger()) {
-						if (t instanceof ChangedEventTrigger) {
-							ChangedEventTrigger ct = (ChangedEventTrigger) t;						
-							if(ct.getItem().equals(item.getName())) {
-								if(ct.getOldState()!=null) {
-									State triggerOldState = TypeParser.parseState(item.getAcceptedDataTypes(), ct.getOldState());
-									if(!oldState.equals(triggerOldState)) {
-										continue;
-									}								
-								}
-								if(ct.getNewState()!=null) {
-									State triggerNewState = TypeParser.parseState(item.getAcceptedDataTypes(), ct.getNewState());
-									if(!newState.equals(triggerNewState)) {
-										continue;
-									}								
-								}
-								result.add(rule);
-							}
-						}
+				result.addAll(triggers.unconditionalRules);
+				for(ConditionalTrigger t : triggers.conditionalTriggers) {
+					if(t.previousValue!=null && !oldState.equals(getTriggerState(item, t.previousValue))) {
+						continue;
 					}
+					if(t.value!=null && !newState.equals(getTriggerState(item, t.value))) {
+						continue;
+					}
+					result.add(t.rule);
 				}
 			}
 			break;
 		case COMMAND:  
-			if(newType instanceof Command) {
+			triggers = commandTriggers.get(item.getName());
+			if(triggers!=null && newType instanceof Command) {
 				Command command = (Command) newType;
-				for(Rule rule : rules) {
-					for(EventTrigger t : rule.getEventtrigger()) {
-						if (t instanceof CommandEventTrigger) {
-							CommandEventTrigger ct = (CommandEventTrigger) t;
-							Command triggerCommand = TypeParser.parseCommand(item.getAcceptedCommandTypes(), ct.getCommand());
-							if(ct.getItem().equals(item.getName()) &&
-									(triggerCommand==null || command.equals(triggerCommand))) {
-								result.add(rule);
-							}
-						}
+				result.addAll(triggers.unconditionalRules);
+				for(ConditionalTrigger t : triggers.conditionalTriggers) {
+					Type triggerCommand = getTriggerCommand(item, t.value);
+					// commands which cannot be parsed do not restrict the trigger
+					if(triggerCommand==UNPARSEABLE || command.equals(triggerCommand)) {
+						result.add(t.rule);
 					}
 				}
 			}
@@ -245,12 +226,134 @@ public class RuleTriggerManager {
 		return result;
 	}
 
+	/**
+	 * Returns the state that a trigger condition stands for with respect to the accepted
+	 * data types of the given item. Each condition is parsed only once per set of types.
+	 * 
+	 * @param item the item the trigger refers to
+	 * @param value the state as given in the rule
+	 * @return the parsed state or {@link #UNPARSEABLE}
+	 */
+	private Type getTriggerState(Item item, String value) {
+		List<Class<? extends State>> types = item.getAcceptedDataTypes();
+		ConcurrentMap<String, Type> states = parsedStates.get(types);
+		if(states==null) {
+			states = new ConcurrentHashMap<String, Type>();
+			ConcurrentMap<String, Type> existingStates = parsedStates.putIfAbsent(types, states);
+			if(existingStates!=null) {
+				states = existingStates;
+			}
+		}
+		Type state = states.get(value);
+		if(state==null) {
+			state = TypeParser.parseState(types, value);
+			if(state==null) {
+				state = UNPARSEABLE;
+			}
+			states.put(value, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the command that a trigger condition stands for with respect to the accepted
+	 * command types of the given item. Each condition is parsed only once per set of types.
+	 * 
+	 * @param item the item the trigger refers to
+	 * @param value the command as given in the rule
+	 * @return the parsed command or {@link #UNPARSEABLE}
+	 */
+	private Type getTriggerCommand(Item item, String value) {
+		List<Class<? extends Command>> types = item.getAcceptedCommandTypes();
+		ConcurrentMap<String, Type> commands = parsedCommands.get(types);
+		if(commands==null) {
+			commands = new ConcurrentHashMap<String, Type>();
+			ConcurrentMap<String, Type> existingCommands = parsedCommands.putIfAbsent(types, commands);
+			if(existingCommands!=null) {
+				commands = existingCommands;
+			}
+		}
+		Type command = commands.get(value);
+		if(command==null) {
+			command = TypeParser.parseCommand(types, value);
+			if(command==null) {
+				command = UNPARSEABLE;
+			}
+			commands.put(value, command);
+		}
+		return command;
+	}
+
+	/**
+	 * Recalculates the trigger lists per item from the lookup maps of the
+	 * event triggered rules. The new lists replace the old ones at once.
+	 */
+	private synchronized void updateItemTriggers() {
+		Map<String, ItemTriggers> newUpdateTriggers = Maps.newHashMap();
+		for(Map.Entry<String, Set<Rule>> entry : updateEventTriggeredRules.entrySet()) {
+			ItemTriggers triggers = new ItemTriggers();
+			for(Rule rule : entry.getValue()) {
+				for(EventTrigger t : rule.getEventtrigger()) {
+					if(t instanceof UpdateEventTrigger && ((UpdateEventTrigger) t).getItem().equals(entry.getKey())) {
+						String state = ((UpdateEventTrigger) t).getState();
+						if(state==null) {
+							triggers.unconditionalRules.add(rule);
+						} else {
+							triggers.conditionalTriggers.add(new ConditionalTrigger(rule, state, null));
+						}
+					}
+				}
+			}
+			newUpdateTriggers.put(entry.getKey(), triggers);
+		}
+
+		Map<String, ItemTriggers> newChangedTriggers = Maps.newHashMap();
+		for(Map.Entry<String, Set<Rule>> entry : changedEventTriggeredRules.entrySet()) {
+			ItemTriggers triggers = new ItemTriggers();
+			for(Rule rule : entry.getValue()) {
+				for(EventTrigger t : rule.getEventtrigger()) {
+					if(t instanceof ChangedEventTrigger && ((ChangedEventTrigger) t).getItem().equals(entry.getKey())) {
+						ChangedEventTrigger ct = (ChangedEventTrigger) t;
+						if(ct.getOldState()==null && ct.getNewState()==null) {
+							triggers.unconditionalRules.add(rule);
+						} else {
+							triggers.conditionalTriggers.add(new ConditionalTrigger(rule, ct.getNewState(), ct.getOldState()));
+						}
+					}
+				}
+			}
+			newChangedTriggers.put(entry.getKey(), triggers);
+		}
+
+		Map<String, ItemTriggers> newCommandTriggers = Maps.newHashMap();
+		for(Map.Entry<String, Set<Rule>> entry : commandEventTriggeredRules.entrySet()) {
+			ItemTriggers triggers = new ItemTriggers();
+			for(Rule rule : entry.getValue()) {
+				for(EventTrigger t : rule.getEventtrigger()) {
+					if(t instanceof CommandEventTrigger && ((CommandEventTrigger) t).getItem().equals(entry.getKey())) {
+						String command = ((CommandEventTrigger) t).getCommand();
+						if(command==null) {
+							triggers.unconditionalRules.add(rule);
+						} else {
+							triggers.conditionalTriggers.add(new ConditionalTrigger(rule, command, null));
+						}
+					}
+				}
+			}
+			newCommandTriggers.put(entry.getKey(), triggers);
+		}
+
+		updateTriggers = newUpdateTriggers;
+		changedTriggers = newChangedTriggers;
+		commandTriggers = newCommandTriggers;
+	}
+
 	/**
 	 * Removes all rules with a given trigger type from the mapping tables.
 	 * 
 	 * @param type the trigger type 
 	 */
-	public void clear(TriggerTypes type) {
+	public synchronized void clear(TriggerTypes type) {
 		switch(type) {
 			case STARTUP:  	systemStartupTriggeredRules.clear(); break;
 			case SHUTDOWN: 	systemShutdownTriggeredRules.clear(); break;
@@ -262,12 +365,15 @@ public class RuleTriggerManager {
 							}
 							timerEventTriggeredRules.clear(); break;
 		}
+		if(isItemTriggerType(type)) {
+			updateItemTriggers();
+		}
 	}
 
 	/**
 	 * Removes all rules from all mapping tables.
 	 */
-	public void clearAll() {
+	public synchronized void clearAll() {
 		clear(STARTUP);
 		clear(SHUTDOWN);
 		clear(UPDATE);
@@ -282,6 +388,11 @@ public class RuleTriggerManager {
 	 * @param rule the rule to add
 	 */
 	public synchronized void addRule(Rule rule) {
+		internalAddRule(rule);
+		updateItemTriggers();
+	}
+
+	private void internalAddRule(Rule rule) {
 		for(EventTrigger t : rule.getEventtrigger()) {
 			// add the rule to the lookup map for the trigger kind
 			if(t instanceof SystemOnStartupTrigger) {
@@ -329,7 +440,7 @@ public class RuleTriggerManager {
 	 * @param type the trigger type for which the rule should be removed
 	 * @param rule the rule to add
 	 */
-	public void removeRule(TriggerTypes type, Rule rule) {
+	public synchronized void removeRule(TriggerTypes type, Rule rule) {
 		switch(type) {
 			case STARTUP:  	systemStartupTriggeredRules.remove(rule); break;
 			case SHUTDOWN: 	systemShutdownTriggeredRules.remove(rule); break;
@@ -340,6 +451,17 @@ public class RuleTriggerManager {
 							removeTimerRule(rule);
 							break;
 		}
+		if(isItemTriggerType(type)) {
+			updateItemTriggers();
+		}
+	}
+
+	/**
+	 * @return <code>true</code>, if rules of the given trigger type are
+	 * contained in the trigger lists per item
+	 */
+	private static boolean isItemTriggerType(TriggerTypes type) {
+		return type==UPDATE || type==CHANGE || type==COMMAND;
 	}
 	
 	/**
@@ -347,10 +469,11 @@ public class RuleTriggerManager {
 	 * 
 	 * @param model the rule model
 	 */
-	public void addRuleModel(RuleModel model) {
+	public synchronized void addRuleModel(RuleModel model) {
 		for(Rule rule : model.getRules()) {
-			addRule(rule);
+			internalAddRule(rule);
 		}
+		updateItemTriggers();
 	}
 
 	/**
@@ -358,13 +481,14 @@ public class RuleTriggerManager {
 	 * 
 	 * @param ruleModel the rule model
 	 */
-	public void removeRuleModel(RuleModel ruleModel) {
+	public synchronized void removeRuleModel(RuleModel ruleModel) {
 		removeRules(UPDATE, updateEventTriggeredRules.values(), ruleModel);
 		removeRules(CHANGE, changedEventTriggeredRules.values(), ruleModel);
 		removeRules(COMMAND, commandEventTriggeredRules.values(), ruleModel);
 		removeRules(STARTUP, Collections.singletonList(systemStartupTriggeredRules), ruleModel);
 		removeRules(SHUTDOWN, Collections.singletonList(systemShutdownTriggeredRules), ruleModel);		
 		removeRules(TIMER, Collections.singletonList(timerEventTriggeredRules), ruleModel);		
+		updateItemTriggers();
 	}
 
 	private void removeRules(TriggerTypes type, Collection<? extends Collection<Rule>> ruleSets, RuleModel model) {
@@ -474,4 +598,29 @@ public class RuleTriggerManager {
 		}
 		return jobIdentity;
 	}
+
+	/**
+	 * The event triggers of all rules for a single item and trigger type.
+	 * Rules without any condition on the state or command are kept apart, so
+	 * that they do not need to be checked at all.
+	 */
+	private static class ItemTriggers {
+		final List<Rule> unconditionalRules = Lists.newArrayList();
+		final List<ConditionalTrigger> conditionalTriggers = Lists.newArrayList();
+	}
+
+	/**
+	 * A trigger of a rule that only fires for a certain state or command.
+	 */
+	private static class ConditionalTrigger {
+		final Rule rule;
+		final String value;
+		final String previousValue;
+
+		ConditionalTrigger(Rule rule, String value, String previousValue) {
+			this.rule = rule;
+			this.value = value;
+			this.previousValue = previousValue;
+		}
+	}
 }
@@ -13,6 +13,8 @@ import static com.google.common.collect.Iterables.filter;
 import java.io.IOException;
 import java.util.List;
 
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
@@ -73,8 +75,28 @@ public class ScriptEngineImpl implements ScriptEngine {
 
 	/**
 	 * {@inheritDoc}
+	 * 
+	 * The created script is cached on the expression itself, so that further calls for the same
+	 * expression return the very same instance. As the cache is attached as an EMF adapter, it is
+	 * dropped together with the expression when its model is unloaded or refreshed.
 	 */
 	public Script newScriptFromXExpression(XExpression expression) {
+		if(expression==null) {
+			return createScript(null);
+		}
+		synchronized(expression) {
+			for(Adapter adapter : expression.eAdapters()) {
+				if(adapter instanceof ScriptAdapter) {
+					return ((ScriptAdapter) adapter).getScript();
+				}
+			}
+			ScriptImpl script = createScript(expression);
+			expression.eAdapters().add(new ScriptAdapter(script));
+			return script;
+		}
+	}
+
+	private ScriptImpl createScript(XExpression expression) {
 		ScriptImpl script = guiceInjector.getInstance(ScriptImpl.class);
 		script.setXExpression(expression);
 		return script;
@@ -142,4 +164,21 @@ public class ScriptEngineImpl implements ScriptEngine {
 		return issues;
 	}
 
+	/**
+	 * Inner class that attaches a prepared script to the expression it has been created for
+	 */
+	private static class ScriptAdapter extends AdapterImpl {
+
+		private final ScriptImpl script;
+
+		public ScriptAdapter(ScriptImpl script) {
+			this.script = script;
+		}
+
+		public ScriptImpl getScript() {
+			return script;
+		}
+
+	}
+
 }
@@ -13,6 +13,7 @@ import static org.apache.commons.lang.StringUtils.isBlank;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -21,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.influxdb.InfluxDB;
 import org.influxdb.InfluxDBFactory;
+import org.influxdb.dto.BatchPoints;
 import org.influxdb.dto.Point;
 import org.influxdb.dto.Pong;
 import org.influxdb.dto.Query;
@@ -45,9 +47,11 @@ import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.PointType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.persistence.BatchPersistenceService;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.PersistenceEntry;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.State;
@@ -68,11 +72,14 @@ import retrofit.RetrofitError;
  * The defaults for the database name, the database user and the database url are "openhab",
  * "openhab" and "http://127.0.0.1:8086".
  *
+ * The states queued by the persistence manager are written with a single request per batch
+ * and with the time they have been queued at.
+ *
  * @author Theo Weiss - Initial Contribution, rewrite of org.openhab.persistence.influxdb > 0.9
  *         support
  * @since 1.8.0
  */
-public class InfluxDBPersistenceService implements QueryablePersistenceService {
+public class InfluxDBPersistenceService implements QueryablePersistenceService, BatchPersistenceService {
 
     private static final String DEFAULT_URL = "http://127.0.0.1:8086";
     private static final String DEFAULT_DB = "openhab";
@@ -235,10 +242,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
             state = item.getState();
             logger.trace("Tried to get item from item class {}, state is {}", item.getClass(), state.toString());
         }
-        Object value = stateToObject(state);
-        logger.trace("storing {} in influxdb value {}, {}", name, value, item);
-        Point point = Point.measurement(name).field(VALUE_COLUMN_NAME, value).time(System.currentTimeMillis(), timeUnit)
-                .build();
+        Point point = createPoint(name, item, state, System.currentTimeMillis());
         try {
             influxDB.write(dbName, "default", point);
         } catch (RuntimeException e) {
@@ -247,6 +251,50 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Stores the entries with a single request. The persistence manager collects the entries
+     * according to the 'persistence-queue' settings, e.g. 'persistence-queue:influxdb.flushinterval'
+     * in openhab.cfg.
+     */
+    @Override
+    public void store(Collection<PersistenceEntry> entries) {
+        if (!isProperlyConfigured) {
+            logger.warn("Configuration for influxdb not yet loaded or broken.");
+            return;
+        }
+
+        if (!isConnected()) {
+            logger.warn("InfluxDB is not yet connected");
+            return;
+        }
+
+        BatchPoints batchPoints = BatchPoints.database(dbName).retentionPolicy("default").build();
+        for (PersistenceEntry entry : entries) {
+            if (entry.getState() instanceof UnDefType) {
+                continue;
+            }
+            // the queued state is stored as it is, as color, dimmer and rollershutter items already
+            // map the states they are set to to HSB and percent values
+            String name = (entry.getAlias() != null) ? entry.getAlias() : entry.getItem().getName();
+            batchPoints.point(createPoint(name, entry.getItem(), entry.getState(), entry.getTimestamp().getTime()));
+        }
+        if (batchPoints.getPoints().isEmpty()) {
+            return;
+        }
+        try {
+            influxDB.write(batchPoints);
+        } catch (RuntimeException e) {
+            logger.error("storing failed with exception for {} items", batchPoints.getPoints().size());
+            handleDatabaseException(e);
+        }
+    }
+
+    private Point createPoint(String name, Item item, State state, long time) {
+        Object value = stateToObject(state);
+        logger.trace("storing {} in influxdb value {}, {}", name, value, item);
+        return Point.measurement(name).field(VALUE_COLUMN_NAME, value).time(time, timeUnit).build();
+    }
+
     private void handleDatabaseException(Exception e) {
         if (e instanceof RetrofitError) {
             // e.g. raised if influxdb is not running
@@ -12,11 +12,16 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
@@ -39,9 +44,11 @@ import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.persistence.AggregatingPersistenceService.AggregateFunction;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.PersistenceEntry;
 import org.openhab.core.types.State;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
@@ -67,6 +74,10 @@ public class JdbcBaseDAO {
     protected String SQL_GET_ITEM_TABLES;
     protected String SQL_CREATE_ITEM_TABLE;
     protected String SQL_INSERT_ITEM_VALUE;
+    protected String SQL_INSERT_ITEM_VALUES;
+
+    // the statements to insert item values, per table
+    private final Map<String, String> insertItemValuesSqls = new ConcurrentHashMap<String, String>();
 
     /********
      * INIT *
@@ -99,6 +110,7 @@ public class JdbcBaseDAO {
         SQL_GET_ITEM_TABLES = "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE' AND table_schema=#jdbcUriDatabaseName# AND NOT table_name=#itemsManageTable#";
         SQL_CREATE_ITEM_TABLE = "CREATE TABLE IF NOT EXISTS #tableName# (time TIMESTAMP NOT NULL, value #dbType#, PRIMARY KEY(time))";
         SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( NOW(), ? ) ON DUPLICATE KEY UPDATE VALUE= ?";
+        SQL_INSERT_ITEM_VALUES = "INSERT INTO #tableName# (TIME, VALUE) VALUES( ?, ? ) ON DUPLICATE KEY UPDATE VALUE= VALUES(VALUE)";
     }
 
     /**
@@ -276,6 +288,40 @@ public class JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    /**
+     * Inserts several values into the table of an item with a single JDBC batch.
+     * The values are inserted with the time of their entries instead of the
+     * current time of the database. If several entries have the same time, only
+     * the last one is inserted, as the time is the primary key of the table and
+     * a duplicate would make the whole batch fail on databases without an upsert.
+     *
+     * @param tableName the table of the item
+     * @param entries the entries to insert, which must all belong to the item of the table
+     */
+    public void doStoreItemValues(String tableName, List<PersistenceEntry> entries) {
+        Map<Object, Object[]> paramsByTime = new LinkedHashMap<Object, Object[]>();
+        ItemVO vo = null;
+        for (PersistenceEntry entry : entries) {
+            vo = storeItemValueProvider(entry.getItem(), entry.getState(), new ItemVO(tableName, null));
+            Object time = timeParameterProvider(entry.getTimestamp());
+            // remove an entry with the same time first, so that the order of the remaining entries is kept
+            paramsByTime.remove(time);
+            paramsByTime.put(time, new Object[] { time, vo.getValue() });
+        }
+        if (paramsByTime.size() < entries.size()) {
+            logger.debug("JDBC::doStoreItemValues: skipped {} values of table {} with a duplicate time",
+                    entries.size() - paramsByTime.size(), tableName);
+        }
+        Object[][] params = paramsByTime.values().toArray(new Object[paramsByTime.size()][]);
+        String sql = insertItemValuesSqls.get(tableName);
+        if (sql == null) {
+            sql = storeItemValuesProvider(vo);
+            insertItemValuesSqls.put(tableName, sql);
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} values={}", sql, entries.size());
+        Yank.executeBatch(sql, params);
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name) {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name);
@@ -289,6 +335,97 @@ public class JdbcBaseDAO {
         return items;
     }
 
+    /**
+     * Retrieves the most recent row of several item tables with a single query.
+     * All tables must use the same data type for their values.
+     *
+     * @param itemsByTable the tables to query, mapped to the items used to convert their values
+     * @return the most recent historic item per table name
+     */
+    public Map<String, HistoricItem> doGetLatestItemValues(Map<String, Item> itemsByTable) {
+        String sql = latestItemValuesProvider(itemsByTable.keySet());
+        logger.debug("JDBC::doGetLatestItemValues sql={}", sql);
+        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+
+        Map<String, HistoricItem> items = new HashMap<String, HistoricItem>();
+        for (Object[] row : m) {
+            String table = row[0].toString().trim();
+            Item item = itemsByTable.get(table);
+            if (item != null && row[2] != null) {
+                items.put(table, new JdbcItem(item.getName(), getState(item, row[2]), objectAsDate(row[1])));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Computes aggregates over the numerical values of an item table within the time range of a filter.
+     * COUNT, SUM and AVG are computed with a single query.
+     *
+     * @param item the item used to convert the values of the table
+     * @param filter the filter that determines the time range
+     * @param table the table to aggregate
+     * @param functions the aggregate functions to compute
+     * @return the aggregate of each function, which is <code>null</code> if there are no values in the time range
+     */
+    public Map<AggregateFunction, HistoricItem> doGetAggregates(Item item, FilterCriteria filter, String table,
+            Set<AggregateFunction> functions) {
+        Map<AggregateFunction, HistoricItem> aggregates = new EnumMap<AggregateFunction, HistoricItem>(
+                AggregateFunction.class);
+        boolean sumQueried = false;
+        for (AggregateFunction function : functions) {
+            switch (function) {
+                case COUNT:
+                case SUM:
+                case AVG:
+                    if (!sumQueried) {
+                        sumQueried = true;
+                        putSumAggregates(item, filter, table, functions, aggregates);
+                    }
+                    break;
+                default:
+                    Object[] row = queryAggregate(filter, table, function);
+                    aggregates.put(function, row == null || row[1] == null ? null
+                            : new JdbcItem(item.getName(), getState(item, row[1]), objectAsDate(row[0])));
+                    break;
+            }
+        }
+        return aggregates;
+    }
+
+    private void putSumAggregates(Item item, FilterCriteria filter, String table, Set<AggregateFunction> functions,
+            Map<AggregateFunction, HistoricItem> aggregates) {
+        Object[] row = queryAggregate(filter, table, AggregateFunction.SUM);
+        long count = row == null || row[0] == null ? 0 : ((Number) row[0]).longValue();
+        if (count == 0) {
+            for (AggregateFunction function : functions) {
+                if (function == AggregateFunction.COUNT || function == AggregateFunction.SUM
+                        || function == AggregateFunction.AVG) {
+                    aggregates.put(function, null);
+                }
+            }
+            return;
+        }
+        Date timestamp = filter.getEndDate() != null ? filter.getEndDate() : new Date();
+        double sum = ((Number) row[1]).doubleValue();
+        if (functions.contains(AggregateFunction.COUNT)) {
+            aggregates.put(AggregateFunction.COUNT, new JdbcItem(item.getName(), new DecimalType(count), timestamp));
+        }
+        if (functions.contains(AggregateFunction.SUM)) {
+            aggregates.put(AggregateFunction.SUM, new JdbcItem(item.getName(), new DecimalType(sum), timestamp));
+        }
+        if (functions.contains(AggregateFunction.AVG)) {
+            aggregates.put(AggregateFunction.AVG, new JdbcItem(item.getName(), new DecimalType(sum / count), timestamp));
+        }
+    }
+
+    private Object[] queryAggregate(FilterCriteria filter, String table, AggregateFunction function) {
+        String sql = aggregateProvider(filter, table, function);
+        logger.debug("JDBC::queryAggregate sql={}", sql);
+        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+        return m.isEmpty() ? null : m.get(0);
+    }
+
     /*************
      * Providers *
      *************/
@@ -325,6 +462,52 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    protected String latestItemValuesProvider(Collection<String> tables) {
+        // SELECT 'item_0001', time, value FROM item_0001 WHERE time=(SELECT MAX(time) FROM item_0001) UNION ALL ...
+        StringBuilder queryString = new StringBuilder();
+        for (String table : tables) {
+            if (queryString.length() > 0) {
+                queryString.append(" UNION ALL ");
+            }
+            queryString.append("SELECT '").append(table).append("', time, value FROM ").append(table)
+                    .append(" WHERE time=(SELECT MAX(time) FROM ").append(table).append(")");
+        }
+        logger.debug("JDBC::latestItemValuesProvider queryString = {}", queryString);
+        return queryString.toString();
+    }
+
+    protected String aggregateProvider(FilterCriteria filter, String table, AggregateFunction function) {
+        String filterString = " WHERE value IS NOT NULL";
+        if (filter.getBeginDate() != null) {
+            filterString += " AND TIME>'" + jdbcDateFormat.print(new DateTime(filter.getBeginDate().getTime())) + "'";
+        }
+        if (filter.getEndDate() != null) {
+            filterString += " AND TIME<'" + jdbcDateFormat.print(new DateTime(filter.getEndDate().getTime())) + "'";
+        }
+        String queryString;
+        switch (function) {
+            case MIN:
+            case MAX:
+                // SELECT time, value FROM item_0001 WHERE ... AND value=(SELECT MAX(value) FROM item_0001 WHERE ...)
+                // ORDER BY time ASC; the first row is the first occurrence of the value
+                queryString = "SELECT time, value FROM " + table + filterString + " AND value=(SELECT " + function
+                        + "(value) FROM " + table + filterString + ") ORDER BY time ASC";
+                break;
+            case FIRST:
+            case LAST:
+                queryString = "SELECT time, value FROM " + table + " WHERE time=(SELECT "
+                        + (function == AggregateFunction.FIRST ? "MIN" : "MAX") + "(time) FROM " + table
+                        + filterString + ")";
+                break;
+            default:
+                // the average is computed from the sum, as AVG() of integer columns is truncated by some databases
+                queryString = "SELECT COUNT(value), SUM(value) FROM " + table + filterString;
+                break;
+        }
+        logger.debug("JDBC::aggregateProvider queryString = {}", queryString);
+        return queryString;
+    }
+
     private String updateItemTableNamesProvider(List<ItemVO> namesList) {
         logger.debug("JDBC::updateItemTableNamesProvider namesList.size = {}", namesList.size());
         String queryString = "";
@@ -336,49 +519,81 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Creates the statement of {@link #doStoreItemValues(List)} for the table of a value.
+     * The statement expects the time and the value of a row as parameters.
+     *
+     * @param vo a value of the table
+     * @return the statement
+     */
+    protected String storeItemValuesProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUES, new String[] { "#tableName#", "#dbType#" },
+                new String[] { vo.getTableName(), vo.getDbType() });
+    }
+
+    /**
+     * @param time the time of a value
+     * @return the time as parameter of {@link #SQL_INSERT_ITEM_VALUES}
+     */
+    protected Object timeParameterProvider(Date time) {
+        return new Timestamp(time.getTime());
+    }
+
     protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
+        return storeItemValueProvider(item, item.getState(), vo);
+    }
+
+    /**
+     * Sets the value and the value types of a {@link ItemVO} from a state of an item.
+     *
+     * @param item the item, which determines the value types
+     * @param state the state to store, which is not necessarily the current state of the item
+     * @param vo the value object to fill
+     * @return the filled value object
+     */
+    protected ItemVO storeItemValueProvider(Item item, State state, ItemVO vo) {
         String itemType = getItemType(item);
 
         logger.debug("JDBC::storeItemValueProvider: item '{}' as Type '{}' in '{}' with state '{}'", item.getName(),
-                itemType, vo.getTableName(), item.getState().toString());
+                itemType, vo.getTableName(), state.toString());
 
         // insertItemValue
-        logger.debug("JDBC::storeItemValueProvider: getState: '{}'", item.getState().toString());
+        logger.debug("JDBC::storeItemValueProvider: getState: '{}'", state.toString());
         if ("COLORITEM".equals(itemType)) {
             vo.setValueTypes(getSqlTypes().get(itemType), java.lang.String.class);
-            vo.setValue(item.getState().toString());
+            vo.setValue(state.toString());
         } else if ("NUMBERITEM".equals(itemType)) {
             String it = getSqlTypes().get(itemType);
             if (it.toUpperCase().contains("DOUBLE")) {
                 vo.setValueTypes(it, java.lang.Double.class);
-                Number newVal = ((DecimalType) item.getState());
+                Number newVal = ((DecimalType) state);
                 logger.debug("JDBC::storeItemValueProvider: newVal.doubleValue: '{}'", newVal.doubleValue());
                 vo.setValue(newVal.doubleValue());
             } else if (it.toUpperCase().contains("DECIMAL") || it.toUpperCase().contains("NUMERIC")) {
                 vo.setValueTypes(it, java.math.BigDecimal.class);
-                DecimalType newVal = ((DecimalType) item.getState());
+                DecimalType newVal = ((DecimalType) state);
                 logger.debug("JDBC::storeItemValueProvider: newVal.toBigDecimal: '{}'", newVal.toBigDecimal());
                 vo.setValue(newVal.toBigDecimal());
             } else if (it.toUpperCase().contains("INT")) {
                 vo.setValueTypes(it, java.lang.Integer.class);
-                Number newVal = ((DecimalType) item.getState());
+                Number newVal = ((DecimalType) state);
                 logger.debug("JDBC::storeItemValueProvider: newVal.intValue: '{}'", newVal.intValue());
                 vo.setValue(newVal.intValue());
             } else {// fall back to String
                 vo.setValueTypes(it, java.lang.String.class);
                 logger.warn("JDBC::storeItemValueProvider: item.getState().toString(): '{}'",
-                        item.getState().toString());
-                vo.setValue(item.getState().toString());
+                        state.toString());
+                vo.setValue(state.toString());
             }
         } else if ("ROLLERSHUTTERITEM".equals(itemType) || "DIMMERITEM".equals(itemType)) {
             vo.setValueTypes(getSqlTypes().get(itemType), java.lang.Integer.class);
-            Number newVal = ((DecimalType) item.getState());
+            Number newVal = ((DecimalType) state);
             logger.debug("JDBC::storeItemValueProvider: newVal.intValue: '{}'", newVal.intValue());
             vo.setValue(newVal.intValue());
         } else if ("DATETIMEITEM".equals(itemType)) {
             // vo.setValueTypes(getSqlTypes().get(itemType), java.util.Date.class);
             vo.setValueTypes(getSqlTypes().get(itemType), java.sql.Date.class);
-            Calendar x = ((DateTimeType) item.getState()).getCalendar();
+            Calendar x = ((DateTimeType) state).getCalendar();
             java.sql.Date d = new java.sql.Date(x.getTimeInMillis());
             logger.debug("JDBC::storeItemValueProvider: DateTimeItem: '{}'", d);
             vo.setValue(d);
@@ -400,8 +615,8 @@ public class JdbcBaseDAO {
             // All other items should return the best format by default
             vo.setValueTypes(getSqlTypes().get(itemType), java.lang.String.class);
             logger.debug("JDBC::storeItemValueProvider: other: item.getState().toString(): '{}'",
-                    item.getState().toString());
-            vo.setValue(item.getState().toString());
+                    state.toString());
+            vo.setValue(state.toString());
         }
         return vo;
     }
@@ -49,6 +49,9 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
         SQL_INSERT_ITEM_VALUE = "MERGE INTO #tableName# "
                 + "USING (VALUES NOW(), CAST( ? as #dbType#)) temp (TIME, VALUE) ON (#tableName#.TIME=temp.TIME) "
                 + "WHEN NOT MATCHED THEN INSERT (TIME, VALUE) VALUES (temp.TIME, temp.VALUE)";
+        SQL_INSERT_ITEM_VALUES = "MERGE INTO #tableName# "
+                + "USING (VALUES CAST( ? as TIMESTAMP), CAST( ? as #dbType#)) temp (TIME, VALUE) ON (#tableName#.TIME=temp.TIME) "
+                + "WHEN NOT MATCHED THEN INSERT (TIME, VALUE) VALUES (temp.TIME, temp.VALUE)";
     }
 
     /**
@@ -114,6 +117,12 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
     /****************************
      * SQL generation Providers *
      ****************************/
+    @Override
+    protected String storeItemValuesProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUES,
+                new String[] { "#tableName#", "#dbType#", "#tableName#" },
+                new String[] { vo.getTableName(), vo.getDbType(), vo.getTableName() });
+    }
 
     /*****************
      * H E L P E R S *
@@ -8,6 +8,8 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.util.Date;
+
 import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.model.ItemVO;
@@ -42,6 +44,7 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
         SQL_IF_TABLE_EXISTS = "SELECT name FROM sqlite_master WHERE type='table' AND name='#searchTable#'";
         SQL_CREATE_ITEMS_TABLE_IF_NOT = "CREATE TABLE IF NOT EXISTS #itemsManageTable# (ItemId INTEGER PRIMARY KEY AUTOINCREMENT, #colname# #coltype# NOT NULL)";
         SQL_INSERT_ITEM_VALUE = "INSERT OR IGNORE INTO #tableName# (TIME, VALUE) VALUES( DATETIME('now'), CAST( ? as #dbType#) )";
+        SQL_INSERT_ITEM_VALUES = "INSERT OR IGNORE INTO #tableName# (TIME, VALUE) VALUES( DATETIME(?, 'unixepoch'), CAST( ? as #dbType#) )";
     }
 
     /**
@@ -90,6 +93,11 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
     /****************************
      * SQL generation Providers *
      ****************************/
+    @Override
+    protected Object timeParameterProvider(Date time) {
+        // seconds since the epoch, so that the time is stored in the format of DATETIME('now')
+        return time.getTime() / 1000;
+    }
 
     /*****************
      * H E L P E R S *
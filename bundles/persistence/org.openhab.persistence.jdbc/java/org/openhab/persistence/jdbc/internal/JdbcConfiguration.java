@@ -58,6 +58,7 @@ public class JdbcConfiguration {
     public MovingAverage timeAverage50arr = new MovingAverage(50);
     public MovingAverage timeAverage100arr = new MovingAverage(100);
     public MovingAverage timeAverage200arr = new MovingAverage(200);
+    public MovingAverage batchSizeAverage100arr = new MovingAverage(100);
     public boolean enableLogTime = false;
 
     public JdbcConfiguration(Map<Object, Object> configuration) {
@@ -9,14 +9,20 @@
 package org.openhab.persistence.jdbc.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
+import org.openhab.core.persistence.AggregatingPersistenceService.AggregateFunction;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.PersistenceEntry;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.slf4j.Logger;
@@ -33,6 +39,8 @@ public class JdbcMapper {
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
     private static final String ITEM_NAME_PATTERN = "[^a-zA-Z_0-9\\-]";
+    // the maximum number of tables which are read with a single statement
+    private static final int LATEST_VALUES_BATCH_SIZE = 100;
 
     /*****************
      * MAPPER ITEMS *
@@ -137,6 +145,35 @@ public class JdbcMapper {
         return item;
     }
 
+    /**
+     * Stores the states of several entries with one JDBC batch per item table.
+     *
+     * @param entries the entries to store
+     */
+    public void storeItemValues(Collection<PersistenceEntry> entries) {
+        logger.debug("JDBC::storeItemValues: {} entries", entries.size());
+        Map<String, List<PersistenceEntry>> entriesByTable = new LinkedHashMap<String, List<PersistenceEntry>>();
+        for (PersistenceEntry entry : entries) {
+            String tableName = getTable(entry.getItem());
+            if (tableName == null) {
+                logger.error("JDBC::storeItemValues: Unable to store item '{}'.", entry.getItem().getName());
+                continue;
+            }
+            List<PersistenceEntry> tableEntries = entriesByTable.get(tableName);
+            if (tableEntries == null) {
+                tableEntries = new ArrayList<PersistenceEntry>();
+                entriesByTable.put(tableName, tableEntries);
+            }
+            tableEntries.add(entry);
+        }
+        for (Entry<String, List<PersistenceEntry>> entry : entriesByTable.entrySet()) {
+            long timerStart = System.currentTimeMillis();
+            conf.getDBDAO().doStoreItemValues(entry.getKey(), entry.getValue());
+            logTime("storeItemValues", timerStart, System.currentTimeMillis(), entry.getValue().size());
+        }
+        errCnt = 0;
+    }
+
     public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
@@ -154,6 +191,69 @@ public class JdbcMapper {
         return null;
     }
 
+    public Map<AggregateFunction, HistoricItem> getAggregates(FilterCriteria filter, String table, Item item,
+            Set<AggregateFunction> functions) {
+        logger.debug("JDBC::getAggregates functions='{}' table='{}' itemName='{}'", functions, table, item.getName());
+        long timerStart = System.currentTimeMillis();
+        Map<AggregateFunction, HistoricItem> r = conf.getDBDAO().doGetAggregates(item, filter, table, functions);
+        logTime("getAggregates", timerStart, System.currentTimeMillis());
+        return r;
+    }
+
+    /**
+     * Retrieves the most recent values of many items with a few statements. Items
+     * without a table are skipped, no tables are created for them.
+     *
+     * @param items the items to query, mapped by the item name
+     * @return the most recent historic item per item name
+     */
+    public Map<String, HistoricItem> getLatestItemValues(Map<String, Item> items) {
+        logger.debug("JDBC::getLatestItemValues: {} items", items.size());
+        long timerStart = System.currentTimeMillis();
+        // the values of tables with different data types can not be combined in one statement
+        Map<String, Map<String, Item>> tablesByDataType = new HashMap<String, Map<String, Item>>();
+        Map<String, String> itemNamesByTable = new HashMap<String, String>();
+        for (Entry<String, Item> entry : items.entrySet()) {
+            String table = sqlTables.get(entry.getKey());
+            if (table == null) {
+                continue;
+            }
+            String dataType = conf.getDBDAO().getDataType(entry.getValue());
+            Map<String, Item> tables = tablesByDataType.get(dataType);
+            if (tables == null) {
+                tables = new HashMap<String, Item>();
+                tablesByDataType.put(dataType, tables);
+            }
+            tables.put(table, entry.getValue());
+            itemNamesByTable.put(table, entry.getKey());
+        }
+
+        Map<String, HistoricItem> result = new HashMap<String, HistoricItem>();
+        for (Map<String, Item> tables : tablesByDataType.values()) {
+            Map<String, Item> batch = new HashMap<String, Item>();
+            for (Entry<String, Item> entry : tables.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() == LATEST_VALUES_BATCH_SIZE) {
+                    addLatestItemValues(batch, itemNamesByTable, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                addLatestItemValues(batch, itemNamesByTable, result);
+            }
+        }
+        logTime("getLatestItemValues", timerStart, System.currentTimeMillis());
+        return result;
+    }
+
+    private void addLatestItemValues(Map<String, Item> itemsByTable, Map<String, String> itemNamesByTable,
+            Map<String, HistoricItem> result) {
+        Map<String, HistoricItem> values = conf.getDBDAO().doGetLatestItemValues(itemsByTable);
+        for (Entry<String, HistoricItem> entry : values.entrySet()) {
+            result.put(itemNamesByTable.get(entry.getKey()), entry.getValue());
+        }
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
@@ -363,6 +463,13 @@ public class JdbcMapper {
      * H E L P E R S *
      *****************/
     private void logTime(String me, long timerStart, long timerStop) {
+        logTime(me, timerStart, timerStop, 0);
+    }
+
+    /**
+     * @param batchSize the number of rows written by a batch statement, <code>0</code> for other statements
+     */
+    private void logTime(String me, long timerStart, long timerStop, int batchSize) {
         if (conf.enableLogTime) {
             conf.timerCount++;
             int timerDiff = (int) (timerStop - timerStart);
@@ -387,6 +494,13 @@ public class JdbcMapper {
                     me, timerDiff, conf.timeAverage50arr.getAverageInteger(),
                     conf.timeAverage100arr.getAverageInteger(), conf.timeAverage200arr.getAverageInteger(),
                     afterAccessMin, afterAccessMax, conf.time1000Statements, conf.timerCount);
+            if (batchSize > 0) {
+                conf.batchSizeAverage100arr.add(batchSize);
+                logger.info(
+                        "JDBC::logTime: '{}':\n batchSize        = {} rows\n batchSizeAverage100 = {} rows\n timePerRow      = {} ms\n",
+                        me, batchSize, conf.batchSizeAverage100arr.getAverageInteger(),
+                        (double) timerDiff / batchSize);
+            }
         }
     }
 
@@ -9,18 +9,29 @@
 package org.openhab.persistence.jdbc.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.ColorItem;
+import org.openhab.core.library.items.DimmerItem;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.RollershutterItem;
+import org.openhab.core.persistence.AggregatingPersistenceService;
+import org.openhab.core.persistence.BatchPersistenceService;
+import org.openhab.core.persistence.BulkQueryablePersistenceService;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.PersistenceEntry;
 import org.openhab.core.persistence.PersistenceService;
-import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.UnDefType;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
@@ -32,7 +43,8 @@ import org.slf4j.LoggerFactory;
  *
  *
  */
-public class JdbcPersistenceService extends JdbcMapper implements QueryablePersistenceService {
+public class JdbcPersistenceService extends JdbcMapper
+        implements BulkQueryablePersistenceService, AggregatingPersistenceService, BatchPersistenceService {
     static final Logger logger = LoggerFactory.getLogger(JdbcPersistenceService.class);
 
     protected ItemRegistry itemRegistry;
@@ -135,6 +147,37 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
                 item.getState().toString(), (new java.util.Date()).toString(), System.currentTimeMillis() - timerStart);
     }
 
+    /**
+     * Stores the entries with one JDBC batch per item table. The persistence
+     * manager collects the entries according to the 'persistence-queue'
+     * settings, e.g. 'persistence-queue:jdbc.flushinterval' in openhab.cfg.
+     */
+    @Override
+    public void store(Collection<PersistenceEntry> entries) {
+        List<PersistenceEntry> definedEntries = new ArrayList<PersistenceEntry>(entries.size());
+        for (PersistenceEntry entry : entries) {
+            // Don not store undefined/uninitialised data
+            if (entry.getState() instanceof UnDefType) {
+                logger.warn("JDBC::store: ignore Item '{}' because it is UnDefType", entry.getItem().getName());
+            } else {
+                definedEntries.add(entry);
+            }
+        }
+        if (definedEntries.isEmpty()) {
+            return;
+        }
+        if (!checkDBAcessability()) {
+            logger.warn(
+                    "JDBC::store:  No connection to database. Can not persist {} items! Will retry connecting to database when error count:{} equals errReconnectThreshold:{}",
+                    definedEntries.size(), errCnt, conf.getErrReconnectThreshold());
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        storeItemValues(definedEntries);
+        logger.debug("JDBC: Stored {} items in SQL database in {}ms.", definedEntries.size(),
+                System.currentTimeMillis() - timerStart);
+    }
+
     /**
      * Queries the {@link PersistenceService} for data with a given filter
      * criteria
@@ -206,6 +249,93 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
         return items;
     }
 
+    /**
+     * @{inheritDoc
+     */
+    @Override
+    public Map<String, HistoricItem> queryLatest(Collection<String> itemNames) {
+        if (!checkDBAcessability()) {
+            logger.warn("JDBC::queryLatest: db not connected, query aborted for {} items", itemNames.size());
+            return Collections.emptyMap();
+        }
+        if (itemRegistry == null) {
+            logger.error("JDBC::queryLatest: itemRegistry == null Ignore and Give up!");
+            return Collections.emptyMap();
+        }
+
+        Map<String, Item> items = new HashMap<String, Item>();
+        for (String itemName : itemNames) {
+            Item item;
+            try {
+                item = itemRegistry.getItem(itemName);
+            } catch (ItemNotFoundException e) {
+                logger.debug("JDBC::queryLatest: unable to get item for itemName: '{}'. Ignore it!", itemName);
+                continue;
+            }
+            if (item instanceof GroupItem) {
+                // For Group Item is BaseItem needed to get correct Type of Value.
+                item = GroupItem.class.cast(item).getBaseItem();
+                if (item == null || item instanceof GroupItem) {
+                    logger.debug("JDBC::queryLatest: no usable BaseItem for GroupItem '{}'. Ignore it!", itemName);
+                    continue;
+                }
+            }
+            items.put(itemName, item);
+        }
+
+        long timerStart = System.currentTimeMillis();
+        Map<String, HistoricItem> result = getLatestItemValues(items);
+        logger.debug("JDBC::queryLatest: query for {} items returned {} values in {}ms", items.size(), result.size(),
+                System.currentTimeMillis() - timerStart);
+
+        // Success
+        errCnt = 0;
+        return result;
+    }
+
+    /**
+     * @{inheritDoc
+     */
+    @Override
+    public Map<AggregateFunction, HistoricItem> aggregate(FilterCriteria filter, Set<AggregateFunction> functions) {
+        if (!checkDBAcessability() || itemRegistry == null) {
+            throw new UnsupportedOperationException("JDBC::aggregate: db not connected or itemRegistry not set");
+        }
+
+        String itemName = filter.getItemName();
+        Item item;
+        try {
+            item = itemRegistry.getItem(itemName);
+        } catch (ItemNotFoundException e) {
+            throw new UnsupportedOperationException("JDBC::aggregate: unable to get item for itemName: " + itemName);
+        }
+        if (item instanceof GroupItem) {
+            // For Group Item is BaseItem needed to get correct Type of Value.
+            item = GroupItem.class.cast(item).getBaseItem();
+        }
+        // only these item types are stored as numerical values, ColorItems are stored as text
+        if (!(item instanceof NumberItem || item instanceof DimmerItem || item instanceof RollershutterItem)
+                || item instanceof ColorItem) {
+            throw new UnsupportedOperationException("JDBC::aggregate: values of item '" + itemName
+                    + "' are not numerical");
+        }
+
+        String table = sqlTables.get(itemName);
+        if (table == null) {
+            logger.debug("JDBC::aggregate: no table found, no Data in Database for Item '{}'", itemName);
+            return new EnumMap<AggregateFunction, HistoricItem>(AggregateFunction.class);
+        }
+
+        long timerStart = System.currentTimeMillis();
+        Map<AggregateFunction, HistoricItem> result = getAggregates(filter, table, item, functions);
+        logger.debug("JDBC::aggregate: {} for {} computed in {}ms", functions, itemName,
+                System.currentTimeMillis() - timerStart);
+
+        // Success
+        errCnt = 0;
+        return result;
+    }
+
     /**
      * @{inheritDoc
      */
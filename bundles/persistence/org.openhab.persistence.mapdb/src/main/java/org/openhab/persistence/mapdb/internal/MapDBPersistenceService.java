@@ -15,8 +15,10 @@ import static org.quartz.impl.matchers.GroupMatcher.jobGroupEquals;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,10 +32,10 @@ import org.openhab.core.library.items.DimmerItem;
 import org.openhab.core.library.items.RollershutterItem;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.persistence.BulkQueryablePersistenceService;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
-import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.osgi.framework.BundleContext;
@@ -58,7 +60,7 @@ import org.slf4j.LoggerFactory;
  * @author Jens Viebig
  * @since 1.7.0
  */
-public class MapDBPersistenceService implements QueryablePersistenceService {
+public class MapDBPersistenceService implements BulkQueryablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
 
@@ -174,6 +176,18 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
         return Collections.emptyList();
     }
 
+    @Override
+    public Map<String, HistoricItem> queryLatest(Collection<String> itemNames) {
+        Map<String, HistoricItem> items = new HashMap<String, HistoricItem>();
+        for (String itemName : itemNames) {
+            HistoricItem item = map.get(itemName);
+            if (item != null) {
+                items.put(itemName, item);
+            }
+        }
+        return items;
+    }
+
     /**
      * Schedules new quartz scheduler jobs for committing transactions and
      * backing up the database
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the most recently used rrd4j databases open, so that they do not have to
+ * be opened and closed on every access.
+ *
+ * Every database is guarded by a lock of its own: a database is locked by
+ * {@link #acquire(String)} and must be unlocked by {@link #release(String)}, so
+ * that different databases can be accessed concurrently. If more databases than
+ * the capacity of the pool are open, the least recently used ones which are not
+ * locked are closed.
+ *
+ * @since 1.9.0
+ */
+public class RRD4jDatabasePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(RRD4jDatabasePool.class);
+
+    /** the default number of databases which are kept open */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * Opens or creates a database for an alias.
+     */
+    public interface Opener {
+
+        /**
+         * @param alias the alias of the database
+         * @return the opened database or <code>null</code>, if it cannot be opened
+         * @throws IOException if the database cannot be opened
+         */
+        RrdDb open(String alias) throws IOException;
+
+    }
+
+    private final Opener opener;
+
+    private final int capacity;
+
+    /** the open databases in access order, guarded by itself */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong openCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public RRD4jDatabasePool(Opener opener, int capacity) {
+        this.opener = opener;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Returns the open database for an alias and locks it for the current thread.
+     * Every successful call must be followed by a call of {@link #release(String)}.
+     *
+     * @param alias the alias of the database
+     * @return the database or <code>null</code>, if it cannot be opened
+     * @throws IOException if the database cannot be opened
+     */
+    public RrdDb acquire(String alias) throws IOException {
+        while (true) {
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(alias);
+                if (entry == null) {
+                    entry = new Entry();
+                    entries.put(alias, entry);
+                }
+            }
+            entry.lock.lock();
+            if (entry.removed) {
+                // the database has been closed while we were waiting for it
+                entry.lock.unlock();
+                continue;
+            }
+            if (entry.db != null && !entry.db.isClosed()) {
+                hitCount.incrementAndGet();
+            } else {
+                boolean opened = false;
+                try {
+                    entry.db = opener.open(alias);
+                    opened = entry.db != null;
+                } finally {
+                    if (!opened) {
+                        remove(alias, entry);
+                        entry.lock.unlock();
+                    }
+                }
+                if (!opened) {
+                    return null;
+                }
+                openCount.incrementAndGet();
+                evict(entry);
+            }
+            return entry.db;
+        }
+    }
+
+    /**
+     * Unlocks a database which has been returned by {@link #acquire(String)}.
+     *
+     * @param alias the alias of the database
+     */
+    public void release(String alias) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(alias);
+        }
+        if (entry != null && entry.lock.isHeldByCurrentThread()) {
+            entry.lock.unlock();
+        } else {
+            logger.warn("rrd4j database '{}' has been released without being acquired", alias);
+        }
+    }
+
+    /**
+     * Closes all databases. Databases which are in use are closed after they have
+     * been released.
+     */
+    public void close() {
+        List<Map.Entry<String, Entry>> openEntries;
+        synchronized (entries) {
+            openEntries = new ArrayList<Map.Entry<String, Entry>>(entries.entrySet());
+        }
+        for (Map.Entry<String, Entry> entry : openEntries) {
+            // a locked entry stays in the pool until it has been released
+            entry.getValue().lock.lock();
+            try {
+                remove(entry.getKey(), entry.getValue());
+                close(entry.getKey(), entry.getValue());
+            } finally {
+                entry.getValue().lock.unlock();
+            }
+        }
+        logger.debug("Closed all rrd4j databases: {}", this);
+    }
+
+    private void remove(String alias, Entry entry) {
+        entry.removed = true;
+        synchronized (entries) {
+            if (entries.get(alias) == entry) {
+                entries.remove(alias);
+            }
+        }
+    }
+
+    /**
+     * Closes the least recently used databases which are not in use, as long as
+     * more databases than the capacity are open.
+     *
+     * @param current the entry of the current thread, which is never evicted
+     */
+    private void evict(Entry current) {
+        List<Map.Entry<String, Entry>> evicted = null;
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > capacity && iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (entry.getValue() != current && entry.getValue().lock.tryLock()) {
+                    entry.getValue().removed = true;
+                    iterator.remove();
+                    if (evicted == null) {
+                        evicted = new ArrayList<Map.Entry<String, Entry>>();
+                    }
+                    evicted.add(entry);
+                }
+            }
+        }
+        if (evicted != null) {
+            for (Map.Entry<String, Entry> entry : evicted) {
+                try {
+                    close(entry.getKey(), entry.getValue());
+                    evictionCount.incrementAndGet();
+                } finally {
+                    entry.getValue().lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void close(String alias, Entry entry) {
+        if (entry.db != null) {
+            try {
+                entry.db.close();
+            } catch (IOException e) {
+                logger.debug("Error closing rrd4j database '{}': {}", alias, e.getMessage());
+            }
+            entry.db = null;
+        }
+    }
+
+    /**
+     * @return the number of accesses to databases which were already open
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of databases which have been opened or created
+     */
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * @return the number of databases which have been closed to stay within the capacity
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the number of open databases
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RRD4jDatabasePool [capacity=" + capacity + ", hits=" + getHitCount() + ", opened=" + getOpenCount()
+                + ", evicted=" + getEvictionCount() + "]";
+    }
+
+    private static class Entry {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        /** guarded by the lock */
+        RrdDb db;
+
+        /** set when the entry has been removed from the pool; guarded by the lock */
+        volatile boolean removed = false;
+
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * rrd4j accepts at most one sample per second and database. Samples which arrive
+ * in a second that has already been written are kept here, consolidated with
+ * other samples of the same database, and written by a single shared thread as
+ * soon as the next second has begun.
+ *
+ * @since 1.9.0
+ */
+public class RRD4jSampleCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RRD4jSampleCoalescer.class);
+
+    /**
+     * Determines how the samples which are kept for the same second are consolidated.
+     */
+    public enum Consolidation {
+        /** the most recent sample is written */
+        LAST,
+        /** the maximum of the samples is written */
+        MAX,
+        /** the average of the samples is written */
+        AVERAGE
+    }
+
+    /**
+     * Writes the consolidated samples to the databases.
+     */
+    public interface Writer {
+
+        /**
+         * @param alias the alias of the database
+         * @param time the time of the sample in seconds
+         * @param value the consolidated value
+         */
+        void write(String alias, long time, double value);
+
+    }
+
+    private final Writer writer;
+
+    private final Consolidation consolidation;
+
+    private final ConcurrentMap<String, PendingSample> pendingSamples = new ConcurrentHashMap<String, PendingSample>();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public RRD4jSampleCoalescer(Writer writer, Consolidation consolidation) {
+        this.writer = writer;
+        this.consolidation = consolidation;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "RRD4jSampleCoalescer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Adds a value to the sample which is kept for a database, if there is one.
+     *
+     * @param alias the alias of the database
+     * @param value the value to add
+     * @return <code>true</code>, if the value has been added, <code>false</code> if
+     *         there is no sample kept for the database
+     */
+    public boolean addToPending(String alias, double value) {
+        PendingSample sample = pendingSamples.get(alias);
+        return sample != null && sample.add(value);
+    }
+
+    /**
+     * Keeps a value which cannot be written yet, as the database has already been
+     * updated at the given time. It is written at the following second.
+     *
+     * @param alias the alias of the database
+     * @param lastUpdateTime the time of the last update of the database in seconds
+     * @param value the value to keep
+     */
+    public void defer(String alias, long lastUpdateTime, double value) {
+        while (!addToPending(alias, value)) {
+            final PendingSample sample = new PendingSample(alias, lastUpdateTime + 1, value);
+            if (pendingSamples.putIfAbsent(alias, sample) == null) {
+                long delay = sample.time * 1000 - System.currentTimeMillis();
+                try {
+                    scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            flush(sample);
+                        }
+                    }, Math.max(0, delay), TimeUnit.MILLISECONDS);
+                } catch (RuntimeException e) {
+                    // the coalescer has been closed
+                    flush(sample);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes all kept samples and stops the thread of the coalescer.
+     */
+    public void close() {
+        scheduler.shutdownNow();
+        for (PendingSample sample : pendingSamples.values()) {
+            flush(sample);
+        }
+    }
+
+    /**
+     * @return the number of databases for which samples are kept
+     */
+    public int getPendingCount() {
+        return pendingSamples.size();
+    }
+
+    private void flush(PendingSample sample) {
+        double value;
+        synchronized (sample) {
+            if (sample.flushed) {
+                return;
+            }
+            sample.flushed = true;
+            pendingSamples.remove(sample.alias, sample);
+            value = sample.getValue();
+        }
+        logger.trace("Writing sample of '{}' consolidated from {} values", sample.alias, sample.count);
+        try {
+            writer.write(sample.alias, sample.time, value);
+        } catch (RuntimeException e) {
+            logger.warn("Could not persist '{}' to rrd4j database: {}", sample.alias, e.getMessage());
+        }
+    }
+
+    private class PendingSample {
+
+        final String alias;
+
+        final long time;
+
+        double last;
+
+        double max;
+
+        double sum;
+
+        int count;
+
+        boolean flushed = false;
+
+        PendingSample(String alias, long time, double value) {
+            this.alias = alias;
+            this.time = time;
+            this.last = value;
+            this.max = value;
+            this.sum = value;
+            this.count = 1;
+        }
+
+        synchronized boolean add(double value) {
+            if (flushed) {
+                return false;
+            }
+            last = value;
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+            return true;
+        }
+
+        double getValue() {
+            switch (consolidation) {
+                case MAX:
+                    return max;
+                case AVERAGE:
+                    return sum / count;
+                default:
+                    return last;
+            }
+        }
+
+    }
+
+}
@@ -11,14 +11,13 @@ package org.openhab.persistence.rrd4j.internal;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -35,16 +34,17 @@ import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.persistence.BulkQueryablePersistenceService;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
-import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.State;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
 import org.rrd4j.core.Sample;
@@ -55,11 +55,16 @@ import org.slf4j.LoggerFactory;
  * This is the implementation of the RRD4j {@link PersistenceService}. To learn
  * more about RRD4j please visit their <a href="https://github.com/rrd4j/rrd4j">website</a>.
  *
+ * The databases are kept open in a {@link RRD4jDatabasePool}. The number of open databases can be set by the
+ * configuration property <code>openfiles</code>, the rrd4j backend (e.g. <code>FILE</code> or the memory mapped
+ * <code>NIO</code>) by <code>backend</code>. Values which arrive within the same second are consolidated as
+ * configured by <code>coalescing</code> (<code>LAST</code>, <code>MAX</code> or <code>AVERAGE</code>).
+ *
  * @author Kai Kreuzer
  * @author Jan N. Klug
  * @since 1.0.0
  */
-public class RRD4jService implements QueryablePersistenceService {
+public class RRD4jService implements BulkQueryablePersistenceService {
 
     private ConcurrentHashMap<String, RrdDefConfig> rrdDefs = new ConcurrentHashMap<String, RrdDefConfig>();
 
@@ -69,7 +74,11 @@ public class RRD4jService implements QueryablePersistenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(RRD4jService.class);
 
-    private Map<String, Timer> timers = new HashMap<String, Timer>();
+    private static volatile RRD4jDatabasePool pool;
+
+    private static volatile RrdBackendFactory backendFactory = RrdBackendFactory.getDefaultFactory();
+
+    private volatile RRD4jSampleCoalescer coalescer;
 
     protected ItemRegistry itemRegistry;
 
@@ -93,75 +102,78 @@ public class RRD4jService implements QueryablePersistenceService {
      * @{inheritDoc}
      */
     @Override
-    public synchronized void store(final Item item, final String alias) {
+    public void store(final Item item, final String alias) {
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
+        DecimalType state = (DecimalType) item.getStateAs(DecimalType.class);
+        Double value = state != null ? state.toBigDecimal().doubleValue() : null;
+        RRD4jSampleCoalescer currentCoalescer = coalescer;
+        if (value != null && currentCoalescer != null && currentCoalescer.addToPending(name, value)) {
+            // the value is written together with the others of this second
+            logger.trace("Kept '{}' with state '{}' for the next second", name, state);
+            return;
+        }
+        store(name, System.currentTimeMillis() / 1000, value);
+    }
+
+    /**
+     * Stores a value in the database of an alias. If the database has already been updated
+     * at the given time, the value is passed to the {@link RRD4jSampleCoalescer}, which stores
+     * it at the following second.
+     *
+     * @param name the alias of the database
+     * @param now the time of the value in seconds
+     * @param value the value or <code>null</code>, if the item has no numeric state
+     */
+    private void store(String name, long now, Double value) {
+        RrdDb db = acquireDB(name);
         if (db != null) {
-            ConsolFun function = getConsolidationFunction(db);
-            long now = System.currentTimeMillis() / 1000;
-            if (function != ConsolFun.AVERAGE) {
-                try {
-                    // we store the last value again, so that the value change in the database is not interpolated, but
-                    // happens right at this spot
-                    if (now - 1 > db.getLastUpdateTime()) {
-                        // only do it if there is not already a value
-                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                        if (!Double.isNaN(lastValue)) {
-                            Sample sample = db.createSample();
-                            sample.setTime(now - 1);
-                            sample.setValue(DATASOURCE_STATE, lastValue);
-                            sample.update();
-                            logger.debug("Stored '{}' with state '{}' in rrd4j database (again)", name,
-                                    mapToState(lastValue, item.getName()));
+            try {
+                ConsolFun function = getConsolidationFunction(db);
+                if (value != null && now <= db.getLastUpdateTime()) {
+                    // rrd4j requires at least one second between two samples
+                    RRD4jSampleCoalescer currentCoalescer = coalescer;
+                    if (currentCoalescer != null) {
+                        currentCoalescer.defer(name, db.getLastUpdateTime(), value);
+                        logger.trace("Kept '{}' with state '{}' for the next second", name, value);
+                    }
+                    return;
+                }
+                if (function != ConsolFun.AVERAGE) {
+                    try {
+                        // we store the last value again, so that the value change in the database is not interpolated,
+                        // but happens right at this spot
+                        if (now - 1 > db.getLastUpdateTime()) {
+                            // only do it if there is not already a value
+                            double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                            if (!Double.isNaN(lastValue)) {
+                                Sample sample = db.createSample();
+                                sample.setTime(now - 1);
+                                sample.setValue(DATASOURCE_STATE, lastValue);
+                                sample.update();
+                                logger.debug("Stored '{}' with state '{}' in rrd4j database (again)", name,
+                                        mapToState(lastValue, name));
+                            }
                         }
+                    } catch (IOException e) {
+                        logger.debug("Error storing last value (again): {}", e.getMessage());
                     }
-                } catch (IOException e) {
-                    logger.debug("Error storing last value (again): {}", e.getMessage());
                 }
-            }
-            try {
-                Sample sample = db.createSample();
-                sample.setTime(now);
-
-                DecimalType state = (DecimalType) item.getStateAs(DecimalType.class);
-                if (state != null) {
-                    double value = state.toBigDecimal().doubleValue();
+                if (value != null) {
+                    Sample sample = db.createSample();
+                    sample.setTime(now);
+                    double sampleValue = value;
                     if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
                                                                                           // adjusted by stepsize
-                        value = value * db.getRrdDef().getStep();
+                        sampleValue = sampleValue * db.getRrdDef().getStep();
                     }
-                    sample.setValue(DATASOURCE_STATE, value);
+                    sample.setValue(DATASOURCE_STATE, sampleValue);
                     sample.update();
-                    logger.debug("Stored '{}' with state '{}' in rrd4j database", name, state);
-                }
-            } catch (IllegalArgumentException e) {
-                if (e.getMessage().contains("at least one second step is required")) {
-
-                    // we try to store the value one second later
-                    TimerTask task = new TimerTask() {
-                        @Override
-                        public void run() {
-                            store(item, name);
-                        }
-                    };
-                    Timer timer = timers.get(name);
-                    if (timer != null) {
-                        timer.cancel();
-                        timers.remove(name);
-                    }
-                    timer = new Timer();
-                    timers.put(name, timer);
-                    timer.schedule(task, 1000);
-                } else {
-                    logger.warn("Could not persist '{}' to rrd4j database: {}", new String[] { name, e.getMessage() });
+                    logger.debug("Stored '{}' with state '{}' in rrd4j database", name, value);
                 }
             } catch (Exception e) {
                 logger.warn("Could not persist '{}' to rrd4j database: {}", new String[] { name, e.getMessage() });
-            }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+            } finally {
+                releaseDB(name);
             }
         }
     }
@@ -177,7 +189,7 @@ public class RRD4jService implements QueryablePersistenceService {
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
-        RrdDb db = getDB(itemName);
+        RrdDb db = acquireDB(itemName);
         if (db != null) {
             ConsolFun consolidationFunction = getConsolidationFunction(db);
             long start = 0L;
@@ -230,18 +242,91 @@ public class RRD4jService implements QueryablePersistenceService {
             } catch (IOException e) {
                 logger.warn("Could not query rrd4j database for item '{}': {}",
                         new String[] { itemName, e.getMessage() });
+            } finally {
+                releaseDB(itemName);
             }
         }
         return Collections.emptyList();
     }
 
-    protected synchronized RrdDb getDB(String alias) {
+    /**
+     * @{inheritDoc}
+     */
+    @Override
+    public Map<String, HistoricItem> queryLatest(Collection<String> itemNames) {
+        Map<String, HistoricItem> items = new HashMap<String, HistoricItem>();
+        for (String itemName : itemNames) {
+            // only look at existing databases, as we do not want to create empty ones for all items
+            File file = new File(DB_FOLDER + File.separator + itemName + ".rrd");
+            if (!file.exists()) {
+                continue;
+            }
+            RrdDb db = acquireDB(itemName);
+            if (db != null) {
+                try {
+                    double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                    if (!Double.isNaN(lastValue)) {
+                        items.put(itemName, new RRD4jItem(itemName, mapToState(lastValue, itemName),
+                                new Date(db.getLastArchiveUpdateTime() * 1000)));
+                    }
+                } catch (IOException e) {
+                    logger.warn("Could not query rrd4j database for item '{}': {}",
+                            new String[] { itemName, e.getMessage() });
+                } finally {
+                    releaseDB(itemName);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Returns the open database for an alias from the pool and locks it. It must be
+     * released by {@link #releaseDB(String)}, once it is not used anymore.
+     *
+     * @param alias the alias of the database
+     * @return the database or <code>null</code>, if it cannot be opened
+     */
+    protected RrdDb acquireDB(String alias) {
+        RRD4jDatabasePool currentPool = pool;
+        if (currentPool == null) {
+            logger.debug("rrd4j persistence service is not active, cannot access database '{}'", alias);
+            return null;
+        }
+        try {
+            return currentPool.acquire(alias);
+        } catch (IOException e) {
+            logger.error("Could not open rrd4j database '{}': {}", alias, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Releases a database which has been returned by {@link #acquireDB(String)}.
+     *
+     * @param alias the alias of the database
+     */
+    protected void releaseDB(String alias) {
+        RRD4jDatabasePool currentPool = pool;
+        if (currentPool != null) {
+            currentPool.release(alias);
+        }
+    }
+
+    /**
+     * Opens or creates the database for an alias. Databases are opened by the pool only,
+     * so that there is a single open instance per database.
+     *
+     * @param alias the alias of the database
+     * @return the database or <code>null</code>, if it cannot be opened
+     */
+    protected RrdDb getDB(String alias) {
         RrdDb db = null;
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
         try {
             if (file.exists()) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = new RrdDb(file.getAbsolutePath(), backendFactory);
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -249,7 +334,7 @@ public class RRD4jService implements QueryablePersistenceService {
                 }
                 // create a new database file
                 // db = new RrdDb(getRrdDef(function, file));
-                db = new RrdDb(getRrdDef(alias, file));
+                db = new RrdDb(getRrdDef(alias, file), backendFactory);
             }
         } catch (IOException e) {
             logger.error("Could not create rrd4j database file '{}': {}",
@@ -346,6 +431,9 @@ public class RRD4jService implements QueryablePersistenceService {
      */
     public void activate(final Map<String, Object> config) {
 
+        createDatabasePool(config);
+        createSampleCoalescer(config);
+
         // add default configurations
         RrdDefConfig defaultNumeric = new RrdDefConfig("default_numeric");
         defaultNumeric.setDef("GAUGE,60,U,U,60");
@@ -373,6 +461,10 @@ public class RRD4jService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (key.equals("backend") || key.equals("openfiles") || key.equals("coalescing")) { // already used
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -424,6 +516,94 @@ public class RRD4jService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * @{inheritDoc
+     */
+    public void deactivate() {
+        RRD4jSampleCoalescer currentCoalescer = coalescer;
+        coalescer = null;
+        if (currentCoalescer != null) {
+            // the kept values are written before the databases are closed
+            currentCoalescer.close();
+        }
+        RRD4jDatabasePool currentPool = pool;
+        pool = null;
+        if (currentPool != null) {
+            currentPool.close();
+        }
+    }
+
+    private void createDatabasePool(Map<String, Object> config) {
+        RrdBackendFactory factory = RrdBackendFactory.getDefaultFactory();
+        int capacity = RRD4jDatabasePool.DEFAULT_CAPACITY;
+        if (config != null) {
+            Object backend = config.get("backend");
+            if (backend instanceof String && StringUtils.isNotBlank((String) backend)) {
+                try {
+                    factory = RrdBackendFactory.getFactory(((String) backend).trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unknown rrd4j backend '{}', using '{}' instead", backend, factory.getName());
+                }
+            }
+            Object openFiles = config.get("openfiles");
+            if (openFiles instanceof String && StringUtils.isNotBlank((String) openFiles)) {
+                try {
+                    capacity = Integer.parseInt(((String) openFiles).trim());
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring illegal number of open files '{}'", openFiles);
+                }
+            }
+        }
+        backendFactory = factory;
+        RRD4jDatabasePool oldPool = pool;
+        pool = new RRD4jDatabasePool(new RRD4jDatabasePool.Opener() {
+            @Override
+            public RrdDb open(String alias) throws IOException {
+                return getDB(alias);
+            }
+        }, capacity);
+        if (oldPool != null) {
+            oldPool.close();
+        }
+        logger.debug("Using rrd4j backend '{}' with up to {} open databases", factory.getName(), capacity);
+    }
+
+    private void createSampleCoalescer(Map<String, Object> config) {
+        RRD4jSampleCoalescer.Consolidation consolidation = RRD4jSampleCoalescer.Consolidation.LAST;
+        Object value = config != null ? config.get("coalescing") : null;
+        if (value instanceof String && StringUtils.isNotBlank((String) value)) {
+            try {
+                consolidation = RRD4jSampleCoalescer.Consolidation.valueOf(((String) value).trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown coalescing '{}', using '{}' instead", value, consolidation);
+            }
+        }
+        RRD4jSampleCoalescer oldCoalescer = coalescer;
+        coalescer = new RRD4jSampleCoalescer(new RRD4jSampleCoalescer.Writer() {
+            @Override
+            public void write(String alias, long time, double value) {
+                store(alias, time, value);
+            }
+        }, consolidation);
+        if (oldCoalescer != null) {
+            oldCoalescer.close();
+        }
+    }
+
+    /**
+     * @return the pool of the open databases, <code>null</code> if the service is not active
+     */
+    public static RRD4jDatabasePool getDatabasePool() {
+        return pool;
+    }
+
+    /**
+     * @return the rrd4j backend used to open the databases
+     */
+    public static RrdBackendFactory getBackendFactory() {
+        return backendFactory;
+    }
+
     private class RrdArchiveDef {
         public ConsolFun fcn;
         public double xff;
@@ -30,6 +30,7 @@ import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.library.items.NumberItem;
 import org.openhab.io.net.http.SecureHttpContext;
+import org.openhab.persistence.rrd4j.internal.RRD4jDatabasePool;
 import org.openhab.persistence.rrd4j.internal.RRD4jService;
 import org.openhab.ui.chart.ChartProvider;
 import org.openhab.ui.items.ItemUIRegistry;
@@ -181,20 +182,15 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
-        try {
-            RrdDb db = new RrdDb(rrdName);
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
-            db.close();
-        } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
-        }
+        String backend = RRD4jService.getBackendFactory().getName();
+        consolFun = getConsolidationFunction(item.getName(), rrdName);
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun, backend);
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun, backend);
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);
@@ -202,6 +198,41 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         }
     }
 
+    /**
+     * Determines the consolidation function of the database of an item. The database is
+     * taken from the pool of the persistence service, if it is active.
+     *
+     * @param itemName the name of the item
+     * @param rrdName the path of the database file
+     * @return the consolidation function of the first archive, MAX if it cannot be determined
+     */
+    private ConsolFun getConsolidationFunction(String itemName, String rrdName) {
+        RRD4jDatabasePool pool = RRD4jService.getDatabasePool();
+        try {
+            if (pool == null) {
+                RrdDb db = new RrdDb(rrdName, RRD4jService.getBackendFactory());
+                try {
+                    return db.getRrdDef().getArcDefs()[0].getConsolFun();
+                } finally {
+                    db.close();
+                }
+            } else if (new File(rrdName).exists()) {
+                // the pool would create a missing database
+                RrdDb db = pool.acquire(itemName);
+                if (db != null) {
+                    try {
+                        return db.getRrdDef().getArcDefs()[0].getConsolFun();
+                    } finally {
+                        pool.release(itemName);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Could not read the consolidation function of '{}': {}", rrdName, e.getMessage());
+        }
+        return ConsolFun.MAX;
+    }
+
     /**
      * Creates a {@link SecureHttpContext} which handles the security for this
      * servlet